@@ -1,45 +1,97 @@
 package algorithm;
 
+import checker.PlacementChecker;
 import gui.BlockEvent;
 import gui.EmptyGUIEvent;
 import gui.PlacementEvent;
-import parser.ArchitectureParser;
-import parser.NetlistParser;
+import parser.PackedNetlistParser;
+import parser.ParseCache;
+import parser.PlacementParser;
+import profiling.VPREvent;
+import router.CongestionEstimator;
+import router.PathFinderRouter;
+import router.RoutingResult;
 import types.Architecture;
 import types.CircuitElement;
+import types.Net;
+import types.NetlistTopology;
+import types.PackedNetlist;
 import writer.PlacementWriter;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeSet;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service class to execute common algorithms of vpr or own zft. Execution will take place in a separate thread.
  * Algorithms can be executed multithreaded. The usage of the same netlist will result in only one
- * placement file, therefore multithreaded execution should use different netlists.
+ * placement file, therefore multithreaded execution should use different netlists. Every execution returns a
+ * {@link Job}, which stops only this execution.
  */
 public class AlgorithmExecutor {
     private static final String ASSETS = "./assets";
     private static final String OUT = ASSETS + "/out/";
     private static final String VPR = ASSETS + "/vpr.exe";
+    // heap need of a job per byte of its netlist file, measured on the mcnc circuits: a zft placement keeps about
+    // 8 bytes, parsing needs about as much on top, the routing graph of a channel width of 64 about 250 bytes
+    private static final long PLACEMENT_BYTES_PER_FILE_BYTE = 16;
+    private static final long ROUTING_BYTES_PER_FILE_BYTE = 256;
+    // an off-heap placement only keeps the lines of one block on the heap while parsing
+    private static final long OFF_HEAP_PLACEMENT_BYTES = 16L << 20;
+    // time vpr gets to exit after closing its output
+    private static final long VPR_EXIT_TIMEOUT_SECONDS = 10;
 
     SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss.SSS");
 
 
     private final ExecutorService executorService;
+    private final int poolSize;
+    private final AtomicLong submitted = new AtomicLong();
+    // jobs waiting for a free thread and enough heap, largest first, see QueuedTask
+    private final TreeSet<QueuedTask> pending = new TreeSet<>();
+    private int runningTasks = 0;
+    private boolean shutdown = false;
+    // heap admission: estimated heap need of all running jobs and its limit
+    private long admittedBytes = 0;
+    private long heapBudget = Runtime.getRuntime().maxMemory() * 3 / 4;
 
-    // Mainly used for stopping execution out of the ui. Not capable of using in multithreading
-    private Future<?> currentTask;
-    private Process currentProcess;
+    // the last submitted job, stopped by the ui
+    private volatile Job currentJob;
+    private final Set<Job> runningJobs = ConcurrentHashMap.newKeySet();
     // UI events
     private final BlockEvent blockEvent;
     private final PlacementEvent placementEvent;
 
+    // parsed files are shared by all tasks, re-runs of the same netlist start placing immediately
+    private final ParseCache parseCache = new ParseCache(Runtime.getRuntime().maxMemory() / 8);
+
+    // zft settings, that apply to all following placements
+    private int tabuTenure = 0;
+    private boolean adaptiveArea = false;
+    private int detailedPlacementPasses = 0;
+    private int padRefinementInterval = 0;
+    private int checkpointInterval = 0;
+    private long placementDeadline = 0;
+
+    /**
+     * Creates an executor with one thread per core.
+     */
+    public AlgorithmExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
     public AlgorithmExecutor(int corePoolSize) {
         this(corePoolSize, new EmptyGUIEvent(), new EmptyGUIEvent());
     }
@@ -47,13 +99,98 @@ public class AlgorithmExecutor {
     public AlgorithmExecutor(int corePoolSize, BlockEvent blockEvent, PlacementEvent placementEvent) {
         this.blockEvent = blockEvent;
         this.placementEvent = placementEvent;
+        this.poolSize = corePoolSize;
+        // tasks are only handed over, when a thread is free, see dispatch()
         executorService = new ThreadPoolExecutor(corePoolSize, corePoolSize, 0L, TimeUnit.MILLISECONDS,
                 new LinkedBlockingQueue<>());
         sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
     }
 
     /**
-     * Executes placement with the zero force target (zft) algorithm. IO-Block will always be randomly placed.
+     * Enables the tabu search mode for all following zft placements.
+     *
+     * @param tabuTenure number of recent positions, a block may not switch back to, 0 disables tabu search
+     */
+    public void setTabuTenure(int tabuTenure) {
+        this.tabuTenure = tabuTenure;
+    }
+
+    /**
+     * Adapts the search area of all following zft placements to the acceptance rate of their moves. The area
+     * swap size of a placement becomes the maximal size of its search area.
+     *
+     * @param adaptiveArea true, to shrink the search area, when few blocks are moved
+     */
+    public void setAdaptiveArea(boolean adaptiveArea) {
+        this.adaptiveArea = adaptiveArea;
+    }
+
+    /**
+     * Sets the number of iterations between two refinements of the io pads of all following zft placements, see
+     * {@link ZFTAlgorithm#setPadRefinementInterval(int)}.
+     *
+     * @param interval number of iterations, 0 keeps the random initial pad positions (default)
+     */
+    public void setPadRefinementInterval(int interval) {
+        this.padRefinementInterval = interval;
+    }
+
+    /**
+     * Sets the number of passes of the detailed placement, that rearranges small windows of blocks after all
+     * following zft placements, see {@link DetailedPlacer}.
+     *
+     * @param passes maximal number of passes, 0 disables the detailed placement (default)
+     */
+    public void setDetailedPlacementPasses(int passes) {
+        this.detailedPlacementPasses = passes;
+    }
+
+    /**
+     * Sets the number of iterations between two checkpoints of all following zft placements. Checkpoints are
+     * written to the output folder and can be continued by {@link #resumeZFT}.
+     *
+     * @param checkpointInterval number of iterations, 0 disables checkpoints (default)
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Limits the runtime of all following zft placements. A placement reaching the deadline stops and writes
+     * the best placement found so far.
+     *
+     * @param millis maximum runtime of a placement in milliseconds, 0 for no limit
+     */
+    public void setPlacementDeadline(long millis) {
+        this.placementDeadline = millis;
+    }
+
+    /**
+     * Limits the estimated heap need of all running jobs. A job, that does not fit, stays queued until enough
+     * running jobs are finished, smaller queued jobs may start before. A job exceeding the limit on its own
+     * runs, when no other job is running.
+     *
+     * @param bytes heap budget in bytes, three quarters of the maximal heap by default
+     */
+    public void setHeapBudget(long bytes) {
+        synchronized (this) {
+            this.heapBudget = bytes;
+        }
+        dispatch();
+    }
+
+    /**
+     * Sets the memory budget of the cache for parsed netlists.
+     *
+     * @param bytes memory budget in bytes
+     */
+    public void setParseCacheBudget(long bytes) {
+        parseCache.setBudget(bytes);
+    }
+
+    /**
+     * Executes placement with the zero force target (zft) algorithm. IO-Blocks are placed randomly and may
+     * be refined during the placement, see {@link #setPadRefinementInterval(int)}.
      *
      * @param netlist         netlist
      * @param architecture    architecture
@@ -62,36 +199,220 @@ public class AlgorithmExecutor {
      * @param randomInitPlace whether to place the clb's randomly or place them in order of the net-crossing-values
      * @param verbose         verbose mode
      */
-    public void executeZFT(File netlist, File architecture, int iterations, int areaSwapSize, boolean randomInitPlace
+    public Job executeZFT(File netlist, File architecture, int iterations, int areaSwapSize, boolean randomInitPlace
             , boolean verbose) {
+        return executeZFT(netlist, architecture, iterations, areaSwapSize,
+                randomInitPlace ? InitStrategy.RANDOM : InitStrategy.GRID_BASED, verbose);
+    }
+
+    /**
+     * Executes placement with the zero force target (zft) algorithm. IO-Blocks are placed randomly and may
+     * be refined during the placement, see {@link #setPadRefinementInterval(int)}.
+     *
+     * @param netlist      netlist
+     * @param architecture architecture
+     * @param iterations   number of iterations for placing clb's
+     * @param areaSwapSize size of an area, a block can be placed, if the zft-position is blocked
+     * @param initStrategy initial placement of the clb's
+     * @param verbose      verbose mode
+     */
+    public Job executeZFT(File netlist, File architecture, int iterations, int areaSwapSize,
+                           InitStrategy initStrategy, boolean verbose) {
+        return executePlacement(netlist, architecture, (blocks, nets, arch, token) -> {
+            ZFTAlgorithm algorithm = new ZFTAlgorithm(blocks, nets, arch, initStrategy, verbose);
+            algorithm.setCancellationToken(token);
+            algorithm.setAdaptiveArea(adaptiveArea);
+            algorithm.setPadRefinementInterval(padRefinementInterval);
+            if (tabuTenure > 0) algorithm.setTabuTenure(tabuTenure);
+            if (checkpointInterval > 0) algorithm.setCheckpoint(checkpointFile(netlist), checkpointInterval);
+            algorithm.run(iterations, areaSwapSize);
+            return algorithm;
+        });
+    }
+
+    /**
+     * Continues a zft placement from its latest checkpoint, e.g. after it was stopped. The placement must have
+     * been started with checkpoints, see {@link #setCheckpointInterval(int)}. The settings of the tabu search
+     * are taken from the checkpoint.
+     *
+     * @param netlist      netlist
+     * @param architecture architecture
+     * @param iterations   total number of iterations, including the iterations before the checkpoint
+     * @param areaSwapSize size of an area, a block can be placed, if the zft-position is blocked
+     * @param verbose      verbose mode
+     */
+    public Job resumeZFT(File netlist, File architecture, int iterations, int areaSwapSize, boolean verbose) {
+        return executePlacement(netlist, architecture, (blocks, nets, arch, token) -> {
+            File file = checkpointFile(netlist);
+            if (!file.exists()) throw new IllegalStateException("No checkpoint found for " + netlist.getName());
+            PlacementCheckpoint checkpoint;
+            try {
+                checkpoint = PlacementCheckpoint.read(file);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read checkpoint " + file.getName(), e);
+            }
+            ZFTAlgorithm algorithm = new ZFTAlgorithm(blocks, nets, arch, checkpoint, verbose);
+            algorithm.setCancellationToken(token);
+            algorithm.setAdaptiveArea(adaptiveArea);
+            algorithm.setPadRefinementInterval(padRefinementInterval);
+            if (checkpointInterval > 0) algorithm.setCheckpoint(file, checkpointInterval);
+            algorithm.run(iterations, areaSwapSize);
+            return algorithm;
+        });
+    }
+
+    private File checkpointFile(File netlist) {
+        return new File(OUT + getSimpleName(netlist, ".ckpt"));
+    }
+
+    /**
+     * Executes a multilevel placement. The netlist is coarsened, placed on the coarsest level and refined level
+     * by level. The finest level will be refined by the zft algorithm.
+     *
+     * @param netlist      netlist
+     * @param architecture architecture
+     * @param iterations   number of iterations for the zft refinement
+     * @param areaSwapSize size of an area, a block can be placed, if the zft-position is blocked
+     * @param verbose      verbose mode
+     */
+    public Job executeMultilevelZFT(File netlist, File architecture, int iterations, int areaSwapSize,
+                                     boolean verbose) {
+        return executePlacement(netlist, architecture, (blocks, nets, arch, token) -> {
+            MultilevelPlacer placer = new MultilevelPlacer(blocks, nets, arch, verbose);
+            placer.getAlgorithm().setCancellationToken(token);
+            placer.getAlgorithm().setAdaptiveArea(adaptiveArea);
+            placer.getAlgorithm().setPadRefinementInterval(padRefinementInterval);
+            if (tabuTenure > 0) placer.getAlgorithm().setTabuTenure(tabuTenure);
+            placer.run(iterations, areaSwapSize);
+            return placer.getAlgorithm();
+        });
+    }
+
+    /**
+     * Executes a zft placement, that keeps its state outside of the heap, for very large netlists. The initial
+     * placement is random, tabu search and checkpoints are not supported. The net file is streamed into direct
+     * buffers and not cached, blif files are not supported. The direct buffers are limited by
+     * -XX:MaxDirectMemorySize, which defaults to the maximal heap size.
+     *
+     * @param netlist      net file
+     * @param architecture architecture
+     * @param iterations   number of iterations for placing clb's
+     * @param areaSwapSize size of an area, a block can be placed, if the zft-position is blocked
+     */
+    public Job executeOffHeapZFT(File netlist, File architecture, int iterations, int areaSwapSize) {
+        Job job = new Job(netlist.getName(), OFF_HEAP_PLACEMENT_BYTES);
         Runnable runnableTask = () -> {
             try {
                 Thread.currentThread().setName(netlist.getName());
                 blockEvent.blockUI();
                 final long startTime = System.currentTimeMillis();
-                ArchitectureParser archParser = new ArchitectureParser();
-                NetlistParser parser = new NetlistParser();
-                Architecture arch = archParser.parse(architecture);
-                List<CircuitElement> nets = parser.parse(netlist, arch);
+                if (placementDeadline > 0) job.getCancellationToken().setDeadline(placementDeadline);
+                if (netlist.getName().endsWith(".blif"))
+                    throw new IllegalStateException("The off-heap placement reads net files only, pack "
+                            + netlist.getName() + " first.");
+                Architecture arch = parseCache.getArchitecture(architecture);
+                PackedNetlist packed = new PackedNetlistParser().parse(netlist, arch);
 
-                ZFTAlgorithm algorithm = new ZFTAlgorithm(nets, parser.getNets(), arch, randomInitPlace, verbose);
+                OffHeapZFTAlgorithm algorithm = new OffHeapZFTAlgorithm(packed, arch.getIoRate());
+                algorithm.setCancellationToken(job.getCancellationToken());
+                algorithm.setAdaptiveArea(adaptiveArea);
                 algorithm.run(iterations, areaSwapSize);
+                int errors = algorithm.checkConsistency();
+                if (errors > 0) {
+                    System.out.println("Error in placement consistency check: " + errors + " blocks are misplaced.");
+                    throw new IllegalStateException("Illegal placement of " + netlist.getName());
+                }
+                double costs = algorithm.calcTotalCosts();
+                System.out.printf(Locale.US, "Placement costs: %.2f%n", costs);
+                String placeFile = OUT + getSimpleName(netlist, ".place");
+                new PlacementWriter().write(placeFile, netlist, architecture, packed, algorithm,
+                        algorithm.getXDimensionRespectively(), algorithm.getYDimensionRespectively());
+                job.putResult("place", placeFile);
+                job.putResult("cost", costs);
+                job.putResult("width", algorithm.getXDimensionRespectively());
+                job.putResult("height", algorithm.getYDimensionRespectively());
+                job.putResult("runtimeMs", System.currentTimeMillis() - startTime);
+
+                System.out.println("Placement runtime took: " + sdf.format(new Date((System.currentTimeMillis() - startTime))));
+                System.out.println("Finished.\n");
+                placementEvent.generating(true);
+            } catch (InterruptedException e) {
+                placementEvent.generating(false);
+                job.fail("Placement was stopped.");
+                System.out.println("Placement of " + netlist.getName() + " was stopped.\n");
+            } catch (Exception e) {
+                placementEvent.generating(false);
+                job.fail(String.valueOf(e));
+                e.printStackTrace();
+            } finally {
+                blockEvent.freeUI();
+            }
+        };
+        return submit(job, runnableTask);
+    }
+
+    private Job executePlacement(File netlist, File architecture, PlacementTask task) {
+        Job job = new Job(netlist.getName(), PLACEMENT_BYTES_PER_FILE_BYTE * netlist.length());
+        Runnable runnableTask = () -> {
+            try {
+                Thread.currentThread().setName(netlist.getName());
+                blockEvent.blockUI();
+                final long startTime = System.currentTimeMillis();
+                if (placementDeadline > 0) job.getCancellationToken().setDeadline(placementDeadline);
+                Architecture arch = parseCache.getArchitecture(architecture);
+                NetlistTopology.Instance instance = parseCache.getNetlist(netlist, architecture).instantiate();
+
+                ZFTAlgorithm algorithm = task.place(instance.getBlocks(), instance.getNets(), arch,
+                        job.getCancellationToken());
+                if (detailedPlacementPasses > 0) {
+                    DetailedPlacer detailedPlacer = new DetailedPlacer(algorithm, instance.getNets());
+                    detailedPlacer.setCancellationToken(job.getCancellationToken());
+                    detailedPlacer.run(detailedPlacementPasses);
+                }
+                List<CircuitElement> placed = algorithm.getPlacementsAsList();
+                List<String> errors = new PlacementChecker(arch).check(instance.getBlocks(),
+                        algorithm.getXDimensionRespectively(), algorithm.getYDimensionRespectively());
+                if (placed.size() != instance.getBlocks().size())
+                    errors.add((instance.getBlocks().size() - placed.size()) + " blocks are missing in the grid.");
+                if (!errors.isEmpty()) {
+                    errors.forEach(error -> System.out.println("Error in placement consistency check: " + error));
+                    throw new IllegalStateException("Illegal placement of " + netlist.getName());
+                }
+                double costs = algorithm.calcTotalCosts();
+                System.out.printf(Locale.US, "Placement costs: %.2f%n", costs);
+                String placeFile = OUT + getSimpleName(netlist, ".place");
                 PlacementWriter writer = new PlacementWriter();
-                writer.write(OUT + getSimpleName(netlist, ".place"), netlist, architecture,
-                        algorithm.getPlacementsAsList(), algorithm.getXDimensionRespectively(),
-                        algorithm.getYDimensionRespectively());
+                writer.write(placeFile, netlist, architecture, placed,
+                        algorithm.getXDimensionRespectively(), algorithm.getYDimensionRespectively());
+
+                CongestionEstimator.CongestionMap congestion = new CongestionEstimator(placed, algorithm.getXDimensionRespectively(),
+                        algorithm.getYDimensionRespectively()).estimate();
+                System.out.printf(Locale.US, "Estimated channel width: %d (peak demand %.2f, average demand %.2f)%n",
+                        congestion.getPredictedChannelWidth(), congestion.getPeakDemand(),
+                        congestion.getAverageDemand());
+                job.putResult("place", placeFile);
+                job.putResult("cost", costs);
+                job.putResult("width", algorithm.getXDimensionRespectively());
+                job.putResult("height", algorithm.getYDimensionRespectively());
+                job.putResult("estimatedChannelWidth", congestion.getPredictedChannelWidth());
+                job.putResult("runtimeMs", System.currentTimeMillis() - startTime);
 
                 System.out.println("Placement runtime took: " + sdf.format(new Date((System.currentTimeMillis() - startTime))));
                 System.out.println("Finished.\n");
                 placementEvent.generating(true);
+            } catch (InterruptedException e) {
+                placementEvent.generating(false);
+                job.fail("Placement was stopped.");
+                System.out.println("Placement of " + netlist.getName() + " was stopped.\n");
             } catch (Exception e) {
                 placementEvent.generating(false);
+                job.fail(String.valueOf(e));
                 e.printStackTrace();
             } finally {
                 blockEvent.freeUI();
             }
         };
-        currentTask = executorService.submit(runnableTask);
+        return submit(job, runnableTask);
     }
 
     /**
@@ -100,8 +421,8 @@ public class AlgorithmExecutor {
      * @param netlist      netlist
      * @param architecture architecture
      */
-    public void executeBoundingBox(File netlist, File architecture) {
-        executeVPRAlgorithm(netlist, null, architecture, "-place_only", "bounding_box");
+    public Job executeBoundingBox(File netlist, File architecture) {
+        return executeVPRAlgorithm(netlist, null, architecture, "-place_only", "bounding_box");
     }
 
     /**
@@ -110,8 +431,8 @@ public class AlgorithmExecutor {
      * @param netlist      netlist
      * @param architecture architecture
      */
-    public void executeNetTiming(File netlist, File architecture) {
-        executeVPRAlgorithm(netlist, null, architecture, "-place_only", "net_timing_driven");
+    public Job executeNetTiming(File netlist, File architecture) {
+        return executeVPRAlgorithm(netlist, null, architecture, "-place_only", "net_timing_driven");
     }
 
     /**
@@ -120,8 +441,8 @@ public class AlgorithmExecutor {
      * @param netlist      netlist
      * @param architecture architecture
      */
-    public void executePathTiming(File netlist, File architecture) {
-        executeVPRAlgorithm(netlist, null, architecture, "-place_only", "path_timing_driven");
+    public Job executePathTiming(File netlist, File architecture) {
+        return executeVPRAlgorithm(netlist, null, architecture, "-place_only", "path_timing_driven");
     }
 
     /**
@@ -130,72 +451,284 @@ public class AlgorithmExecutor {
      * @param netlist      netlist
      * @param architecture architecture
      */
-    public void executeVPRRouting(File netlist, File architecture) {
-        executeVPRAlgorithm(netlist, null, architecture, "-route_only", "path_timing_driven");
+    public Job executeVPRRouting(File netlist, File architecture) {
+        return executeVPRAlgorithm(netlist, null, architecture, "-route_only", "path_timing_driven");
+    }
+
+    public Job executeVPRRouting(File netlist, File place, File architecture) {
+        return executeVPRAlgorithm(netlist, place, architecture, "-route_only", "path_timing_driven");
+    }
+
+    /**
+     * Routes the placement of the netlist in process with the PathFinder router and searches the minimal
+     * channel width.
+     *
+     * @param netlist      netlist
+     * @param architecture architecture
+     */
+    public Job executeRouting(File netlist, File architecture) {
+        return executeRouting(netlist, null, architecture);
     }
 
-    public void executeVPRRouting(File netlist, File place, File architecture) {
-        executeVPRAlgorithm(netlist, place, architecture, "-route_only", "path_timing_driven");
+    /**
+     * Routes the given placement of the netlist in process with the PathFinder router and searches the minimal
+     * channel width.
+     *
+     * @param netlist      netlist
+     * @param place        placement file, the last placement of the netlist if null
+     * @param architecture architecture
+     */
+    public Job executeRouting(File netlist, File place, File architecture) {
+        Job job = new Job(netlist.getName(), ROUTING_BYTES_PER_FILE_BYTE * netlist.length());
+        Runnable runnableTask = () -> {
+            try {
+                Thread.currentThread().setName(netlist.getName());
+                blockEvent.blockUI();
+                final long startTime = System.currentTimeMillis();
+                Architecture arch = parseCache.getArchitecture(architecture);
+                NetlistTopology.Instance instance = parseCache.getNetlist(netlist, architecture).instantiate();
+                List<CircuitElement> blocks = instance.getBlocks();
+
+                PlacementParser placementParser = new PlacementParser();
+                if (!checkPlacement(placeFile(netlist, place), blocks, arch, placementParser)) {
+                    placementEvent.generating(false);
+                    job.fail("Illegal placement of " + netlist.getName());
+                    return;
+                }
+                System.out.println("Completed placement consistency check successfully.");
+                PathFinderRouter router = new PathFinderRouter(blocks, instance.getNets(), arch,
+                        placementParser.getXDimension(), placementParser.getYDimension(), false);
+
+                RoutingResult result = router.routeMinChannelWidth();
+                if (result.isSuccessful() && router.checkRouting()) {
+                    System.out.println("Completed routing consistency check successfully.");
+                    System.out.println("Best routing used a channel width factor of " + result.getChannelWidth() + ".");
+                    System.out.println("Total wirelength: " + result.getWirelength());
+                    job.putResult("channelWidth", result.getChannelWidth());
+                    job.putResult("wirelength", result.getWirelength());
+                } else {
+                    System.out.println("Error in routing consistency check: circuit is unroutable.");
+                    job.fail("Circuit is unroutable.");
+                }
+                job.putResult("runtimeMs", System.currentTimeMillis() - startTime);
+                System.out.println("Routing runtime took: " + sdf.format(new Date((System.currentTimeMillis() - startTime))));
+                System.out.println("Finished.\n");
+                placementEvent.generating(result.isSuccessful());
+            } catch (InterruptedException e) {
+                placementEvent.generating(false);
+                job.fail("Routing was stopped.");
+                System.out.println("Routing of " + netlist.getName() + " was stopped.\n");
+            } catch (Exception e) {
+                placementEvent.generating(false);
+                job.fail(String.valueOf(e));
+                e.printStackTrace();
+            } finally {
+                blockEvent.freeUI();
+            }
+        };
+        return submit(job, runnableTask);
+    }
+
+    private File placeFile(File netlist, File place) {
+        return place != null ? place : new File(OUT + getSimpleName(netlist, ".place"));
+    }
+
+    /**
+     * Applies the placement file to the blocks and checks its legality. Errors are printed like by the
+     * placement consistency check of vpr.
+     *
+     * @param placeFile       placement file
+     * @param blocks          unplaced blocks of the netlist
+     * @param arch            architecture
+     * @param placementParser parser for the placement file, holds the dimension of the placement afterwards
+     * @return true, if the placement is legal
+     */
+    private boolean checkPlacement(File placeFile, List<CircuitElement> blocks, Architecture arch,
+                                   PlacementParser placementParser) {
+        List<String> errors;
+        try {
+            placementParser.parse(placeFile, blocks);
+            errors = new PlacementChecker(arch).check(blocks, placementParser.getXDimension(),
+                    placementParser.getYDimension());
+        } catch (IllegalStateException e) {
+            errors = List.of(e.getMessage());
+        }
+        errors.forEach(error -> System.out.println("Error in placement consistency check: " + error));
+        return errors.isEmpty();
+    }
+
+    /**
+     * Checks whether the bundled vpr can be executed, it is only available on windows.
+     *
+     * @return true, if vpr is available
+     */
+    public static boolean isVPRAvailable() {
+        return System.getProperty("os.name").toLowerCase().startsWith("windows") && new File(VPR).exists();
     }
 
-    private void executeVPRAlgorithm(File netlist, File place, File architecture, String method, String algorithm) {
+    private Job executeVPRAlgorithm(File netlist, File place, File architecture, String method, String algorithm) {
+        Job job = new Job(netlist.getName(), PLACEMENT_BYTES_PER_FILE_BYTE * netlist.length());
         Runnable runnableTask = () -> {
             Thread.currentThread().setName(netlist.getName());
             blockEvent.blockUI();
             final long startTime = System.currentTimeMillis();
+            VPREvent event = new VPREvent();
+            event.begin();
+            event.circuit = netlist.getName();
+            event.method = method;
+            event.algorithm = algorithm;
+            event.exitCode = -1;
             try {
                 String placeFile = OUT + getSimpleName(netlist, ".place");
                 if (place != null)
                     placeFile = place.getAbsolutePath() ;
+                // fail fast on illegal placements, before vpr is started
+                if (method.equals("-route_only") && !checkPlacement(new File(placeFile),
+                        parseCache.getNetlist(netlist, architecture).instantiate().getBlocks(),
+                        parseCache.getArchitecture(architecture), new PlacementParser())) {
+                    placementEvent.generating(false);
+                    job.fail("Illegal placement of " + netlist.getName());
+                    return;
+                }
                 String[] cmd = {VPR, netlist.getAbsolutePath(), architecture.getAbsolutePath(),
                         placeFile, OUT + getSimpleName(netlist, ".route"), method,
                         "-place_algorithm", algorithm, "-fix_pins", "random"};
-                currentProcess = Runtime.getRuntime().exec(cmd);
-                BufferedReader reader = new BufferedReader(new InputStreamReader(currentProcess.getInputStream()));
+                Process process = Runtime.getRuntime().exec(cmd);
+                job.setProcess(process);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
                 String line = reader.readLine();
                 while (line != null && !Thread.currentThread().isInterrupted()) {
                     System.out.println(line);
+                    event.outputLines++;
                     line = reader.readLine();
                 }
+                // the end of the output does not mean, that vpr has exited
+                try {
+                    if (process.waitFor(VPR_EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        event.exitCode = process.exitValue();
+                    } else {
+                        process.destroy();
+                    }
+                } catch (InterruptedException e) {
+                    process.destroy();
+                    placementEvent.generating(false);
+                    job.fail("VPR was stopped.");
+                    return;
+                }
+                job.putResult("exitCode", event.exitCode);
+                if (event.exitCode != 0) job.fail("vpr exited with code " + event.exitCode);
                 placementEvent.generating(true);
             } catch (Exception e) {
                 placementEvent.generating(false);
+                job.fail(String.valueOf(e));
                 e.printStackTrace();
             } finally {
+                event.commit();
                 System.out.println("VPR runtime took: " + sdf.format(new Date((System.currentTimeMillis() - startTime))));
                 System.out.println("Finished.\n");
-                currentProcess = null;
                 blockEvent.freeUI();
             }
         };
-        currentTask = executorService.submit(runnableTask);
+        return submit(job, runnableTask);
     }
 
     /**
-     * Stops the execution of the current running algorithm. Only in single-thread-mode. The execution
-     * of following tasks is still possible.
+     * Submits the task of a job. The job is queued until a thread is free and its estimated heap need fits into
+     * the heap budget. A job cancelled before it starts is skipped.
      */
-    public void stopExecution() {
+    private Job submit(Job job, Runnable task) {
+        synchronized (this) {
+            if (shutdown) throw new RejectedExecutionException("Executor is shut down");
+            runningJobs.add(job);
+            currentJob = job;
+            pending.add(new QueuedTask(job, submitted.getAndIncrement(), task));
+        }
+        dispatch();
+        return job;
+    }
+
+    /**
+     * Hands the queued tasks to the threads of the pool, largest first. A task, that does not fit into the heap
+     * budget, is passed over, thus it does not block a thread, while smaller tasks could run. Cancelled tasks
+     * are removed from the queue.
+     */
+    private void dispatch() {
+        List<Job> cancelled = new ArrayList<>();
+        synchronized (this) {
+            Iterator<QueuedTask> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                QueuedTask queued = iterator.next();
+                Job job = queued.job;
+                if (job.isCancelled()) {
+                    iterator.remove();
+                    cancelled.add(job);
+                    continue;
+                }
+                if (runningTasks >= poolSize) continue;
+                if (admittedBytes > 0 && admittedBytes + job.getEstimatedBytes() > heapBudget) {
+                    if (!queued.waiting) {
+                        System.out.println(job.getName() + " waits for " + (job.getEstimatedBytes() >> 20)
+                                + " MB of heap, " + (admittedBytes >> 20) + " MB are in use.");
+                        queued.waiting = true;
+                    }
+                    continue;
+                }
+                iterator.remove();
+                admittedBytes += job.getEstimatedBytes();
+                runningTasks++;
+                executorService.execute(queued);
+            }
+            if (shutdown && pending.isEmpty()) executorService.shutdown();
+        }
+        // the done listeners run outside of the lock
+        for (Job job : cancelled) {
+            runningJobs.remove(job);
+            job.finish();
+        }
+    }
 
-        // canceling and destroy process
-        currentTask.cancel(true);
-        if (currentProcess != null) currentProcess.destroy();
+    private void release(Job job) {
+        synchronized (this) {
+            admittedBytes -= job.getEstimatedBytes();
+            runningTasks--;
+        }
+        dispatch();
+    }
 
-        // check, whether the execution has stopped
-        int trys = 10;
-        while (!currentTask.isDone() && trys-- > 0) {
-            try {
-                currentTask.wait(200);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+    /**
+     * @return jobs, that are queued or running
+     */
+    public List<Job> getRunningJobs() {
+        return List.copyOf(runningJobs);
+    }
+
+    /**
+     * Stops the last submitted job and waits up to 2 seconds for its termination. Other jobs keep running,
+     * they can be stopped by their own handle. The execution of following tasks is still possible.
+     */
+    public void stopExecution() {
+        Job job = currentJob;
+        if (job == null) return;
+        job.cancel();
+        try {
+            // free utility if the job has not stopped, may lead to stuck threads
+            if (!job.awaitTermination(2000)) {
+                System.out.println("Termination not finished in time");
+                blockEvent.freeUI();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+    }
 
-        // free utility if the process has not stopped, may lead to stuck threads
-        if (!currentTask.isDone()) {
-            System.out.println("Termination not finished in time");
-            blockEvent.freeUI();
+    /**
+     * Stops all queued and running jobs.
+     */
+    public void stopAll() {
+        for (Job job : runningJobs) {
+            job.cancel();
         }
+        dispatch();
     }
 
     /**
@@ -205,7 +738,11 @@ public class AlgorithmExecutor {
      * @param waitForShutdown wait for termination/shutdown of all running tasks
      */
     public void shutdown(boolean waitForShutdown) {
-        executorService.shutdown();
+        // queued tasks are still handed over, the pool is shut down afterwards
+        synchronized (this) {
+            shutdown = true;
+            if (pending.isEmpty()) executorService.shutdown();
+        }
         try {
             if  (waitForShutdown && executorService.awaitTermination(300, TimeUnit.MINUTES)) {
                 // wait
@@ -221,5 +758,53 @@ public class AlgorithmExecutor {
         return file.getName().substring(0, dotIndex) + ending;
     }
 
+    /**
+     * Task in the queue of the executor. Larger jobs come first, they would stretch the total runtime most, if
+     * they started last. Jobs of the same size keep the order of their submission.
+     */
+    private class QueuedTask implements Runnable, Comparable<QueuedTask> {
+
+        private final Job job;
+        private final long sequence;
+        private final Runnable task;
+        // the job was reported to wait for heap
+        private boolean waiting = false;
+
+        QueuedTask(Job job, long sequence, Runnable task) {
+            this.job = job;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            job.start();
+            try {
+                if (!job.isCancelled()) task.run();
+            } finally {
+                job.detach();
+                // a pending interrupt of the job must not hit the next task of this worker thread
+                Thread.interrupted();
+                runningJobs.remove(job);
+                release(job);
+                job.finish();
+            }
+        }
+
+        @Override
+        public int compareTo(QueuedTask other) {
+            int bySize = Long.compare(other.job.getEstimatedBytes(), job.getEstimatedBytes());
+            return bySize != 0 ? bySize : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Placement algorithm executed on a parsed netlist.
+     */
+    private interface PlacementTask {
+        ZFTAlgorithm place(List<CircuitElement> netlist, List<Net> nets, Architecture arch, CancellationToken token)
+                throws InterruptedException;
+    }
+
 
 }
@@ -0,0 +1,243 @@
+package algorithm;
+
+import types.CircuitElement;
+import types.ElementType;
+import types.Net;
+import types.Position;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Analytical initial placement of the logic blocks. The connectivity of the nets is written as sparse laplacian
+ * matrix, in which the already placed io pads are fixed anchors. Minimizing the quadratic wirelength leads to
+ * two linear systems for the x and y coordinates, which are solved with a preconditioned conjugate gradient
+ * solver. The continuous solution is spread onto the clb grid by sorting the blocks into columns and rows.
+ */
+public class AnalyticalPlacer {
+
+    // nets with more pins are modelled as a ring over their pins instead of a clique
+    private static final int MAX_CLIQUE_SIZE = 30;
+    // weak pull to the center for blocks without a connection to any io pad
+    private static final double CENTER_WEIGHT = 1e-4;
+    private static final int MAX_CG_ITERATIONS = 500;
+    private static final double CG_TOLERANCE = 1e-6;
+    // the sparse matrix-vector product is parallelised for larger systems only
+    private static final int PARALLEL_THRESHOLD = 2000;
+
+    private final List<CircuitElement> logicElements;
+    private final int gridSize;
+    private final Map<CircuitElement, Integer> index = new HashMap<>();
+
+    // laplacian in compressed row format, the diagonal is stored separately
+    private double[] diagonal;
+    private int[] rowStart;
+    private int[] column;
+    private double[] value;
+    private double[] rhsX;
+    private double[] rhsY;
+
+    /**
+     * @param logicElements logic blocks to place, all io pads connected to them must already be placed
+     * @param gridSize      number of clbs per row of the placement grid
+     */
+    public AnalyticalPlacer(List<CircuitElement> logicElements, int gridSize) {
+        this.logicElements = logicElements;
+        this.gridSize = gridSize;
+        for (int i = 0; i < logicElements.size(); i++) {
+            index.put(logicElements.get(i), i);
+        }
+    }
+
+    /**
+     * Calculates the target positions of all logic blocks. The targets are distinct positions of the grid, as
+     * long as the grid holds enough positions.
+     *
+     * @return target position for each logic block
+     */
+    public Map<CircuitElement, Position> place() {
+        int n = logicElements.size();
+        Map<CircuitElement, Position> targets = new HashMap<>();
+        if (n == 0) return targets;
+
+        buildMatrix();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Arrays.fill(x, (gridSize + 1) / 2.0);
+        Arrays.fill(y, (gridSize + 1) / 2.0);
+        int iterationsX = solve(rhsX, x);
+        int iterationsY = solve(rhsY, y);
+        System.out.println("Solved quadratic placement of " + n + " blocks after " + Math.max(iterationsX,
+                iterationsY) + " cg iterations");
+        return spread(x, y);
+    }
+
+    private void buildMatrix() {
+        int n = logicElements.size();
+        List<Map<Integer, Double>> rows = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            rows.add(new HashMap<>());
+        }
+        diagonal = new double[n];
+        rhsX = new double[n];
+        rhsY = new double[n];
+
+        Set<Net> visited = new HashSet<>();
+        for (CircuitElement elem : logicElements) {
+            for (Net net : elem.getPinList()) {
+                List<CircuitElement> pads = net.getConnectedPads();
+                if (pads.size() < 2 || !visited.add(net)) continue;
+                double w = 1.0 / (pads.size() - 1);
+                if (pads.size() <= MAX_CLIQUE_SIZE) {
+                    for (int a = 0; a < pads.size(); a++) {
+                        for (int b = a + 1; b < pads.size(); b++) {
+                            connect(rows, pads.get(a), pads.get(b), w);
+                        }
+                    }
+                } else {
+                    for (int a = 0; a < pads.size(); a++) {
+                        connect(rows, pads.get(a), pads.get((a + 1) % pads.size()), 2 * w);
+                    }
+                }
+            }
+        }
+
+        double center = (gridSize + 1) / 2.0;
+        rowStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            diagonal[i] += CENTER_WEIGHT;
+            rhsX[i] += CENTER_WEIGHT * center;
+            rhsY[i] += CENTER_WEIGHT * center;
+            rowStart[i + 1] = rowStart[i] + rows.get(i).size();
+        }
+        column = new int[rowStart[n]];
+        value = new double[rowStart[n]];
+        for (int i = 0; i < n; i++) {
+            int e = rowStart[i];
+            for (Map.Entry<Integer, Double> entry : rows.get(i).entrySet()) {
+                column[e] = entry.getKey();
+                value[e] = entry.getValue();
+                e++;
+            }
+        }
+    }
+
+    /**
+     * Adds a spring between two blocks. Springs to an io pad are fixed anchors and go into the right hand side.
+     */
+    private void connect(List<Map<Integer, Double>> rows, CircuitElement a, CircuitElement b, double w) {
+        Integer ia = index.get(a);
+        Integer ib = index.get(b);
+        if (ia != null && ib != null) {
+            if (ia.equals(ib)) return;
+            diagonal[ia] += w;
+            diagonal[ib] += w;
+            rows.get(ia).merge(ib, -w, Double::sum);
+            rows.get(ib).merge(ia, -w, Double::sum);
+        } else if (ia != null && b.getType() != ElementType.CLB && b.getPosition() != null) {
+            anchor(ia, b.getPosition(), w);
+        } else if (ib != null && a.getType() != ElementType.CLB && a.getPosition() != null) {
+            anchor(ib, a.getPosition(), w);
+        }
+    }
+
+    private void anchor(int i, Position pos, double w) {
+        diagonal[i] += w;
+        rhsX[i] += w * pos.getX();
+        rhsY[i] += w * pos.getY();
+    }
+
+    /**
+     * Jacobi preconditioned conjugate gradient. The laplacian is symmetric and, because of the anchors and the
+     * center weight, positive definite.
+     *
+     * @param b right hand side
+     * @param x start vector and solution
+     * @return number of iterations
+     */
+    private int solve(double[] b, double[] x) {
+        int n = b.length;
+        double[] r = new double[n];
+        double[] z = new double[n];
+        double[] p = new double[n];
+        double[] q = new double[n];
+
+        multiply(x, q);
+        for (int i = 0; i < n; i++) {
+            r[i] = b[i] - q[i];
+            z[i] = r[i] / diagonal[i];
+            p[i] = z[i];
+        }
+        double rz = dot(r, z);
+        double bNorm = Math.sqrt(dot(b, b));
+        int iter = 0;
+        while (iter < MAX_CG_ITERATIONS && Math.sqrt(dot(r, r)) > CG_TOLERANCE * bNorm) {
+            multiply(p, q);
+            double alpha = rz / dot(p, q);
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * q[i];
+                z[i] = r[i] / diagonal[i];
+            }
+            double rzNew = dot(r, z);
+            double beta = rzNew / rz;
+            rz = rzNew;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+            iter++;
+        }
+        return iter;
+    }
+
+    /**
+     * Sparse matrix-vector product q = A * p.
+     */
+    private void multiply(double[] p, double[] q) {
+        IntStream rows = IntStream.range(0, p.length);
+        if (p.length >= PARALLEL_THRESHOLD) rows = rows.parallel();
+        rows.forEach(i -> {
+            double sum = diagonal[i] * p[i];
+            for (int e = rowStart[i]; e < rowStart[i + 1]; e++) {
+                sum += value[e] * p[column[e]];
+            }
+            q[i] = sum;
+        });
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Legalises the continuous solution. The blocks are sorted by x and split into columns of equal size,
+     * each column is sorted by y and split into rows. Thus the relative order of the solution is kept, while
+     * the blocks are spread over the whole grid.
+     */
+    private Map<CircuitElement, Position> spread(double[] x, double[] y) {
+        int n = x.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble(i -> x[i]));
+
+        Map<CircuitElement, Position> targets = new HashMap<>();
+        int perColumn = (int) Math.ceil((double) n / gridSize);
+        int columns = (int) Math.ceil((double) n / perColumn);
+        for (int c = 0; c < columns; c++) {
+            int from = c * perColumn;
+            int to = Math.min(n, from + perColumn);
+            Integer[] columnOrder = Arrays.copyOfRange(order, from, to);
+            Arrays.sort(columnOrder, Comparator.comparingDouble(i -> y[i]));
+            int posX = 1 + c * gridSize / columns;
+            for (int k = 0; k < columnOrder.length; k++) {
+                int posY = 1 + k * gridSize / columnOrder.length;
+                targets.put(logicElements.get(columnOrder[k]), new Position(posX, posY));
+            }
+        }
+        return targets;
+    }
+}
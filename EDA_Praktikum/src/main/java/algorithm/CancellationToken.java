@@ -0,0 +1,39 @@
+package algorithm;
+
+/**
+ * Cancellation flag and optional deadline of a placement. Long running loops check the token at bounded
+ * intervals, a cancelled placement is aborted, a placement reaching its deadline stops and keeps its best
+ * placement so far.
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled = false;
+    private volatile boolean deadlineSet = false;
+    private volatile long deadline;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Sets the deadline relative to now.
+     *
+     * @param millis remaining time in milliseconds
+     */
+    public void setDeadline(long millis) {
+        deadline = System.nanoTime() + millis * 1_000_000;
+        deadlineSet = true;
+    }
+
+    public boolean hasDeadline() {
+        return deadlineSet;
+    }
+
+    public boolean isExpired() {
+        return hasDeadline() && System.nanoTime() - deadline >= 0;
+    }
+}
@@ -0,0 +1,60 @@
+package algorithm;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes checkpoints in a background thread, so the placement loop is not stalled by the file system. If the
+ * writer falls behind, only the latest checkpoint is written, older pending ones are dropped.
+ */
+class CheckpointWriter {
+
+    private final File file;
+    private final ExecutorService executor;
+    private final AtomicReference<PlacementCheckpoint> pending = new AtomicReference<>();
+
+    CheckpointWriter(File file) {
+        this.file = file;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "checkpoint " + file.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void submit(PlacementCheckpoint checkpoint) {
+        // a task is only queued, if no checkpoint is waiting already
+        if (pending.getAndSet(checkpoint) == null) executor.execute(this::writePending);
+    }
+
+    private void writePending() {
+        PlacementCheckpoint checkpoint = pending.getAndSet(null);
+        if (checkpoint == null) return;
+        try {
+            checkpoint.write(file);
+        } catch (IOException e) {
+            System.out.println("Unable to write checkpoint " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the pending checkpoint and stops the writer. Waits even if the current thread is interrupted, the
+     * interrupt flag is restored afterwards.
+     */
+    void close() {
+        executor.shutdown();
+        boolean interrupted = false;
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
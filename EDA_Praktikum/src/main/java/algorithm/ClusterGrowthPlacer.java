@@ -0,0 +1,207 @@
+package algorithm;
+
+import types.CircuitElement;
+import types.ElementType;
+import types.Net;
+import types.Position;
+
+import java.util.*;
+
+/**
+ * Connectivity driven initial placement of the logic blocks. Starting from the blocks connected to the already
+ * placed io pads, the netlist is traversed breadth first and every block is placed at the free position nearest
+ * to the centroid of its already placed neighbours. Connected blocks therefore end up close to each other.
+ */
+public class ClusterGrowthPlacer {
+
+    // nets with more pins are neither used for the traversal nor for the centroid, they connect too many blocks
+    private static final int MAX_NET_SIZE = 30;
+
+    private final List<CircuitElement> logicElements;
+    private final int gridSize;
+    private final FreePositions freePositions;
+    private final Map<CircuitElement, Position> targets = new HashMap<>();
+
+    /**
+     * @param logicElements logic blocks to place, all io pads connected to them must already be placed
+     * @param gridSize      number of clbs per row of the placement grid
+     */
+    public ClusterGrowthPlacer(List<CircuitElement> logicElements, int gridSize) {
+        this.logicElements = logicElements;
+        this.gridSize = gridSize;
+        this.freePositions = new FreePositions(gridSize);
+    }
+
+    /**
+     * Calculates distinct target positions for all logic blocks.
+     *
+     * @return target position for each logic block
+     */
+    public Map<CircuitElement, Position> place() {
+        Deque<CircuitElement> queue = new ArrayDeque<>();
+        Set<CircuitElement> queued = new HashSet<>();
+        Set<Net> expanded = new HashSet<>();
+
+        // seeds are all blocks with a direct connection to an io pad
+        for (CircuitElement elem : logicElements) {
+            if (connectedToPad(elem) && queued.add(elem)) queue.add(elem);
+        }
+
+        Iterator<CircuitElement> remaining = logicElements.iterator();
+        while (targets.size() < logicElements.size()) {
+            if (queue.isEmpty()) {
+                // next unconnected component, it grows from the nearest free position to the center
+                while (remaining.hasNext()) {
+                    CircuitElement elem = remaining.next();
+                    if (queued.add(elem)) {
+                        queue.add(elem);
+                        break;
+                    }
+                }
+            }
+            CircuitElement elem = queue.poll();
+            Position pos = freePositions.nearest(centroid(elem));
+            freePositions.occupy(pos.getX(), pos.getY());
+            targets.put(elem, pos);
+
+            for (Net net : elem.getPinList()) {
+                if (net.getConnectedPads().size() > MAX_NET_SIZE || !expanded.add(net)) continue;
+                for (CircuitElement neighbour : net.getConnectedPads()) {
+                    if (neighbour.getType() == ElementType.CLB && queued.add(neighbour)) queue.add(neighbour);
+                }
+            }
+        }
+        return targets;
+    }
+
+    private boolean connectedToPad(CircuitElement elem) {
+        for (Net net : elem.getPinList()) {
+            for (CircuitElement pad : net.getConnectedPads()) {
+                if (pad.getType() != ElementType.CLB) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Centroid of all placed neighbours, the center of the grid if none is placed yet.
+     */
+    private Position centroid(CircuitElement elem) {
+        long sumX = 0;
+        long sumY = 0;
+        int count = 0;
+        for (Net net : elem.getPinList()) {
+            if (net.getConnectedPads().size() > MAX_NET_SIZE) continue;
+            for (CircuitElement neighbour : net.getConnectedPads()) {
+                Position pos = neighbour.getType() == ElementType.CLB ? targets.get(neighbour) :
+                        neighbour.getPosition();
+                if (neighbour == elem || pos == null) continue;
+                sumX += pos.getX();
+                sumY += pos.getY();
+                count++;
+            }
+        }
+        if (count == 0) return new Position((gridSize + 1) / 2, (gridSize + 1) / 2);
+        int x = (int) Math.round((double) sumX / count);
+        int y = (int) Math.round((double) sumY / count);
+        return new Position(Math.max(1, Math.min(x, gridSize)), Math.max(1, Math.min(y, gridSize)));
+    }
+
+    /**
+     * Free positions of the grid. Every column links each position to the next free position above and below
+     * it, full columns are skipped by links to the next column with a free position. Links are shortened on
+     * every lookup, thus the nearest free position is found without scanning the occupied positions. Equally
+     * near positions are decided like by {@link FreePositionSearch}.
+     */
+    private static final class FreePositions {
+        private final int size;
+        // next free y at or above and at or below each position of each column, size + 1 and 0 if there is none
+        private final int[][] up;
+        private final int[][] down;
+        // next column with a free position at or right and at or left of each column
+        private final int[] right;
+        private final int[] left;
+        private final int[] freeCount;
+        // nearest free position of the current lookup
+        private long bestDistance;
+        private int bestX;
+        private int bestY;
+
+        FreePositions(int size) {
+            this.size = size;
+            up = new int[size + 2][size + 2];
+            down = new int[size + 2][size + 2];
+            right = new int[size + 2];
+            left = new int[size + 2];
+            freeCount = new int[size + 2];
+            for (int x = 0; x <= size + 1; x++) {
+                for (int y = 0; y <= size + 1; y++) {
+                    up[x][y] = y;
+                    down[x][y] = y;
+                }
+                right[x] = x;
+                left[x] = x;
+                freeCount[x] = size;
+            }
+        }
+
+        void occupy(int x, int y) {
+            up[x][y] = y + 1;
+            down[x][y] = y - 1;
+            if (--freeCount[x] == 0) {
+                right[x] = x + 1;
+                left[x] = x - 1;
+            }
+        }
+
+        /**
+         * @param pos target inside the grid
+         * @return nearest free position by euclidean distance
+         */
+        Position nearest(Position pos) {
+            int px = pos.getX();
+            int py = pos.getY();
+            bestDistance = Long.MAX_VALUE;
+            bestX = -1;
+            bestY = -1;
+            // columns are visited outwards, until they are farther away than the nearest position so far
+            for (int x = find(left, px); x >= 1 && (long) (px - x) * (px - x) <= bestDistance;
+                 x = find(left, x - 1)) {
+                nearestInColumn(x, px, py);
+            }
+            for (int x = find(right, px + 1); x <= size && (long) (x - px) * (x - px) <= bestDistance;
+                 x = find(right, x + 1)) {
+                nearestInColumn(x, px, py);
+            }
+            if (bestX < 0) throw new IllegalStateException("No free Positions");
+            return new Position(bestX, bestY);
+        }
+
+        private void nearestInColumn(int x, int px, int py) {
+            int above = find(up[x], py);
+            int below = find(down[x], py);
+            // the lower position wins on equal distance
+            int y = below < 1 || above <= size && above - py < py - below ? above : below;
+            long distance = (long) (x - px) * (x - px) + (long) (y - py) * (y - py);
+            if (distance < bestDistance || distance == bestDistance && (x < bestX || x == bestX && y < bestY)) {
+                bestDistance = distance;
+                bestX = x;
+                bestY = y;
+            }
+        }
+
+        /**
+         * Follows the links to the next free entry and points all visited entries to it.
+         */
+        private static int find(int[] link, int i) {
+            int root = i;
+            while (link[root] != root) root = link[root];
+            while (link[i] != root) {
+                int next = link[i];
+                link[i] = root;
+                i = next;
+            }
+            return root;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package algorithm;
+
+import types.CircuitElement;
+import types.Net;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evaluates the total bounding box costs of a placement, every net is counted once. The pins of all nets are
+ * kept in primitive arrays, net after net. An evaluation gathers the coordinates of the pins into contiguous
+ * arrays and reduces them net by net, in parallel over ranges of nets.
+ * <p>
+ * The ranges and the order of the partial sums are fixed, thus the result does not depend on the scheduling.
+ * An evaluator reuses its arrays and must not be used by several threads at once.
+ */
+public class CostEvaluator {
+
+    // pins evaluated by one task, smaller netlists are evaluated by the calling thread only
+    private static final int PINS_PER_TASK = 1 << 14;
+
+    private final List<CircuitElement> blocks;
+    private final int[] netStart;
+    private final int[] pinBlock;
+    private final double[] crossings;
+    // boundaries of the net ranges of the tasks
+    private final int[] chunkStart;
+
+    private final int[] blockX;
+    private final int[] blockY;
+    private final int[] pinX;
+    private final int[] pinY;
+
+    /**
+     * @param blocks all blocks of the placement
+     * @param nets   all nets of the placement
+     */
+    public CostEvaluator(List<CircuitElement> blocks, List<Net> nets) {
+        this.blocks = blocks;
+        Map<CircuitElement, Integer> blockIndex = new IdentityHashMap<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            blockIndex.put(blocks.get(i), i);
+        }
+        int pins = 0;
+        int netCount = 0;
+        for (Net net : nets) {
+            if (net.getConnectedPads().isEmpty()) continue;
+            pins += net.getConnectedPads().size();
+            netCount++;
+        }
+        netStart = new int[netCount + 1];
+        pinBlock = new int[pins];
+        crossings = new double[netCount];
+        int chunks = 1;
+        int[] starts = new int[pins / PINS_PER_TASK + 2];
+        int n = 0;
+        int p = 0;
+        int chunkPins = 0;
+        for (Net net : nets) {
+            List<CircuitElement> pads = net.getConnectedPads();
+            if (pads.isEmpty()) continue;
+            if (chunkPins >= PINS_PER_TASK) {
+                starts[chunks++] = n;
+                chunkPins = 0;
+            }
+            netStart[n] = p;
+            crossings[n] = Net.crossings(pads.size());
+            for (CircuitElement pad : pads) {
+                Integer index = blockIndex.get(pad);
+                if (index == null)
+                    throw new IllegalStateException("Net " + net.getName() + " is connected to an unknown block.");
+                pinBlock[p++] = index;
+            }
+            chunkPins += pads.size();
+            n++;
+        }
+        netStart[n] = p;
+        starts[chunks] = n;
+        chunkStart = Arrays.copyOf(starts, chunks + 1);
+
+        blockX = new int[blocks.size()];
+        blockY = new int[blocks.size()];
+        pinX = new int[pins];
+        pinY = new int[pins];
+    }
+
+    /**
+     * Calculates the total costs of the current positions of the blocks.
+     *
+     * @return sum of the bb-costs of all nets
+     */
+    public double evaluate() {
+        for (int i = 0; i < blockX.length; i++) {
+            CircuitElement block = blocks.get(i);
+            blockX[i] = block.getX();
+            blockY[i] = block.getY();
+        }
+        return evaluate(blockX, blockY);
+    }
+
+    /**
+     * Calculates the total costs for the given positions of the blocks.
+     *
+     * @param x x coordinate of each block, in the order of the blocks
+     * @param y y coordinate of each block, in the order of the blocks
+     * @return sum of the bb-costs of all nets
+     */
+    public double evaluate(int[] x, int[] y) {
+        int chunks = chunkStart.length - 1;
+        if (chunks == 1) return evaluateRange(0, netStart.length - 1, x, y);
+        return ForkJoinPool.commonPool().invoke(new RangeTask(0, chunks, x, y));
+    }
+
+    private double evaluateRange(int firstNet, int endNet, int[] x, int[] y) {
+        // gathering first, thus the reductions run over contiguous arrays
+        for (int p = netStart[firstNet]; p < netStart[endNet]; p++) {
+            pinX[p] = x[pinBlock[p]];
+            pinY[p] = y[pinBlock[p]];
+        }
+        double sum = 0;
+        for (int net = firstNet; net < endNet; net++) {
+            int start = netStart[net];
+            int end = netStart[net + 1];
+            int xMin = Integer.MAX_VALUE;
+            int yMin = Integer.MAX_VALUE;
+            int xMax = Integer.MIN_VALUE;
+            int yMax = Integer.MIN_VALUE;
+            for (int p = start; p < end; p++) {
+                xMin = Math.min(xMin, pinX[p]);
+                xMax = Math.max(xMax, pinX[p]);
+            }
+            for (int p = start; p < end; p++) {
+                yMin = Math.min(yMin, pinY[p]);
+                yMax = Math.max(yMax, pinY[p]);
+            }
+            sum += (xMax - xMin + 1) * crossings[net] + (yMax - yMin + 1) * crossings[net];
+        }
+        return sum;
+    }
+
+    /**
+     * Evaluates a range of chunks, halves are split until a single chunk remains.
+     */
+    private class RangeTask extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int firstChunk;
+        private final int endChunk;
+        private final int[] x;
+        private final int[] y;
+
+        RangeTask(int firstChunk, int endChunk, int[] x, int[] y) {
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        protected Double compute() {
+            if (endChunk - firstChunk == 1)
+                return evaluateRange(chunkStart[firstChunk], chunkStart[endChunk], x, y);
+            int middle = (firstChunk + endChunk) >>> 1;
+            RangeTask left = new RangeTask(firstChunk, middle, x, y);
+            left.fork();
+            double right = new RangeTask(middle, endChunk, x, y).compute();
+            return left.join() + right;
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package algorithm;
+
+import types.CircuitElement;
+import types.Net;
+import types.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Detailed placement as a post-pass of the zft algorithm. Small windows of logic positions are slid over the
+ * grid, the blocks of a window are rearranged on the positions of the window in the arrangement with the lowest
+ * bb-costs, found by branch and bound.
+ * <p>
+ * The windows of a pass do not overlap. They are evaluated in parallel against the placement at the start of
+ * the pass, afterwards they are committed one after another. A window is only committed, if its arrangement
+ * still reduces the costs of the current placement, which may have changed by the windows before. Thus the
+ * result does not depend on the scheduling. The passes shift the windows, so that their borders move.
+ */
+public class DetailedPlacer {
+
+    // nets with more pins are ignored by the search, their costs are checked when a window is committed
+    private static final int MAX_SEARCH_FANOUT = 256;
+    private static final double MIN_IMPROVEMENT = 1e-6;
+    // arrangements of a window grow with the factorial of its positions
+    private static final int MAX_WINDOW_POSITIONS = 6;
+    // windows are evaluated in parallel for larger grids only
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final ZFTAlgorithm algorithm;
+    private final List<CircuitElement> logicElements;
+    private final int nx;
+    private final int ny;
+    // positions of all blocks, logic blocks first, io blocks afterwards
+    private final int[] x;
+    private final int[] y;
+    // logic block at each logic position, -1 if free, addressed by x * (ny + 2) + y
+    private final int[] grid;
+    // pins of all nets with at least two pins, net after net
+    private final int[] netStart;
+    private final int[] netPins;
+    private final double[] crossings;
+    // distinct nets of each logic block
+    private final int[] blockNetStart;
+    private final int[] blockNets;
+
+    private int windowWidth = 2;
+    private int windowHeight = 2;
+    private CancellationToken cancellationToken = new CancellationToken();
+
+    /**
+     * @param algorithm placement to improve
+     * @param nets      nets of the placement
+     */
+    public DetailedPlacer(ZFTAlgorithm algorithm, List<Net> nets) {
+        this.algorithm = algorithm;
+        this.logicElements = algorithm.getLogicElements();
+        this.nx = algorithm.getXDimensionRespectively();
+        this.ny = algorithm.getYDimensionRespectively();
+        List<CircuitElement> ioElements = algorithm.getIoElements();
+        int blockCount = logicElements.size() + ioElements.size();
+        Map<CircuitElement, Integer> index = new IdentityHashMap<>();
+        x = new int[blockCount];
+        y = new int[blockCount];
+        grid = new int[(nx + 2) * (ny + 2)];
+        Arrays.fill(grid, -1);
+        for (int i = 0; i < blockCount; i++) {
+            CircuitElement block = i < logicElements.size() ? logicElements.get(i)
+                    : ioElements.get(i - logicElements.size());
+            index.put(block, i);
+            x[i] = block.getX();
+            y[i] = block.getY();
+            if (i < logicElements.size()) grid[cell(x[i], y[i])] = i;
+        }
+
+        int netCount = 0;
+        int pins = 0;
+        for (Net net : nets) {
+            if (net.getConnectedPads().size() < 2) continue;
+            netCount++;
+            pins += net.getConnectedPads().size();
+        }
+        netStart = new int[netCount + 1];
+        netPins = new int[pins];
+        crossings = new double[netCount];
+        List<List<Integer>> netsOfBlock = new ArrayList<>();
+        for (int i = 0; i < logicElements.size(); i++) netsOfBlock.add(new ArrayList<>());
+        int n = 0;
+        int p = 0;
+        for (Net net : nets) {
+            List<CircuitElement> pads = net.getConnectedPads();
+            if (pads.size() < 2) continue;
+            netStart[n] = p;
+            crossings[n] = Net.crossings(pads.size());
+            for (CircuitElement pad : pads) {
+                Integer block = index.get(pad);
+                if (block == null)
+                    throw new IllegalStateException("Net " + net.getName() + " is connected to an unknown block.");
+                netPins[p++] = block;
+                if (block < logicElements.size() && !netsOfBlock.get(block).contains(n))
+                    netsOfBlock.get(block).add(n);
+            }
+            n++;
+        }
+        netStart[n] = p;
+        blockNetStart = new int[logicElements.size() + 1];
+        int blockPins = 0;
+        for (List<Integer> blockNetList : netsOfBlock) blockPins += blockNetList.size();
+        blockNets = new int[blockPins];
+        int b = 0;
+        for (int i = 0; i < logicElements.size(); i++) {
+            blockNetStart[i] = b;
+            for (int net : netsOfBlock.get(i)) blockNets[b++] = net;
+        }
+        blockNetStart[logicElements.size()] = b;
+    }
+
+    /**
+     * Sets the size of the windows. The number of arrangements grows with the factorial of the number of
+     * positions, thus windows may hold at most 6 positions.
+     *
+     * @param width  number of columns of a window
+     * @param height number of rows of a window
+     */
+    public void setWindowSize(int width, int height) {
+        if (width < 1 || height < 1 || width * height > MAX_WINDOW_POSITIONS)
+            throw new IllegalStateException("Windows must hold between 1 and " + MAX_WINDOW_POSITIONS + " positions.");
+        this.windowWidth = width;
+        this.windowHeight = height;
+    }
+
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Improves the placement by rearranging windows. Stops after the given number of passes or as soon as the
+     * windows of all shifts were not improved or the deadline of the cancellation token is reached. The improved
+     * placement is applied to the zft algorithm.
+     *
+     * @param passes maximal number of passes
+     * @return number of committed windows
+     * @throws InterruptedException if the placement was cancelled, the placement of the zft algorithm is kept
+     */
+    public int run(int passes) throws InterruptedException {
+        double before = algorithm.calcTotalCosts();
+        int shifts = windowWidth * windowHeight;
+        int committed = 0;
+        int unchanged = 0;
+        int pass = 0;
+        while (pass < passes && unchanged < shifts) {
+            if (cancellationToken.isCancelled()) throw new InterruptedException("Detailed placement was cancelled.");
+            if (cancellationToken.isExpired()) break;
+            int passCommitted = runPass(pass % windowWidth, pass / windowWidth % windowHeight);
+            committed += passCommitted;
+            unchanged = passCommitted == 0 ? unchanged + 1 : 0;
+            pass++;
+        }
+        if (committed > 0) {
+            Map<CircuitElement, Position> targets = new HashMap<>();
+            for (int i = 0; i < logicElements.size(); i++) {
+                targets.put(logicElements.get(i), new Position(x[i], y[i]));
+            }
+            algorithm.applyLogicPlacement(targets);
+        }
+        System.out.printf(Locale.US, "Detailed placement: %d windows rearranged in %d passes, costs %.2f -> %.2f%n",
+                committed, pass, before, algorithm.calcTotalCosts());
+        return committed;
+    }
+
+    /**
+     * Evaluates all windows of a shift in parallel and commits the improved ones.
+     *
+     * @return number of committed windows
+     */
+    private int runPass(int offsetX, int offsetY) {
+        int columns = (nx + offsetX + windowWidth - 1) / windowWidth;
+        int rows = (ny + offsetY + windowHeight - 1) / windowHeight;
+        IntStream windows = IntStream.range(0, columns * rows);
+        if (columns * rows >= PARALLEL_THRESHOLD) windows = windows.parallel();
+        Arrangement[] arrangements = windows.mapToObj(w -> search(1 - offsetX + (w / rows) * windowWidth,
+                1 - offsetY + (w % rows) * windowHeight)).toArray(Arrangement[]::new);
+        int committed = 0;
+        for (Arrangement arrangement : arrangements) {
+            if (arrangement != null && commit(arrangement)) committed++;
+        }
+        return committed;
+    }
+
+    /**
+     * Searches the best arrangement of the blocks of a window by branch and bound. Blocks are assigned to the
+     * positions one after another. The bounding boxes of the nets over the pins outside the window and the
+     * already assigned blocks can only grow by further blocks, thus their costs are a lower bound.
+     *
+     * @return best arrangement, null if the current arrangement is the best
+     */
+    private Arrangement search(int left, int bottom) {
+        int[] slotX = new int[windowWidth * windowHeight];
+        int[] slotY = new int[slotX.length];
+        int[] blocks = new int[slotX.length];
+        int slots = 0;
+        int blockCount = 0;
+        for (int gx = Math.max(left, 1); gx < left + windowWidth && gx <= nx; gx++) {
+            for (int gy = Math.max(bottom, 1); gy < bottom + windowHeight && gy <= ny; gy++) {
+                slotX[slots] = gx;
+                slotY[slots] = gy;
+                slots++;
+                int block = grid[cell(gx, gy)];
+                if (block >= 0) blocks[blockCount++] = block;
+            }
+        }
+        if (blockCount == 0 || slots < 2) return null;
+        return new Search(Arrays.copyOf(blocks, blockCount), Arrays.copyOf(slotX, slots),
+                Arrays.copyOf(slotY, slots)).run();
+    }
+
+    /**
+     * Applies the arrangement, if it reduces the exact costs of all nets of its blocks.
+     */
+    private boolean commit(Arrangement arrangement) {
+        int[] blocks = arrangement.blocks;
+        int[] nets = netsOf(blocks, Integer.MAX_VALUE);
+        double before = 0;
+        for (int net : nets) before += netCost(net);
+        int[] oldX = new int[blocks.length];
+        int[] oldY = new int[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            oldX[i] = x[blocks[i]];
+            oldY[i] = y[blocks[i]];
+            x[blocks[i]] = arrangement.x[i];
+            y[blocks[i]] = arrangement.y[i];
+        }
+        double after = 0;
+        for (int net : nets) after += netCost(net);
+        if (after >= before - MIN_IMPROVEMENT) {
+            for (int i = 0; i < blocks.length; i++) {
+                x[blocks[i]] = oldX[i];
+                y[blocks[i]] = oldY[i];
+            }
+            return false;
+        }
+        for (int i = 0; i < blocks.length; i++) grid[cell(oldX[i], oldY[i])] = -1;
+        for (int block : blocks) grid[cell(x[block], y[block])] = block;
+        return true;
+    }
+
+    private double netCost(int net) {
+        int xMin = Integer.MAX_VALUE;
+        int yMin = Integer.MAX_VALUE;
+        int xMax = Integer.MIN_VALUE;
+        int yMax = Integer.MIN_VALUE;
+        for (int p = netStart[net]; p < netStart[net + 1]; p++) {
+            int block = netPins[p];
+            xMin = Math.min(xMin, x[block]);
+            xMax = Math.max(xMax, x[block]);
+            yMin = Math.min(yMin, y[block]);
+            yMax = Math.max(yMax, y[block]);
+        }
+        return (xMax - xMin + 1 + yMax - yMin + 1) * crossings[net];
+    }
+
+    /**
+     * @return distinct nets of the blocks with at most the given number of pins
+     */
+    private int[] netsOf(int[] blocks, int maxFanout) {
+        int[] nets = new int[0];
+        int count = 0;
+        for (int block : blocks) {
+            for (int b = blockNetStart[block]; b < blockNetStart[block + 1]; b++) {
+                int net = blockNets[b];
+                if (netStart[net + 1] - netStart[net] > maxFanout || contains(nets, count, net)) continue;
+                if (count == nets.length) nets = Arrays.copyOf(nets, Math.max(8, 2 * count));
+                nets[count++] = net;
+            }
+        }
+        return Arrays.copyOf(nets, count);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private int cell(int gx, int gy) {
+        return gx * (ny + 2) + gy;
+    }
+
+    /**
+     * New positions of the blocks of a window.
+     */
+    private static class Arrangement {
+        private final int[] blocks;
+        private final int[] x;
+        private final int[] y;
+
+        Arrangement(int[] blocks, int[] x, int[] y) {
+            this.blocks = blocks;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /**
+     * Branch and bound over the assignments of the blocks of one window to its positions. Reads the placement
+     * only, thus searches of different windows can run at the same time.
+     */
+    private class Search {
+
+        private final int[] blocks;
+        private final int[] slotX;
+        private final int[] slotY;
+        private final int[] nets;
+        // nets of each block as index into nets
+        private final int[][] blockNets;
+        // bounding boxes over the fixed pins and the assigned blocks, empty if min > max
+        private final int[] xMin;
+        private final int[] xMax;
+        private final int[] yMin;
+        private final int[] yMax;
+        private final boolean[] usedSlot;
+        private final int[] assignment;
+        private final int[] bestAssignment;
+        private double bestCost;
+
+        Search(int[] blocks, int[] slotX, int[] slotY) {
+            this.blocks = blocks;
+            this.slotX = slotX;
+            this.slotY = slotY;
+            nets = netsOf(blocks, MAX_SEARCH_FANOUT);
+            xMin = new int[nets.length];
+            xMax = new int[nets.length];
+            yMin = new int[nets.length];
+            yMax = new int[nets.length];
+            for (int i = 0; i < nets.length; i++) {
+                xMin[i] = yMin[i] = Integer.MAX_VALUE;
+                xMax[i] = yMax[i] = Integer.MIN_VALUE;
+                for (int p = netStart[nets[i]]; p < netStart[nets[i] + 1]; p++) {
+                    int block = netPins[p];
+                    if (contains(blocks, blocks.length, block)) continue;
+                    xMin[i] = Math.min(xMin[i], x[block]);
+                    xMax[i] = Math.max(xMax[i], x[block]);
+                    yMin[i] = Math.min(yMin[i], y[block]);
+                    yMax[i] = Math.max(yMax[i], y[block]);
+                }
+            }
+            blockNets = new int[blocks.length][];
+            for (int b = 0; b < blocks.length; b++) {
+                int[] own = netsOf(new int[]{blocks[b]}, MAX_SEARCH_FANOUT);
+                blockNets[b] = new int[own.length];
+                for (int i = 0; i < own.length; i++) {
+                    blockNets[b][i] = indexOf(nets, own[i]);
+                }
+            }
+            usedSlot = new boolean[slotX.length];
+            assignment = new int[blocks.length];
+            bestAssignment = new int[blocks.length];
+        }
+
+        Arrangement run() {
+            double partial = 0;
+            for (int i = 0; i < nets.length; i++) partial += cost(i);
+            // the current arrangement is the bound to beat
+            for (int b = 0; b < blocks.length; b++) {
+                for (int s = 0; s < slotX.length; s++) {
+                    if (slotX[s] == x[blocks[b]] && slotY[s] == y[blocks[b]]) bestAssignment[b] = s;
+                }
+            }
+            bestCost = arrangementCost(bestAssignment) - MIN_IMPROVEMENT;
+            int[] current = bestAssignment.clone();
+            branch(0, partial);
+            if (Arrays.equals(current, bestAssignment)) return null;
+            int[] newX = new int[blocks.length];
+            int[] newY = new int[blocks.length];
+            for (int b = 0; b < blocks.length; b++) {
+                newX[b] = slotX[bestAssignment[b]];
+                newY[b] = slotY[bestAssignment[b]];
+            }
+            return new Arrangement(blocks, newX, newY);
+        }
+
+        private void branch(int b, double partial) {
+            if (partial >= bestCost) return;
+            if (b == blocks.length) {
+                bestCost = partial;
+                System.arraycopy(assignment, 0, bestAssignment, 0, blocks.length);
+                return;
+            }
+            int[] own = blockNets[b];
+            int[] saved = new int[4 * own.length];
+            for (int s = 0; s < slotX.length; s++) {
+                if (usedSlot[s]) continue;
+                double next = partial;
+                for (int i = 0; i < own.length; i++) {
+                    int net = own[i];
+                    saved[4 * i] = xMin[net];
+                    saved[4 * i + 1] = xMax[net];
+                    saved[4 * i + 2] = yMin[net];
+                    saved[4 * i + 3] = yMax[net];
+                    next -= cost(net);
+                    xMin[net] = Math.min(xMin[net], slotX[s]);
+                    xMax[net] = Math.max(xMax[net], slotX[s]);
+                    yMin[net] = Math.min(yMin[net], slotY[s]);
+                    yMax[net] = Math.max(yMax[net], slotY[s]);
+                    next += cost(net);
+                }
+                usedSlot[s] = true;
+                assignment[b] = s;
+                branch(b + 1, next);
+                usedSlot[s] = false;
+                for (int i = own.length - 1; i >= 0; i--) {
+                    int net = own[i];
+                    xMin[net] = saved[4 * i];
+                    xMax[net] = saved[4 * i + 1];
+                    yMin[net] = saved[4 * i + 2];
+                    yMax[net] = saved[4 * i + 3];
+                }
+            }
+        }
+
+        /**
+         * @return costs of the searched nets for a complete assignment
+         */
+        private double arrangementCost(int[] slots) {
+            double sum = 0;
+            for (int i = 0; i < nets.length; i++) {
+                int netXMin = xMin[i];
+                int netXMax = xMax[i];
+                int netYMin = yMin[i];
+                int netYMax = yMax[i];
+                for (int b = 0; b < blocks.length; b++) {
+                    if (indexOf(blockNets[b], i) < 0) continue;
+                    netXMin = Math.min(netXMin, slotX[slots[b]]);
+                    netXMax = Math.max(netXMax, slotX[slots[b]]);
+                    netYMin = Math.min(netYMin, slotY[slots[b]]);
+                    netYMax = Math.max(netYMax, slotY[slots[b]]);
+                }
+                sum += (netXMax - netXMin + 1 + netYMax - netYMin + 1) * crossings[nets[i]];
+            }
+            return sum;
+        }
+
+        /**
+         * @return costs of the partial bounding box of the net, a net without pins so far costs at least 2
+         * crossings
+         */
+        private double cost(int net) {
+            if (xMin[net] > xMax[net]) return 2 * crossings[nets[net]];
+            return (xMax[net] - xMin[net] + 1 + yMax[net] - yMin[net] + 1) * crossings[nets[net]];
+        }
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,58 @@
+package algorithm;
+
+import types.Position;
+
+/**
+ * Search for the nearest free position of a grid, shared by all placers. The grid is searched ring by ring
+ * around the target, ring d holds the positions with a distance of d in x or y. The nearest free position by
+ * euclidean distance is returned, equally near positions are decided by the lower x and then the lower y.
+ * Every position of ring d is at least d away, thus the search stops at the first ring, that can not hold a
+ * nearer position.
+ */
+final class FreePositionSearch {
+
+    /**
+     * Occupation of the grid.
+     */
+    interface Grid {
+        boolean isFree(int x, int y);
+    }
+
+    private FreePositionSearch() {
+    }
+
+    /**
+     * @param px        x of the target
+     * @param py        y of the target
+     * @param minX      lowest x of the grid
+     * @param minY      lowest y of the grid
+     * @param maxX      highest x of the grid
+     * @param maxY      highest y of the grid
+     * @param maxRadius radius of the outermost ring
+     * @param grid      occupation of the grid
+     * @return nearest free position, null if there is no free position within the radius
+     */
+    static Position nearest(int px, int py, int minX, int minY, int maxX, int maxY, int maxRadius, Grid grid) {
+        int bestX = -1;
+        int bestY = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int d = 0; d <= maxRadius && (long) d * d <= bestDistance; d++) {
+            // the ring lies outside of the grid on all sides
+            if (px - d < minX && px + d > maxX && py - d < minY && py + d > maxY) break;
+            for (int x = Math.max(px - d, minX); x <= Math.min(px + d, maxX); x++) {
+                // inner columns of the ring only have their top and bottom position
+                int step = x == px - d || x == px + d ? 1 : 2 * d;
+                for (int y = py - d; y <= py + d; y += step) {
+                    if (y < minY || y > maxY || !grid.isFree(x, y)) continue;
+                    int distance = (x - px) * (x - px) + (y - py) * (y - py);
+                    if (distance < bestDistance || distance == bestDistance && (x < bestX || x == bestX && y < bestY)) {
+                        bestDistance = distance;
+                        bestX = x;
+                        bestY = y;
+                    }
+                }
+            }
+        }
+        return bestX < 0 ? null : new Position(bestX, bestY);
+    }
+}
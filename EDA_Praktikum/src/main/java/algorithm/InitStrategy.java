@@ -0,0 +1,18 @@
+package algorithm;
+
+/**
+ * Strategies for the initial placement of the logic blocks of the zft algorithm.
+ */
+public enum InitStrategy {
+    RANDOM("random"), GRID_BASED("grid based"), ANALYTICAL("analytical"), CLUSTER_GROWTH("cluster growth");
+    private final String name;
+
+    InitStrategy(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
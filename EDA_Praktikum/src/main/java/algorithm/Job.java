@@ -0,0 +1,147 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handle of a task submitted to the {@link AlgorithmExecutor}. A job can be stopped on its own, while other jobs
+ * of the executor keep running. A finished job holds the results of its task, e.g. the placement file and the
+ * costs, or the error, that stopped it.
+ */
+public class Job {
+
+    private final String name;
+    // estimated heap need of the task, larger jobs are started first
+    private final long estimatedBytes;
+    private final CancellationToken cancellationToken = new CancellationToken();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile boolean cancelled = false;
+    private volatile String error;
+    private final Map<String, Object> results = new ConcurrentHashMap<>();
+    private final List<Runnable> doneListeners = new ArrayList<>();
+
+    // thread running the job and the vpr process started by it, null if there is none
+    private Thread thread;
+    private Process process;
+
+    Job(String name, long estimatedBytes) {
+        this.name = name;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return estimated heap need of the task in bytes
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    synchronized void start() {
+        thread = Thread.currentThread();
+    }
+
+    synchronized void setProcess(Process process) {
+        this.process = process;
+        if (process != null && cancelled) process.destroy();
+    }
+
+    void putResult(String key, Object value) {
+        results.put(key, value);
+    }
+
+    void fail(String error) {
+        this.error = error;
+    }
+
+    /**
+     * Detaches the job from its thread, a later cancellation does not interrupt the thread anymore.
+     */
+    synchronized void detach() {
+        thread = null;
+        process = null;
+    }
+
+    /**
+     * Marks the job as finished and notifies the listeners.
+     */
+    void finish() {
+        List<Runnable> listeners;
+        synchronized (this) {
+            finished.countDown();
+            listeners = new ArrayList<>(doneListeners);
+            doneListeners.clear();
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Adds a listener, that is called by the thread of the job, when the job is finished. If the job is finished
+     * already, the listener is called immediately.
+     *
+     * @param listener listener
+     */
+    public void addDoneListener(Runnable listener) {
+        synchronized (this) {
+            if (!isDone()) {
+                doneListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    /**
+     * Stops the job. A job, that has not started yet, will not run at all.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        cancellationToken.cancel();
+        if (thread != null) thread.interrupt();
+        if (process != null) process.destroy();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return finished.getCount() == 0;
+    }
+
+    /**
+     * @return error, that stopped the job, null if the job succeeded or is not finished
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return results of the task, e.g. "place", "cost" or "channelWidth"
+     */
+    public Map<String, Object> getResults() {
+        return Map.copyOf(results);
+    }
+
+    /**
+     * Waits until the job is finished.
+     *
+     * @param millis maximum waiting time in milliseconds
+     * @return true, if the job is finished
+     * @throws InterruptedException if the waiting thread was interrupted
+     */
+    public boolean awaitTermination(long millis) throws InterruptedException {
+        return finished.await(millis, TimeUnit.MILLISECONDS);
+    }
+}
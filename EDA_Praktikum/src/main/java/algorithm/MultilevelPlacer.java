@@ -0,0 +1,361 @@
+package algorithm;
+
+import types.*;
+
+import java.util.*;
+
+/**
+ * Multilevel placement on top of the zft algorithm. The logic blocks are repeatedly coarsened by heavy-edge
+ * matching over their net connectivity, the coarsest graph is placed with zero force targets on a small grid
+ * and the clusters are then uncoarsened and refined level by level. The finest level is handed over to
+ * {@link ZFTAlgorithm}, which is used as refiner for the actual logic blocks.
+ */
+public class MultilevelPlacer {
+
+    // coarsening stops, if a level has less clusters or the reduction rate gets too small
+    private static final int COARSEST_SIZE = 64;
+    private static final double MIN_REDUCTION = 0.9;
+    // nets with a higher fanout are ignored for the clustering, they do not indicate a strong relation
+    private static final int MAX_NET_SIZE = 30;
+    private static final int MAX_LEVEL_ITERATIONS = 30;
+
+    private final ZFTAlgorithm algorithm;
+    private final List<CircuitElement> logicElements;
+    private final int gridSize;
+    private final Random random = new Random();
+
+    private final List<Level> levels = new ArrayList<>();
+
+    public MultilevelPlacer(List<CircuitElement> netlist, List<Net> nets, Architecture architecture,
+                            boolean verbose) {
+        // io pads are placed by the zft initialisation and act as fixed anchors on all levels
+        this.algorithm = new ZFTAlgorithm(netlist, nets, architecture, InitStrategy.RANDOM, verbose);
+        this.logicElements = algorithm.getLogicElements();
+        this.gridSize = algorithm.getXDimensionRespectively();
+    }
+
+    public ZFTAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return number of levels of the last run, including the finest one
+     */
+    int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Coarsens the netlist, places the coarsest level and refines all levels. The resulting placement is
+     * refined by the zft algorithm.
+     *
+     * @param iterations   number of iterations for the zft refinement of the finest level
+     * @param areaSwapSize size of the area, a block can change to, if his ZFT-position is occupied
+     * @throws InterruptedException throwing interrupt-exception, if the current thread was interrupted
+     */
+    public void run(int iterations, int areaSwapSize) throws InterruptedException {
+        levels.clear();
+        levels.add(buildFinestLevel());
+        Level current = levels.get(0);
+        while (current.size > COARSEST_SIZE) {
+            Level coarse = coarsen(current);
+            if (coarse.size > current.size * MIN_REDUCTION) break;
+            levels.add(coarse);
+            current = coarse;
+        }
+        System.out.println("Multilevel placement with " + levels.size() + " levels, coarsest level has "
+                + current.size + " clusters");
+
+        placeRandom(current);
+        refine(current);
+        for (int l = levels.size() - 2; l >= 0; l--) {
+            if (Thread.currentThread().isInterrupted()) throw new InterruptedException("Thread was interrupted.");
+            Level fine = levels.get(l);
+            project(levels.get(l + 1), fine);
+            if (l > 0) refine(fine);
+        }
+
+        Map<CircuitElement, Position> targets = new HashMap<>();
+        Level finest = levels.get(0);
+        for (int i = 0; i < finest.size; i++) {
+            targets.put(logicElements.get(i), new Position((int) Math.round(finest.x[i]),
+                    (int) Math.round(finest.y[i])));
+        }
+        algorithm.applyLogicPlacement(targets);
+        algorithm.run(iterations, areaSwapSize);
+    }
+
+    /**
+     * Builds the clique graph of all logic blocks. Connections to io pads are stored as anchors.
+     */
+    private Level buildFinestLevel() {
+        Map<CircuitElement, Integer> index = new HashMap<>();
+        for (int i = 0; i < logicElements.size(); i++) {
+            index.put(logicElements.get(i), i);
+        }
+        Level level = new Level(logicElements.size());
+        List<Map<Integer, Double>> edges = new ArrayList<>();
+        for (int i = 0; i < level.size; i++) {
+            edges.add(new HashMap<>());
+            level.weight[i] = 1;
+        }
+        Set<Net> visited = new HashSet<>();
+        for (CircuitElement elem : logicElements) {
+            for (Net net : elem.getPinList()) {
+                int pins = net.getConnectedPads().size();
+                if (pins < 2 || pins > MAX_NET_SIZE || !visited.add(net)) continue;
+                double w = 1.0 / (pins - 1);
+                for (CircuitElement a : net.getConnectedPads()) {
+                    Integer ia = index.get(a);
+                    if (ia == null) continue;
+                    for (CircuitElement b : net.getConnectedPads()) {
+                        if (a == b) continue;
+                        Integer ib = index.get(b);
+                        if (ib == null) {
+                            level.addAnchor(ia, b.getX(), b.getY(), w);
+                        } else {
+                            edges.get(ia).merge(ib, w, Double::sum);
+                        }
+                    }
+                }
+            }
+        }
+        level.setEdges(edges);
+        return level;
+    }
+
+    /**
+     * Creates the next coarser level by heavy-edge matching in random order. Every cluster is matched
+     * with the unmatched neighbour of the strongest connection relative to the size of both.
+     */
+    private Level coarsen(Level fine) {
+        int[] order = new int[fine.size];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+
+        int maxWeight = Math.max(2, 4 * logicElements.size() / COARSEST_SIZE);
+        int[] parent = new int[fine.size];
+        Arrays.fill(parent, -1);
+        int coarseSize = 0;
+        for (int u : order) {
+            if (parent[u] != -1) continue;
+            int best = -1;
+            double bestRating = 0;
+            for (int e = fine.edgeStart[u]; e < fine.edgeStart[u + 1]; e++) {
+                int v = fine.edgeTarget[e];
+                if (parent[v] != -1 || fine.weight[u] + fine.weight[v] > maxWeight) continue;
+                double rating = fine.edgeWeight[e] / (fine.weight[u] * fine.weight[v]);
+                if (rating > bestRating) {
+                    bestRating = rating;
+                    best = v;
+                }
+            }
+            parent[u] = coarseSize;
+            if (best != -1) parent[best] = coarseSize;
+            coarseSize++;
+        }
+
+        Level coarse = new Level(coarseSize);
+        List<Map<Integer, Double>> edges = new ArrayList<>();
+        for (int i = 0; i < coarseSize; i++) {
+            edges.add(new HashMap<>());
+        }
+        for (int u = 0; u < fine.size; u++) {
+            int pu = parent[u];
+            coarse.weight[pu] += fine.weight[u];
+            coarse.anchorX[pu] += fine.anchorX[u];
+            coarse.anchorY[pu] += fine.anchorY[u];
+            coarse.anchorXX[pu] += fine.anchorXX[u];
+            coarse.anchorYY[pu] += fine.anchorYY[u];
+            coarse.anchorWeight[pu] += fine.anchorWeight[u];
+            for (int e = fine.edgeStart[u]; e < fine.edgeStart[u + 1]; e++) {
+                int pv = parent[fine.edgeTarget[e]];
+                if (pu != pv) edges.get(pu).merge(pv, fine.edgeWeight[e], Double::sum);
+            }
+        }
+        coarse.setEdges(edges);
+        fine.parent = parent;
+        return coarse;
+    }
+
+    private void placeRandom(Level level) {
+        List<Integer> slots = new ArrayList<>();
+        for (int i = 0; i < level.slotsPerRow * level.slotsPerRow; i++) {
+            slots.add(i);
+        }
+        Collections.shuffle(slots, random);
+        for (int i = 0; i < level.size; i++) {
+            level.occupy(i, slots.get(i));
+        }
+    }
+
+    /**
+     * Places every fine cluster at the nearest free slot to the position of its parent cluster.
+     */
+    private void project(Level coarse, Level fine) {
+        Arrays.fill(fine.slots, -1);
+        for (int i = 0; i < fine.size; i++) {
+            int p = fine.parent[i];
+            fine.occupy(i, fine.nearestFreeSlot(coarse.x[p], coarse.y[p]));
+        }
+    }
+
+    /**
+     * Zero force target iterations on the slots of a level. A cluster moves to its target slot if it is free,
+     * otherwise it switches with the occupying cluster, if the quadratic wirelength of both decreases.
+     */
+    private void refine(Level level) {
+        for (int iter = 0; iter < MAX_LEVEL_ITERATIONS; iter++) {
+            int switches = 0;
+            for (int c = 0; c < level.size; c++) {
+                double totalWeight = level.anchorWeight[c];
+                double forceX = level.anchorX[c];
+                double forceY = level.anchorY[c];
+                for (int e = level.edgeStart[c]; e < level.edgeStart[c + 1]; e++) {
+                    int n = level.edgeTarget[e];
+                    forceX += level.edgeWeight[e] * level.x[n];
+                    forceY += level.edgeWeight[e] * level.y[n];
+                    totalWeight += level.edgeWeight[e];
+                }
+                if (totalWeight == 0) continue;
+                int target = level.slotAt(forceX / totalWeight, forceY / totalWeight);
+                if (target == level.slotOf[c]) continue;
+                int occupant = level.slots[target];
+                if (occupant == -1) {
+                    level.release(c);
+                    level.occupy(c, target);
+                    switches++;
+                } else {
+                    int source = level.slotOf[c];
+                    double before = level.cost(c) + level.cost(occupant);
+                    level.occupy(c, target);
+                    level.occupy(occupant, source);
+                    double after = level.cost(c) + level.cost(occupant);
+                    if (after < before) {
+                        switches++;
+                    } else {
+                        level.occupy(c, source);
+                        level.occupy(occupant, target);
+                    }
+                }
+            }
+            if (switches == 0) break;
+        }
+    }
+
+    /**
+     * Clustered graph of one level. Coordinates are kept in the coordinates of the placement grid, each level
+     * divides the grid into a number of slots, that hold one cluster each.
+     */
+    private class Level {
+        final int size;
+        final int[] weight;
+        final double[] anchorX;
+        final double[] anchorY;
+        final double[] anchorXX;
+        final double[] anchorYY;
+        final double[] anchorWeight;
+        int[] edgeStart;
+        int[] edgeTarget;
+        double[] edgeWeight;
+        // mapping to the next coarser level
+        int[] parent;
+
+        final int slotsPerRow;
+        final int[] slots;
+        final int[] slotOf;
+        final double[] x;
+        final double[] y;
+
+        Level(int size) {
+            this.size = size;
+            weight = new int[size];
+            anchorX = new double[size];
+            anchorY = new double[size];
+            anchorXX = new double[size];
+            anchorYY = new double[size];
+            anchorWeight = new double[size];
+            slotsPerRow = Math.min(gridSize, (int) Math.ceil(Math.sqrt(size)));
+            slots = new int[slotsPerRow * slotsPerRow];
+            Arrays.fill(slots, -1);
+            slotOf = new int[size];
+            x = new double[size];
+            y = new double[size];
+        }
+
+        void addAnchor(int c, int ax, int ay, double w) {
+            anchorX[c] += w * ax;
+            anchorY[c] += w * ay;
+            anchorXX[c] += w * ax * ax;
+            anchorYY[c] += w * ay * ay;
+            anchorWeight[c] += w;
+        }
+
+        void setEdges(List<Map<Integer, Double>> edges) {
+            edgeStart = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                edgeStart[i + 1] = edgeStart[i] + edges.get(i).size();
+            }
+            edgeTarget = new int[edgeStart[size]];
+            edgeWeight = new double[edgeStart[size]];
+            for (int i = 0; i < size; i++) {
+                int e = edgeStart[i];
+                for (Map.Entry<Integer, Double> entry : edges.get(i).entrySet()) {
+                    edgeTarget[e] = entry.getKey();
+                    edgeWeight[e] = entry.getValue();
+                    e++;
+                }
+            }
+        }
+
+        /**
+         * Quadratic wirelength of a cluster at its current coordinates.
+         */
+        double cost(int c) {
+            double cx = x[c];
+            double cy = y[c];
+            double cost = anchorWeight[c] * (cx * cx + cy * cy) - 2 * (cx * anchorX[c] + cy * anchorY[c])
+                    + anchorXX[c] + anchorYY[c];
+            for (int e = edgeStart[c]; e < edgeStart[c + 1]; e++) {
+                int n = edgeTarget[e];
+                cost += edgeWeight[e] * ((cx - x[n]) * (cx - x[n]) + (cy - y[n]) * (cy - y[n]));
+            }
+            return cost;
+        }
+
+        int slotAt(double px, double py) {
+            int sx = (int) Math.floor((px - 1) * slotsPerRow / gridSize);
+            int sy = (int) Math.floor((py - 1) * slotsPerRow / gridSize);
+            sx = Math.max(0, Math.min(sx, slotsPerRow - 1));
+            sy = Math.max(0, Math.min(sy, slotsPerRow - 1));
+            return sx * slotsPerRow + sy;
+        }
+
+        int nearestFreeSlot(double px, double py) {
+            int center = slotAt(px, py);
+            int cx = center / slotsPerRow;
+            int cy = center % slotsPerRow;
+            Position free = FreePositionSearch.nearest(cx, cy, 0, 0, slotsPerRow - 1, slotsPerRow - 1,
+                    Integer.MAX_VALUE, (sx, sy) -> slots[sx * slotsPerRow + sy] == -1);
+            if (free != null) return free.getX() * slotsPerRow + free.getY();
+            throw new IllegalStateException("No free Positions");
+        }
+
+        void occupy(int c, int slot) {
+            slots[slot] = c;
+            slotOf[c] = slot;
+            // center of the slot in grid coordinates
+            x[c] = 1 + ((slot / slotsPerRow) + 0.5) * gridSize / slotsPerRow - 0.5;
+            y[c] = 1 + ((slot % slotsPerRow) + 0.5) * gridSize / slotsPerRow - 0.5;
+        }
+
+        void release(int c) {
+            slots[slotOf[c]] = -1;
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package algorithm;
+
+import profiling.PlacementIterationEvent;
+import types.BlockPositions;
+import types.DirectMemory;
+import types.ElementType;
+import types.Net;
+import types.PackedNetlist;
+import types.Position;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * Implementation of the zft algorithm for very large netlists. The placement state is kept outside of the heap
+ * in direct buffers: block coordinates, the occupancy grid and the weighted sums of the nets, next to the
+ * {@link PackedNetlist}. Thus the heap usage and the garbage collection do not grow with the netlist, no objects
+ * are created per block. The direct buffers are limited by -XX:MaxDirectMemorySize, see {@link DirectMemory}.
+ * <p>
+ * The placement follows {@link ZFTAlgorithm} with a random initial placement and without tabu search and
+ * checkpoints. Blocks and nets are addressed by their index in the netlist.
+ */
+public class OffHeapZFTAlgorithm implements BlockPositions {
+
+    // number of blocks between two checks of the cancellation token within an iteration
+    private static final int CANCEL_CHECK_INTERVAL = 64;
+    // empty recent position or no free position found, packed positions are never negative
+    private static final int NO_POSITION = -1;
+    // acceptance rate, at which the adaptive search area keeps its size
+    private static final double TARGET_ACCEPTANCE_RATE = 0.44;
+
+    private final PackedNetlist netlist;
+    private final int size;
+    private final int ioRate;
+    private final int blockCount;
+    private final int netCount;
+    private int logicCount = 0;
+
+    // per block
+    private final IntBuffer x;
+    private final IntBuffer y;
+    private final IntBuffer subblock;
+    private final IntBuffer weight;
+    private final ByteBuffer logic;
+    // two recent packed positions per block, the older one first, a block does not switch back to them
+    private final IntBuffer recent;
+
+    // per net
+    private final DoubleBuffer weightedX;
+    private final DoubleBuffer weightedY;
+    private final DoubleBuffer totalWeight;
+    private final DoubleBuffer costs;
+    private final ByteBuffer costsValid;
+
+    // block index + 1 of each slot, 0 if the slot is free
+    private final IntBuffer grid;
+
+    private final long offHeapSize;
+    private int fanoutThreshold = ZFTAlgorithm.DEFAULT_FANOUT_THRESHOLD;
+    private CancellationToken cancellationToken = new CancellationToken();
+    private boolean adaptiveArea = false;
+    // blocks of the current iteration, that were not at their zft-position
+    private int moves;
+
+    /**
+     * Creates the off-heap state of the netlist and places all blocks randomly.
+     *
+     * @param netlist netlist
+     * @param ioRate  number of pads per io position
+     */
+    public OffHeapZFTAlgorithm(PackedNetlist netlist, int ioRate) {
+        this.netlist = netlist;
+        this.ioRate = ioRate;
+        this.blockCount = netlist.getBlockCount();
+        this.netCount = netlist.getNetCount();
+
+        for (int i = 0; i < blockCount; i++) {
+            if (netlist.getType(i) == ElementType.CLB) logicCount++;
+        }
+        int sizeLogicElements = (int) Math.ceil(Math.sqrt(logicCount)) + 2;
+        int sizeIOElements = (int) Math.ceil((blockCount - logicCount) / 4.0 / ioRate) + 2;
+        size = Math.max(sizeIOElements, sizeLogicElements);
+        if ((long) size * size * ioRate > Integer.MAX_VALUE / 4)
+            throw new IllegalStateException("The placement grid is too large for an off-heap placement.");
+
+        // the candidates of the initial placement are allocated temporarily
+        long candidates = Math.max(4L * (size - 2) * ioRate, (long) (size - 2) * (size - 2));
+        offHeapSize = 4L * (6L * blockCount + (long) size * size * ioRate) + 8L * 4 * netCount + blockCount
+                + netCount;
+        DirectMemory.require(netlist.getOffHeapSize() + offHeapSize + 4 * candidates, "the off-heap placement");
+        x = DirectMemory.ints(blockCount);
+        y = DirectMemory.ints(blockCount);
+        subblock = DirectMemory.ints(blockCount);
+        weight = DirectMemory.ints(blockCount);
+        logic = DirectMemory.bytes(blockCount);
+        recent = DirectMemory.ints(2 * blockCount);
+        weightedX = DirectMemory.doubles(netCount);
+        weightedY = DirectMemory.doubles(netCount);
+        totalWeight = DirectMemory.doubles(netCount);
+        costs = DirectMemory.doubles(netCount);
+        costsValid = DirectMemory.bytes(netCount);
+        grid = DirectMemory.ints(size * size * ioRate);
+
+        for (int i = 0; i < blockCount; i++) {
+            weight.put(i, calcWeight(i));
+        }
+        System.out.println("\n");
+        System.out.println("Randomizing placements of all blocks");
+        System.out.println("The circuit will be mapped into a " + (size - 2) + " x " + (size - 2) + " array of clbs" + ".");
+        System.out.println("Off-heap placement state: " + ((netlist.getOffHeapSize() + offHeapSize) >> 20) + " MB for "
+                + blockCount + " blocks.\n");
+        initPlacement(new SplittableRandom());
+    }
+
+    private int calcWeight(int block) {
+        int result = 1;
+        for (int p = netlist.getPinStart(block); p < netlist.getIoEnd(block); p++) {
+            result += Net.crossings(pinCount(netlist.getNet(p)));
+        }
+        return result;
+    }
+
+    private int pinCount(int net) {
+        return netlist.getNetPinEnd(net) - netlist.getNetPinStart(net);
+    }
+
+    private void initPlacement(SplittableRandom random) {
+        // free slots are drawn from a shrinking range of candidates, each position is a candidate ioRate times
+        IntBuffer candidates = DirectMemory.ints(Math.max(4 * (size - 2) * ioRate, (size - 2) * (size - 2)));
+        int free = 0;
+        for (int s = 0; s < ioRate; s++) {
+            for (int i = 1; i < size - 1; i++) {
+                candidates.put(free++, pack(i, 0));
+                candidates.put(free++, pack(i, size - 1));
+                candidates.put(free++, pack(0, i));
+                candidates.put(free++, pack(size - 1, i));
+            }
+        }
+        for (int i = 0; i < blockCount; i++) {
+            recent.put(2 * i, NO_POSITION);
+            recent.put(2 * i + 1, NO_POSITION);
+            if (netlist.getType(i) == ElementType.CLB) continue;
+            int pick = random.nextInt(free);
+            int pos = candidates.get(pick);
+            candidates.put(pick, candidates.get(--free));
+            int px = unpackX(pos);
+            int py = unpackY(pos);
+            int s = 0;
+            while (grid.get(slot(px, py, s)) != 0) s++;
+            place(i, px, py, s);
+        }
+
+        free = 0;
+        for (int px = 1; px < size - 1; px++) {
+            for (int py = 1; py < size - 1; py++) {
+                candidates.put(free++, pack(px, py));
+            }
+        }
+        for (int i = 0; i < blockCount; i++) {
+            if (netlist.getType(i) != ElementType.CLB) continue;
+            logic.put(i, (byte) 1);
+            int pick = random.nextInt(free);
+            int pos = candidates.get(pick);
+            candidates.put(pick, candidates.get(--free));
+            place(i, unpackX(pos), unpackY(pos), 0);
+        }
+    }
+
+    private static int pack(int x, int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
+
+    private static int unpackX(int pos) {
+        return pos >>> 16;
+    }
+
+    private static int unpackY(int pos) {
+        return pos & 0xFFFF;
+    }
+
+    private int slot(int px, int py, int s) {
+        return (px * size + py) * ioRate + s;
+    }
+
+    /**
+     * Places an unplaced block.
+     */
+    private void place(int block, int px, int py, int s) {
+        x.put(block, px);
+        y.put(block, py);
+        subblock.put(block, s);
+        grid.put(slot(px, py, s), block + 1);
+        remember(block, px, py);
+        int w = weight.get(block);
+        for (int p = netlist.getPinStart(block); p < netlist.getPinEnd(block); p++) {
+            int net = netlist.getNet(p);
+            weightedX.put(net, weightedX.get(net) + w * px);
+            weightedY.put(net, weightedY.get(net) + w * py);
+            totalWeight.put(net, totalWeight.get(net) + w);
+            costsValid.put(net, (byte) 0);
+        }
+    }
+
+    /**
+     * Moves a placed logic block, the previous position is not freed.
+     */
+    private void move(int block, int px, int py) {
+        int oldX = x.get(block);
+        int oldY = y.get(block);
+        x.put(block, px);
+        y.put(block, py);
+        grid.put(slot(px, py, 0), block + 1);
+        remember(block, px, py);
+        int w = weight.get(block);
+        for (int p = netlist.getPinStart(block); p < netlist.getPinEnd(block); p++) {
+            int net = netlist.getNet(p);
+            weightedX.put(net, weightedX.get(net) + w * (px - oldX));
+            weightedY.put(net, weightedY.get(net) + w * (py - oldY));
+            costsValid.put(net, (byte) 0);
+        }
+    }
+
+    private void remember(int block, int px, int py) {
+        recent.put(2 * block, recent.get(2 * block + 1));
+        recent.put(2 * block + 1, pack(px, py));
+    }
+
+    private boolean knownPosition(int block, int px, int py) {
+        int key = pack(px, py);
+        return recent.get(2 * block) == key || recent.get(2 * block + 1) == key;
+    }
+
+    /**
+     * Sets the number of pads, above which a net contributes to the zft-position with a weight normalised
+     * by its fanout.
+     *
+     * @param fanoutThreshold maximal number of pads of a net, that is calculated pin by pin
+     */
+    public void setFanoutThreshold(int fanoutThreshold) {
+        this.fanoutThreshold = fanoutThreshold;
+    }
+
+    /**
+     * Enables the adaptive search area, see {@link ZFTAlgorithm#setAdaptiveArea(boolean)}.
+     *
+     * @param adaptiveArea true, to adapt the size of the search area to the acceptance rate
+     */
+    public void setAdaptiveArea(boolean adaptiveArea) {
+        this.adaptiveArea = adaptiveArea;
+    }
+
+    /**
+     * Sets the token, that cancels the placement or limits its runtime, see
+     * {@link ZFTAlgorithm#setCancellationToken(CancellationToken)}.
+     *
+     * @param cancellationToken cancellation token
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * @return bytes allocated outside of the heap
+     */
+    public long getOffHeapSize() {
+        return offHeapSize;
+    }
+
+    public int getXDimensionRespectively() {
+        return size - 2;
+    }
+
+    public int getYDimensionRespectively() {
+        return size - 2;
+    }
+
+    @Override
+    public int getX(int block) {
+        return x.get(block);
+    }
+
+    @Override
+    public int getY(int block) {
+        return y.get(block);
+    }
+
+    @Override
+    public int getSubblockNumber(int block) {
+        return subblock.get(block);
+    }
+
+    /**
+     * Iterates over all logic blocks and moves them towards their zft-position, see
+     * {@link ZFTAlgorithm#run(int, int)}.
+     *
+     * @param iterations   number of iterations
+     * @param areaSwapSize size of the area, a block can change to, if his ZFT-position is occupied
+     * @throws InterruptedException if the placement was cancelled or the current thread was interrupted
+     */
+    public void run(int iterations, int areaSwapSize) throws InterruptedException {
+        int noSwitchCountAdjacent = 0;
+        int totalIterations = 0;
+        int totalSwitches = 0;
+        int timeOutCount = 5;
+
+        // with a deadline, the placement may be stopped at any time, thus the best placement is kept
+        boolean keepBest = cancellationToken.hasDeadline();
+        double bestCost = keepBest ? calcTotalCosts() : 0;
+        int bestIteration = 0;
+        IntBuffer best = keepBest ? DirectMemory.ints(blockCount) : null;
+        if (keepBest) saveLogicPositions(best);
+        boolean expired = false;
+        double areaLimit = areaSwapSize;
+
+        for (int iter = 0; iter < iterations && noSwitchCountAdjacent < timeOutCount && !expired; iter++) {
+            PlacementIterationEvent event = new PlacementIterationEvent();
+            event.begin();
+            int switches = 0;
+            int checked = 0;
+            int areaSize = (int) areaLimit;
+            moves = 0;
+            for (int block = 0; block < blockCount; block++) {
+                if (logic.get(block) == 0) continue;
+                if (checked++ % CANCEL_CHECK_INTERVAL == 0) {
+                    if (cancellationToken.isCancelled()) throw new InterruptedException("Placement was cancelled.");
+                    if (cancellationToken.isExpired()) {
+                        expired = true;
+                        break;
+                    }
+                }
+                if (placeBlock(block, areaSize)) switches++;
+            }
+            if (event.shouldCommit()) {
+                event.circuit = Thread.currentThread().getName();
+                event.iteration = iter;
+                event.blocks = logicCount;
+                event.switches = switches;
+                event.commit();
+            }
+            totalSwitches += switches;
+            if (expired) break;
+            if (adaptiveArea && moves > 0) {
+                double acceptanceRate = (double) switches / moves;
+                areaLimit = Math.min(Math.max(areaLimit * (1 - TARGET_ACCEPTANCE_RATE + acceptanceRate), 1),
+                        areaSwapSize);
+            }
+            totalIterations++;
+            if (keepBest) {
+                double cost = calcTotalCosts();
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestIteration = totalIterations;
+                    saveLogicPositions(best);
+                }
+            }
+            noSwitchCountAdjacent = switches == 0 ? noSwitchCountAdjacent + 1 : 0;
+            if (noSwitchCountAdjacent == timeOutCount) {
+                System.out.println("Breaking loop, because no changes occurred after " + timeOutCount + " iterations.");
+            }
+        }
+        if (expired) {
+            if (calcTotalCosts() > bestCost) restoreLogicPositions(best);
+            else bestIteration = totalIterations;
+            System.out.println("Deadline reached after " + totalIterations + " iterations, keeping the " +
+                    "placement of iteration " + bestIteration + ".");
+        }
+        System.out.println("Placing ended after " + totalIterations + " iterations. " + totalSwitches + " blocks " +
+                "were" + " " + "switched");
+    }
+
+    /**
+     * Moves the block to its zft-position, to a free position nearby or switches with the block at the
+     * zft-position.
+     *
+     * @return true, if the block was moved
+     */
+    private boolean placeBlock(int block, int areaSwapSize) {
+        int ideal = calculateZFTPos(block);
+        int idealX = unpackX(ideal);
+        int idealY = unpackY(ideal);
+        if (idealX == x.get(block) && idealY == y.get(block)) return false;
+        moves++;
+        int occupant = grid.get(slot(idealX, idealY, 0)) - 1;
+        if (occupant < 0) return switchLogicBlockPosition(block, idealX, idealY);
+        int posInArea = searchPosInArea(idealX, idealY, areaSwapSize);
+        if (posInArea != NO_POSITION && switchLogicBlockPosition(block, unpackX(posInArea), unpackY(posInArea)))
+            return true;
+        return switchLogicBlocks(block, occupant);
+    }
+
+    /**
+     * Calculates the zft-position of the block from the weighted sums of its nets.
+     *
+     * @return packed target position
+     */
+    private int calculateZFTPos(int block) {
+        double forceX = 0;
+        double forceY = 0;
+        double sumWeight = 0;
+        int start = netlist.getPinStart(block);
+        int end = netlist.getIoEnd(block);
+        int w = weight.get(block);
+        int bx = x.get(block);
+        int by = y.get(block);
+        for (int p = start; p < end; p++) {
+            int net = netlist.getNet(p);
+            // a net might be connected to multiple pins of the block
+            int occurrences = 0;
+            for (int q = start; q < end; q++) {
+                if (netlist.getNet(q) == net) occurrences++;
+            }
+            int ownWeight = occurrences * w;
+            double netX = weightedX.get(net) - ownWeight * bx;
+            double netY = weightedY.get(net) - ownWeight * by;
+            double netWeight = totalWeight.get(net) - ownWeight;
+            int fanout = pinCount(net);
+            if (fanout > fanoutThreshold) {
+                // normalised by the fanout, so that global nets do not dominate the sum
+                netX /= fanout - 1;
+                netY /= fanout - 1;
+                netWeight /= fanout - 1;
+            }
+            forceX += netX;
+            forceY += netY;
+            sumWeight += netWeight;
+        }
+        // without other weighted pins there is no force, the block keeps its position
+        if (sumWeight == 0) return pack(bx, by);
+        return pack((int) (forceX / sumWeight), (int) (forceY / sumWeight));
+    }
+
+    /**
+     * Searches the free logic position nearest to the target position within the area, ring by ring, see
+     * {@link ZFTAlgorithm}.
+     *
+     * @return packed position or NO_POSITION, if all are occupied
+     */
+    private int searchPosInArea(int px, int py, int areaSize) {
+        Position free = FreePositionSearch.nearest(px, py, 1, 1, size - 2, size - 2, areaSize,
+                (x, y) -> grid.get(slot(x, y, 0)) == 0);
+        return free == null ? NO_POSITION : pack(free.getX(), free.getY());
+    }
+
+    private boolean switchLogicBlockPosition(int block, int px, int py) {
+        if (knownPosition(block, px, py) || px == 0 || px == size - 1 || py == 0 || py == size - 1) return false;
+        grid.put(slot(x.get(block), y.get(block), 0), 0);
+        move(block, px, py);
+        return true;
+    }
+
+    /**
+     * Switches the positions of two logic blocks, if the costs of the nets of both blocks decrease.
+     */
+    private boolean switchLogicBlocks(int block, int target) {
+        if (logic.get(target) == 0) return false;
+        int bx = x.get(block);
+        int by = y.get(block);
+        int tx = x.get(target);
+        int ty = y.get(target);
+        if (knownPosition(block, tx, ty)) return false;
+
+        double costDelta = 0;
+        int start = netlist.getPinStart(block);
+        int end = netlist.getIoEnd(block);
+        for (int p = start; p < end; p++) {
+            int net = netlist.getNet(p);
+            if (indexOf(net, start, p) < p) continue;
+            costDelta += calcCostsWithSwap(net, block, target) - calcCosts(net);
+        }
+        for (int p = netlist.getPinStart(target); p < netlist.getIoEnd(target); p++) {
+            int net = netlist.getNet(p);
+            if (indexOf(net, start, end) < end || indexOf(net, netlist.getPinStart(target), p) < p) continue;
+            costDelta += calcCostsWithSwap(net, block, target) - calcCosts(net);
+        }
+        if (costDelta >= 0) return false;
+
+        move(target, bx, by);
+        move(block, tx, ty);
+        return true;
+    }
+
+    /**
+     * @return index of the first pin of the net within [from, to), or to, if there is none
+     */
+    private int indexOf(int net, int from, int to) {
+        for (int p = from; p < to; p++) {
+            if (netlist.getNet(p) == net) return p;
+        }
+        return to;
+    }
+
+    /**
+     * Calculates the bb-costs of the net.
+     *
+     * @return costs
+     */
+    private double calcCosts(int net) {
+        if (costsValid.get(net) != 0) return costs.get(net);
+        double result = calcCostsWithSwap(net, -1, -1);
+        costs.put(net, result);
+        costsValid.put(net, (byte) 1);
+        return result;
+    }
+
+    /**
+     * Calculates the bb-costs of the net as if the two blocks had switched their positions.
+     */
+    private double calcCostsWithSwap(int net, int a, int b) {
+        int xMin = Integer.MAX_VALUE;
+        int yMin = Integer.MAX_VALUE;
+        int xMax = Integer.MIN_VALUE;
+        int yMax = Integer.MIN_VALUE;
+        int start = netlist.getNetPinStart(net);
+        int end = netlist.getNetPinEnd(net);
+        for (int p = start; p < end; p++) {
+            int pad = netlist.getBlock(p);
+            if (pad == a) pad = b;
+            else if (pad == b) pad = a;
+            int px = x.get(pad);
+            int py = y.get(pad);
+            xMin = Math.min(xMin, px);
+            yMin = Math.min(yMin, py);
+            xMax = Math.max(xMax, px);
+            yMax = Math.max(yMax, py);
+        }
+        double crossings = Net.crossings(end - start);
+        return (xMax - xMin + 1) * crossings + (yMax - yMin + 1) * crossings;
+    }
+
+    /**
+     * @return sum of the bb-costs of all nets
+     */
+    public double calcTotalCosts() {
+        double sum = 0;
+        for (int net = 0; net < netCount; net++) {
+            if (pinCount(net) > 0) sum += calcCosts(net);
+        }
+        return sum;
+    }
+
+    private void saveLogicPositions(IntBuffer positions) {
+        for (int i = 0; i < blockCount; i++) {
+            positions.put(i, pack(x.get(i), y.get(i)));
+        }
+    }
+
+    private void restoreLogicPositions(IntBuffer positions) {
+        for (int i = 0; i < blockCount; i++) {
+            if (logic.get(i) != 0) grid.put(slot(x.get(i), y.get(i), 0), 0);
+        }
+        for (int i = 0; i < blockCount; i++) {
+            if (logic.get(i) == 0) continue;
+            int pos = positions.get(i);
+            int px = unpackX(pos);
+            int py = unpackY(pos);
+            if (px != x.get(i) || py != y.get(i)) move(i, px, py);
+            else grid.put(slot(px, py, 0), i + 1);
+        }
+    }
+
+    /**
+     * Checks, that every block occupies exactly its own slot of the grid and the logic blocks are placed
+     * inside of the io ring.
+     *
+     * @return number of inconsistent blocks
+     */
+    public int checkConsistency() {
+        int errors = 0;
+        long occupied = 0;
+        for (int s = 0; s < grid.capacity(); s++) {
+            if (grid.get(s) != 0) occupied++;
+        }
+        for (int i = 0; i < blockCount; i++) {
+            int px = x.get(i);
+            int py = y.get(i);
+            boolean border = px == 0 || py == 0 || px == size - 1 || py == size - 1;
+            if (px < 0 || py < 0 || px >= size || py >= size || border == (logic.get(i) != 0)
+                    || grid.get(slot(px, py, subblock.get(i))) != i + 1) errors++;
+        }
+        return errors + (int) Math.abs(occupied - blockCount);
+    }
+}
@@ -0,0 +1,169 @@
+package algorithm;
+
+import types.CircuitElement;
+import types.Net;
+import types.Position;
+
+import java.util.*;
+
+/**
+ * Placement of the io pads on the ring around the clb grid. Every pad is assigned to a pad position, so that the
+ * sum of the bb-costs of the nets of all pads is minimal, while every position holds at most io rate pads. The
+ * costs of a pad at a position are calculated against the current positions of all other blocks of its nets,
+ * the assignment is solved with the hungarian algorithm.
+ */
+public class PadPlacer {
+
+    // the assignment takes about pads * pads * slots steps, larger problems are not solved
+    private static final long MAX_ASSIGNMENT_STEPS = 1_000_000_000L;
+    // small penalty for leaving the current position, equally good positions do not lead to moves
+    private static final double MOVE_PENALTY = 1e-6;
+
+    private final List<CircuitElement> ioElements;
+    private final int ioRate;
+    private final List<Position> positions = new ArrayList<>();
+
+    /**
+     * @param ioElements io pads, all blocks connected to them must be placed
+     * @param gridSize   number of clbs per row of the placement grid
+     * @param ioRate     number of pads per pad position
+     */
+    public PadPlacer(List<CircuitElement> ioElements, int gridSize, int ioRate) {
+        this.ioElements = ioElements;
+        this.ioRate = ioRate;
+        for (int i = 1; i <= gridSize; i++) {
+            positions.add(new Position(0, i));
+            positions.add(new Position(gridSize + 1, i));
+            positions.add(new Position(i, 0));
+            positions.add(new Position(i, gridSize + 1));
+        }
+    }
+
+    /**
+     * @return true, if the assignment is small enough to be solved
+     */
+    public boolean isFeasible() {
+        long pads = ioElements.size();
+        return pads <= (long) positions.size() * ioRate
+                && pads * pads * positions.size() * ioRate <= MAX_ASSIGNMENT_STEPS;
+    }
+
+    /**
+     * Calculates the positions of all pads with minimal costs.
+     *
+     * @return target position for each pad
+     */
+    public Map<CircuitElement, Position> place() {
+        if (!isFeasible())
+            throw new IllegalStateException(ioElements.size() + " pads can not be assigned to the pad positions.");
+        double[][] costs = new double[ioElements.size()][];
+        for (int i = 0; i < ioElements.size(); i++) {
+            costs[i] = costs(ioElements.get(i));
+        }
+        int[] slotOfPad = assign(costs);
+        Map<CircuitElement, Position> targets = new HashMap<>();
+        for (int i = 0; i < ioElements.size(); i++) {
+            targets.put(ioElements.get(i), positions.get(slotOfPad[i] / ioRate));
+        }
+        return targets;
+    }
+
+    /**
+     * Costs of the nets of a pad for every pad position. The bounding box over the other pins of a net is
+     * calculated once, the costs of a position only extend it by the pad.
+     */
+    private double[] costs(CircuitElement pad) {
+        double[] costs = new double[positions.size()];
+        for (Net net : new LinkedHashSet<>(pad.getPinList())) {
+            int xMin = Integer.MAX_VALUE;
+            int yMin = Integer.MAX_VALUE;
+            int xMax = Integer.MIN_VALUE;
+            int yMax = Integer.MIN_VALUE;
+            for (CircuitElement other : net.getConnectedPads()) {
+                if (other == pad) continue;
+                xMin = Math.min(xMin, other.getX());
+                xMax = Math.max(xMax, other.getX());
+                yMin = Math.min(yMin, other.getY());
+                yMax = Math.max(yMax, other.getY());
+            }
+            // a net without other pins has the same costs everywhere
+            if (xMin > xMax) continue;
+            double crossings = net.calcCrossings();
+            for (int p = 0; p < positions.size(); p++) {
+                Position pos = positions.get(p);
+                costs[p] += (Math.max(xMax, pos.getX()) - Math.min(xMin, pos.getX()) + 1
+                        + Math.max(yMax, pos.getY()) - Math.min(yMin, pos.getY()) + 1) * crossings;
+            }
+        }
+        Position current = pad.getPosition();
+        if (current != null) {
+            for (int p = 0; p < positions.size(); p++) {
+                costs[p] += MOVE_PENALTY * current.rectilinear(positions.get(p));
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * Hungarian algorithm with potentials for a rectangular assignment. Every pad is assigned to one of the io
+     * rate slots of a position.
+     *
+     * @param costs costs of each pad at each position
+     * @return slot of each pad, position of the slot is slot / io rate
+     */
+    private int[] assign(double[][] costs) {
+        int n = costs.length;
+        int m = positions.size() * ioRate;
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        // pad assigned to each slot, 1-based, 0 if free
+        int[] padOfSlot = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minValue = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+        for (int i = 1; i <= n; i++) {
+            padOfSlot[0] = i;
+            int slot = 0;
+            Arrays.fill(minValue, Double.MAX_VALUE);
+            Arrays.fill(used, false);
+            do {
+                used[slot] = true;
+                int pad = padOfSlot[slot];
+                double delta = Double.MAX_VALUE;
+                int nextSlot = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    double reduced = costs[pad - 1][(j - 1) / ioRate] - u[pad] - v[j];
+                    if (reduced < minValue[j]) {
+                        minValue[j] = reduced;
+                        way[j] = slot;
+                    }
+                    if (minValue[j] < delta) {
+                        delta = minValue[j];
+                        nextSlot = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[padOfSlot[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minValue[j] -= delta;
+                    }
+                }
+                slot = nextSlot;
+            } while (padOfSlot[slot] != 0);
+            // augmenting path back to the start
+            do {
+                int previous = way[slot];
+                padOfSlot[slot] = padOfSlot[previous];
+                slot = previous;
+            } while (slot != 0);
+        }
+        int[] slotOfPad = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (padOfSlot[j] != 0) slotOfPad[padOfSlot[j] - 1] = j - 1;
+        }
+        return slotOfPad;
+    }
+}
@@ -0,0 +1,176 @@
+package algorithm;
+
+import types.CircuitElement;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot of a running zft placement: the position of every block, the iteration counter, the tabu state and
+ * the adaptive search area.
+ * Blocks are identified by their index in the netlist. The initial placement is the only random part of the
+ * algorithm, thus the positions are sufficient to continue the placement as if it was never interrupted.
+ * <p>
+ * The binary file starts with a magic number and ends with a crc32 checksum, so incomplete files are detected.
+ */
+public class PlacementCheckpoint {
+
+    private static final int MAGIC = 0x5A465443; // "ZFTC"
+    // version 2 adds the search area of the adaptive mode
+    private static final int VERSION = 2;
+
+    final int width;
+    final int height;
+    final int ioRate;
+    final int netlistHash;
+    final int iteration;
+    final int totalSwitches;
+    final int noSwitchCount;
+    // tenure of the tabu search, 0 if disabled
+    final int tabuTenure;
+    // current size of the adaptive search area, 0 if the area is not adaptive
+    final double areaLimit;
+    final short[] x;
+    final short[] y;
+    final byte[] subblock;
+    // packed recent positions of each block, the oldest first
+    final int[][] recentPositions;
+    // best costs of each block, null without tabu search
+    final double[] bestCost;
+
+    PlacementCheckpoint(int width, int height, int ioRate, int netlistHash, int iteration, int totalSwitches,
+                        int noSwitchCount, int tabuTenure, double areaLimit, short[] x, short[] y,
+                        byte[] subblock, int[][] recentPositions, double[] bestCost) {
+        this.width = width;
+        this.height = height;
+        this.ioRate = ioRate;
+        this.netlistHash = netlistHash;
+        this.iteration = iteration;
+        this.totalSwitches = totalSwitches;
+        this.noSwitchCount = noSwitchCount;
+        this.tabuTenure = tabuTenure;
+        this.areaLimit = areaLimit;
+        this.x = x;
+        this.y = y;
+        this.subblock = subblock;
+        this.recentPositions = recentPositions;
+        this.bestCost = bestCost;
+    }
+
+    /**
+     * @return number of completed iterations
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    public int getBlockCount() {
+        return x.length;
+    }
+
+    /**
+     * Hash of the block names in netlist order, used to reject checkpoints of other netlists.
+     */
+    static int hash(List<CircuitElement> netlist) {
+        int hash = netlist.size();
+        for (CircuitElement block : netlist) {
+            hash = 31 * hash + block.getBlockName().hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file, which replaces the file afterwards. The previous checkpoint
+     * stays intact, if writing fails.
+     *
+     * @param file checkpoint file
+     * @throws IOException if the file can not be written
+     */
+    public void write(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(ioRate);
+            out.writeInt(netlistHash);
+            out.writeInt(iteration);
+            out.writeInt(totalSwitches);
+            out.writeInt(noSwitchCount);
+            out.writeInt(x.length);
+            out.writeInt(tabuTenure);
+            out.writeDouble(areaLimit);
+            for (int i = 0; i < x.length; i++) {
+                out.writeShort(x[i]);
+                out.writeShort(y[i]);
+                out.writeByte(subblock[i]);
+                out.writeShort(recentPositions[i].length);
+                for (int key : recentPositions[i]) {
+                    out.writeInt(key);
+                }
+                if (bestCost != null) out.writeDouble(bestCost[i]);
+            }
+            // the checksum covers everything before it
+            out.writeLong(crc.getValue());
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint.
+     *
+     * @param file checkpoint file
+     * @return checkpoint
+     * @throws IOException if the file can not be read
+     */
+    public static PlacementCheckpoint read(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(new FileInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC) throw new IllegalStateException(file.getName() + " is no checkpoint file.");
+            int version = in.readInt();
+            // checkpoints of version 1 resume with the full search area
+            if (version != VERSION && version != 1)
+                throw new IllegalStateException("Unsupported checkpoint version " + version + ".");
+            int width = in.readInt();
+            int height = in.readInt();
+            int ioRate = in.readInt();
+            int netlistHash = in.readInt();
+            int iteration = in.readInt();
+            int totalSwitches = in.readInt();
+            int noSwitchCount = in.readInt();
+            int blocks = in.readInt();
+            int tabuTenure = in.readInt();
+            double areaLimit = version >= 2 ? in.readDouble() : 0;
+            short[] x = new short[blocks];
+            short[] y = new short[blocks];
+            byte[] subblock = new byte[blocks];
+            int[][] recentPositions = new int[blocks][];
+            double[] bestCost = tabuTenure > 0 ? new double[blocks] : null;
+            for (int i = 0; i < blocks; i++) {
+                x[i] = in.readShort();
+                y[i] = in.readShort();
+                subblock[i] = in.readByte();
+                recentPositions[i] = new int[in.readUnsignedShort()];
+                for (int j = 0; j < recentPositions[i].length; j++) {
+                    recentPositions[i][j] = in.readInt();
+                }
+                if (bestCost != null) bestCost[i] = in.readDouble();
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected)
+                throw new IllegalStateException("Checkpoint " + file.getName() + " is corrupted.");
+            return new PlacementCheckpoint(width, height, ioRate, netlistHash, iteration, totalSwitches,
+                    noSwitchCount, tabuTenure, areaLimit, x, y, subblock, recentPositions, bestCost);
+        }
+    }
+}
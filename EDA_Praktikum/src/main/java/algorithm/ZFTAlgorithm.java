@@ -1,37 +1,95 @@
 package algorithm;
 
+import profiling.PlacementInitEvent;
+import profiling.PlacementIterationEvent;
 import types.*;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of the zft algorithm.
  */
 public class ZFTAlgorithm {
 
+    // nets with more pads contribute to the zft-position by their centroid instead of pin by pin
+    public static final int DEFAULT_FANOUT_THRESHOLD = 50;
+
+    // number of blocks between two checks of the cancellation token within an iteration
+    private static final int CANCEL_CHECK_INTERVAL = 64;
+    // acceptance rate, at which the adaptive search area keeps its size, as in the range limiter of vpr
+    private static final double TARGET_ACCEPTANCE_RATE = 0.44;
+
     private CircuitElement[][][] placements;
     private final Architecture architecture;
     private final boolean verbose;
 
+    // all blocks in netlist order, checkpoints identify blocks by their index
+    private final List<CircuitElement> blocks = new ArrayList<>();
     private final List<CircuitElement> ioElements = new ArrayList<>();
     private final List<CircuitElement> logicElements = new ArrayList<>();
     private final List<Net> nets;
     private boolean initPhase = true;
+    private int fanoutThreshold = DEFAULT_FANOUT_THRESHOLD;
+    private boolean tabuSearch = false;
+    private int tabuTenure = 0;
+    private boolean adaptiveArea = false;
+    private int padRefinementInterval = 0;
+
+    private CancellationToken cancellationToken = new CancellationToken();
+    // created on the first evaluation of the total costs
+    private CostEvaluator costEvaluator;
+
+    private File checkpointFile;
+    private int checkpointInterval;
+    // progress of a resumed placement
+    private int startIteration = 0;
+    private int startSwitches = 0;
+    private int startNoSwitchCount = 0;
+    private double startAreaLimit = 0;
 
     public ZFTAlgorithm(List<CircuitElement> netlist, List<Net> nets, Architecture architecture,
                         boolean randomInitPlace, boolean verbose) {
+        this(netlist, nets, architecture, randomInitPlace ? InitStrategy.RANDOM : InitStrategy.GRID_BASED, verbose);
+    }
+
+    public ZFTAlgorithm(List<CircuitElement> netlist, List<Net> nets, Architecture architecture,
+                        InitStrategy initStrategy, boolean verbose) {
         this.verbose = verbose;
         this.architecture = architecture;
         this.nets = nets;
-        initPlacement(netlist, randomInitPlace);
+        initPlacement(netlist, initStrategy);
         initPhase = false;
     }
 
-    private void initPlacement(List<CircuitElement> netlist, boolean randomInitPlace) {
-        List<CircuitElement> netlistCopy = new ArrayList<>(netlist);
-        for (CircuitElement elem : netlistCopy) {
+    /**
+     * Continues a placement from a checkpoint. The blocks are placed at their positions of the checkpoint,
+     * the tabu search mode and the iteration counter are restored as well.
+     *
+     * @param netlist      netlist, the checkpoint was created for
+     * @param nets         nets
+     * @param architecture architecture
+     * @param checkpoint   checkpoint
+     * @param verbose      verbose mode
+     */
+    public ZFTAlgorithm(List<CircuitElement> netlist, List<Net> nets, Architecture architecture,
+                        PlacementCheckpoint checkpoint, boolean verbose) {
+        this.verbose = verbose;
+        this.architecture = architecture;
+        this.nets = nets;
+        restorePlacement(netlist, checkpoint);
+        initPhase = false;
+    }
+
+    private void initPlacement(List<CircuitElement> netlist, InitStrategy initStrategy) {
+        PlacementInitEvent event = new PlacementInitEvent();
+        event.begin();
+        blocks.addAll(netlist);
+        for (CircuitElement elem : blocks) {
             if (elem.getType() == ElementType.CLB) {
                 logicElements.add(elem);
             } else {
@@ -45,15 +103,66 @@ public class ZFTAlgorithm {
         placements = new CircuitElement[size][size][architecture.getIoRate()];
 
         System.out.println("\n");
-        if (randomInitPlace) {
-            System.out.println("Randomizing placements of all blocks");
-        } else {
-            System.out.println("Trying to place blocks by cost factors");
+        switch (initStrategy) {
+            case RANDOM -> System.out.println("Randomizing placements of all blocks");
+            case GRID_BASED -> System.out.println("Trying to place blocks by cost factors");
+            case ANALYTICAL -> System.out.println("Placing blocks by solving the quadratic wirelength");
+            case CLUSTER_GROWTH -> System.out.println("Placing blocks by growing clusters from the io pads");
         }
         System.out.println("The circuit will be mapped into a " + (size - 2) + " x " + (size - 2) + " array of clbs" + ".\n");
 
         initPadPosition(size);
-        initLogicPosition(size, randomInitPlace);
+        initLogicPosition(size, initStrategy);
+
+        if (event.shouldCommit()) {
+            event.circuit = Thread.currentThread().getName();
+            event.strategy = initStrategy.toString();
+            event.gridSize = size - 2;
+            event.clbs = logicElements.size();
+            event.ioPads = ioElements.size();
+            event.nets = nets.size();
+            event.commit();
+        }
+    }
+
+    private void restorePlacement(List<CircuitElement> netlist, PlacementCheckpoint checkpoint) {
+        if (checkpoint.getBlockCount() != netlist.size() || checkpoint.netlistHash != PlacementCheckpoint.hash(netlist))
+            throw new IllegalStateException("The checkpoint does not belong to this netlist.");
+        if (checkpoint.ioRate != architecture.getIoRate())
+            throw new IllegalStateException("The checkpoint was created with an io rate of " + checkpoint.ioRate + ".");
+        blocks.addAll(netlist);
+        for (CircuitElement elem : blocks) {
+            if (elem.getType() == ElementType.CLB) {
+                logicElements.add(elem);
+            } else {
+                ioElements.add(elem);
+            }
+        }
+        placements = new CircuitElement[checkpoint.width][checkpoint.height][architecture.getIoRate()];
+        if (checkpoint.tabuTenure > 0) setTabuTenure(checkpoint.tabuTenure);
+
+        for (int i = 0; i < blocks.size(); i++) {
+            CircuitElement elem = blocks.get(i);
+            int x = checkpoint.x[i];
+            int y = checkpoint.y[i];
+            int subblock = elem.getType() == ElementType.CLB ? 0 : checkpoint.subblock[i];
+            if (x < 0 || y < 0 || x >= checkpoint.width || y >= checkpoint.height || subblock < 0
+                    || subblock >= architecture.getIoRate() || placements[x][y][subblock] != null)
+                throw new IllegalStateException("The checkpoint places block '" + elem.getBlockName() + "' at an " +
+                        "illegal position.");
+            elem.setPosition(new Position(x, y));
+            placements[x][y][subblock] = elem;
+            elem.getRecentPositions().clear();
+            elem.getRecentPositions().addAll(checkpoint.recentPositions[i]);
+            if (checkpoint.bestCost != null) elem.updateBestCost(checkpoint.bestCost[i]);
+        }
+        startIteration = checkpoint.iteration;
+        startSwitches = checkpoint.totalSwitches;
+        startNoSwitchCount = checkpoint.noSwitchCount;
+        startAreaLimit = checkpoint.areaLimit;
+        System.out.println("\n");
+        System.out.println("Resuming placement of " + blocks.size() + " blocks after iteration " + startIteration
+                + " in a " + (checkpoint.width - 2) + " x " + (checkpoint.height - 2) + " array of clbs.\n");
     }
 
     private void initPadPosition(int size) {
@@ -71,17 +180,18 @@ public class ZFTAlgorithm {
         placeRandom(ioElements, freePositions);
     }
 
-    private void initLogicPosition(int size, boolean randomInitPlace) {
+    private void initLogicPosition(int size, InitStrategy initStrategy) {
         List<Position> freePositions = new ArrayList<>();
         for (int x = 1; x < size - 1; x++) {
             for (int y = 1; y < size - 1; y++) {
                 freePositions.add(new Position(x, y));
             }
         }
-        if (randomInitPlace) {
-            placeRandom(logicElements, freePositions);
-        } else {
-            placeGridBased(freePositions);
+        switch (initStrategy) {
+            case RANDOM -> placeRandom(logicElements, freePositions);
+            case GRID_BASED -> placeGridBased(freePositions);
+            case ANALYTICAL -> applyLogicPlacement(new AnalyticalPlacer(logicElements, size - 2).place());
+            case CLUSTER_GROWTH -> applyLogicPlacement(new ClusterGrowthPlacer(logicElements, size - 2).place());
         }
     }
 
@@ -111,6 +221,110 @@ public class ZFTAlgorithm {
     }
 
 
+    /**
+     * Sets the number of pads, above which a net contributes to the zft-position with a weight normalised
+     * by its fanout.
+     *
+     * @param fanoutThreshold maximal number of pads of a net, that is calculated pin by pin
+     */
+    public void setFanoutThreshold(int fanoutThreshold) {
+        this.fanoutThreshold = fanoutThreshold;
+    }
+
+    /**
+     * Enables the tabu search mode. Each logic block remembers the given number of recent positions and
+     * does not switch back to them, unless the switch leads to lower costs than the best costs of the block
+     * so far (aspiration).
+     *
+     * @param tenure number of recent positions, a tenure of 0 disables the tabu search mode, the blocks keep
+     *               only their last 2 positions against oscillation then
+     */
+    public void setTabuTenure(int tenure) {
+        tabuSearch = tenure > 0;
+        tabuTenure = Math.max(tenure, 0);
+        for (CircuitElement elem : logicElements) {
+            elem.setTabuTenure(tenure);
+        }
+    }
+
+    /**
+     * Enables the adaptive search area. The area swap size of {@link #run(int, int)} becomes the maximal size,
+     * after every iteration the size is scaled by {@code 1 - 0.44 + acceptance rate}, thus the area shrinks, when
+     * few blocks find a better position, and grows again, when many blocks move.
+     *
+     * @param adaptiveArea true, to adapt the size of the search area to the acceptance rate
+     */
+    public void setAdaptiveArea(boolean adaptiveArea) {
+        this.adaptiveArea = adaptiveArea;
+    }
+
+    /**
+     * Enables the refinement of the io pads. Every given number of iterations and whenever the logic blocks have
+     * converged, the pads are moved to the positions with minimal costs for the current logic placement, see
+     * {@link PadPlacer}. Without refinement, the pads keep their initial positions.
+     *
+     * @param interval number of iterations between two refinements, 0 disables the refinement
+     */
+    public void setPadRefinementInterval(int interval) {
+        this.padRefinementInterval = Math.max(interval, 0);
+    }
+
+    /**
+     * Writes checkpoints of the placement in the background during {@link #run(int, int)}, after every given
+     * number of iterations, when the run ends and when it is interrupted.
+     *
+     * @param file     checkpoint file, replaced by every checkpoint
+     * @param interval number of iterations between two checkpoints
+     */
+    public void setCheckpoint(File file, int interval) {
+        this.checkpointFile = file;
+        this.checkpointInterval = Math.max(interval, 1);
+    }
+
+    /**
+     * Sets the token, that cancels the placement or limits its runtime. The token is checked every few blocks,
+     * not only between iterations. On cancellation {@link #run(int, int)} throws an InterruptedException, when
+     * the deadline is reached it returns with the best placement found so far.
+     *
+     * @param cancellationToken cancellation token
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Creates a checkpoint of the current placement.
+     *
+     * @param iteration     number of completed iterations
+     * @param totalSwitches number of switches so far
+     * @param noSwitchCount number of adjacent iterations without switches
+     * @param areaLimit     size of the adaptive search area, 0 if the area is not adaptive
+     * @return checkpoint
+     */
+    private PlacementCheckpoint createCheckpoint(int iteration, int totalSwitches, int noSwitchCount,
+                                                 double areaLimit) {
+        int n = blocks.size();
+        short[] x = new short[n];
+        short[] y = new short[n];
+        byte[] subblock = new byte[n];
+        int[][] recentPositions = new int[n][];
+        double[] bestCost = tabuSearch ? new double[n] : null;
+        for (int i = 0; i < n; i++) {
+            CircuitElement elem = blocks.get(i);
+            x[i] = (short) elem.getX();
+            y[i] = (short) elem.getY();
+            CircuitElement[] slots = placements[elem.getX()][elem.getY()];
+            for (int s = 0; s < slots.length; s++) {
+                if (slots[s] == elem) subblock[i] = (byte) s;
+            }
+            recentPositions[i] = elem.getRecentPositions().toArray();
+            if (bestCost != null) bestCost[i] = elem.getBestCost();
+        }
+        return new PlacementCheckpoint(placements.length, placements[0].length, architecture.getIoRate(),
+                PlacementCheckpoint.hash(blocks), iteration, totalSwitches, noSwitchCount, tabuTenure, areaLimit,
+                x, y, subblock, recentPositions, bestCost);
+    }
+
     public List<CircuitElement> getIoElements() {
         return ioElements;
     }
@@ -138,10 +352,52 @@ public class ZFTAlgorithm {
                 }
             }
         }
-        net.sort(Comparator.comparing(CircuitElement::getBlockNumber));
+        net.sort(Comparator.comparingInt(CircuitElement::getBlockNumber));
         return net;
     }
 
+    /**
+     * Replaces the positions of all logic blocks by the given target positions. Blocks are placed in the
+     * order of the logic element list at the free position nearest to their target, thus the resulting
+     * placement is always legal. Blocks without a target keep their relative order on the remaining positions.
+     *
+     * @param targets target position for each logic block
+     */
+    public void applyLogicPlacement(Map<CircuitElement, Position> targets) {
+        for (CircuitElement elem : logicElements) {
+            if (elem.getPosition() != null) placements[elem.getX()][elem.getY()][0] = null;
+        }
+        List<CircuitElement> unplaced = new ArrayList<>();
+        for (CircuitElement elem : logicElements) {
+            Position target = targets.get(elem);
+            if (target == null) {
+                unplaced.add(elem);
+                continue;
+            }
+            int x = Math.max(1, Math.min(target.getX(), placements.length - 2));
+            int y = Math.max(1, Math.min(target.getY(), placements[0].length - 2));
+            setPosition(elem, searchNearestFreePos(new Position(x, y)));
+        }
+        Position center = new Position(placements.length / 2, placements[0].length / 2);
+        for (CircuitElement elem : unplaced) {
+            setPosition(elem, searchNearestFreePos(elem.getPosition() != null ? elem.getPosition() : center));
+        }
+    }
+
+    /**
+     * Searches ring by ring around the target for the nearest free logic position. There is always
+     * a free position, as the grid holds at least as many positions as logic blocks.
+     *
+     * @param pos target position
+     * @return nearest free position
+     */
+    private Position searchNearestFreePos(Position pos) {
+        Position free = FreePositionSearch.nearest(pos.getX(), pos.getY(), 1, 1, placements.length - 2,
+                placements[0].length - 2, Integer.MAX_VALUE, (x, y) -> placements[x][y][0] == null);
+        if (free == null) throw new IllegalStateException("No free Positions");
+        return free;
+    }
+
     public Integer getXDimensionRespectively() {
 
         return placements.length - 2;
@@ -159,139 +415,263 @@ public class ZFTAlgorithm {
      *
      * @param iterations   number of iterations
      * @param areaSwapSize size of the area, a block can change to, if his ZFT-position is occupied
-     * @throws InterruptedException throwing interrupt-exception, if the current thread was interrupted
+     * @throws InterruptedException throwing interrupt-exception, if the placement was cancelled or the current
+     *                              thread was interrupted
      */
     public void run(int iterations, int areaSwapSize) throws InterruptedException {
-        int noSwitchCountAdjacent = 0;
-        int totalIterations = 0;
-        int totalSwitches = 0;
+        int noSwitchCountAdjacent = startNoSwitchCount;
+        int totalIterations = startIteration;
+        int totalSwitches = startSwitches;
         int timeOutCount = 5;
 
         for (CircuitElement elem : logicElements) {
             elem.calcWeight();
         }
+        if (tabuSearch) {
+            for (CircuitElement elem : logicElements) {
+                elem.updateBestCost(elem.calcCosts());
+            }
+        }
         for (CircuitElement elem : ioElements) {
             elem.calcWeight();
         }
-        // iterations for switches
-        for (int iter = 0; iter < iterations; iter++) {
-            // calculations take a long time and may run in a separate thread, thus checking for interrupts
-            if (Thread.currentThread().isInterrupted()) throw new InterruptedException("Thread was interrupted.");
-            int switches = 0;
-            // loop all logical components (only one change per iteration per component)
-            for (CircuitElement component : logicElements) {
-                Position idealPos = calculateZFTPos(component);
-
-                // skip routine, if component is already ideal
-                if (component.getPosition().equals(idealPos)) continue;
-                boolean switchedPos = false;
-                // ideal pos is free
-                if (placements[idealPos.getX()][idealPos.getY()][0] == null) {
-                    switchedPos = switchLogicBlockPosition(component, idealPos);
+        // with a deadline, the placement may be stopped at any time, thus the best placement is kept
+        boolean keepBest = cancellationToken.hasDeadline();
+        double bestCost = keepBest ? calcTotalCosts() : 0;
+        int bestIteration = totalIterations;
+        int[] bestX = keepBest ? new int[logicElements.size()] : null;
+        int[] bestY = keepBest ? new int[logicElements.size()] : null;
+        if (keepBest) saveLogicPositions(bestX, bestY);
+        boolean expired = false;
+        // a resumed adaptive run continues with its search area
+        double areaLimit = adaptiveArea && startAreaLimit > 0 ? Math.min(startAreaLimit, areaSwapSize) : areaSwapSize;
+        // the setting is kept, a run with too many pads for the assignment skips the refinement
+        boolean refinePads = padRefinementInterval > 0 && canRefinePads();
+
+        CheckpointWriter checkpointWriter = checkpointFile != null ? new CheckpointWriter(checkpointFile) : null;
+        try {
+            // iterations for switches
+            for (int iter = startIteration; iter < iterations && noSwitchCountAdjacent < timeOutCount && !expired;
+                 iter++) {
+                PlacementIterationEvent event = new PlacementIterationEvent();
+                event.begin();
+                int switches = 0;
+                int checked = 0;
+                int moves = 0;
+                int areaSize = (int) areaLimit;
+                // loop all logical components (only one change per iteration per component)
+                for (CircuitElement component : logicElements) {
+                    // calculations take a long time and may run in a separate thread, thus checking for
+                    // cancellation every few blocks, the placement is consistent between two blocks
+                    if (checked++ % CANCEL_CHECK_INTERVAL == 0) {
+                        if (cancellationToken.isCancelled()) {
+                            // a resumed run repeats the interrupted iteration
+                            if (checkpointWriter != null)
+                                checkpointWriter.submit(createCheckpoint(iter, totalSwitches, noSwitchCountAdjacent,
+                                        adaptiveArea ? areaLimit : 0));
+                            throw new InterruptedException("Placement was cancelled.");
+                        }
+                        if (cancellationToken.isExpired()) {
+                            expired = true;
+                            break;
+                        }
+                    }
+                    Position idealPos = calculateZFTPos(component);
+
+                    // skip routine, if component is already ideal
+                    if (component.getPosition().equals(idealPos)) continue;
+                    moves++;
+                    boolean switchedPos = false;
+                    // ideal pos is free
+                    if (placements[idealPos.getX()][idealPos.getY()][0] == null) {
+                        switchedPos = switchLogicBlockPosition(component, idealPos);
+                    }
+                    // pos in area is free
+                    if (!switchedPos && placements[idealPos.getX()][idealPos.getY()][0] != null) {
+                        Position posInArea = searchPosInArea(idealPos, areaSize);
+                        if (posInArea != null) {
+                            switchedPos = switchLogicBlockPosition(component, posInArea);
+                        }
+                    }
+                    // check costs and switch
+                    if (!switchedPos && placements[idealPos.getX()][idealPos.getY()][0] != null) {
+                        switchedPos = switchLogicBlocks(component, placements[idealPos.getX()][idealPos.getY()][0]);
+                    }
+                    if (switchedPos) {
+                        switches++;
+                    }
                 }
-                // pos in area is free
-                if (!switchedPos && placements[idealPos.getX()][idealPos.getY()][0] != null) {
-                    Position posInArea = searchPosInArea(idealPos, areaSwapSize);
-                    if (posInArea != null) {
-                        switchedPos = switchLogicBlockPosition(component, posInArea);
+                if (event.shouldCommit()) {
+                    event.circuit = Thread.currentThread().getName();
+                    event.iteration = iter;
+                    event.blocks = logicElements.size();
+                    event.switches = switches;
+                    event.cost = calcTotalCosts();
+                    event.commit();
+                }
+                totalSwitches += switches;
+                if (expired) break;
+                if (adaptiveArea && moves > 0) {
+                    double acceptanceRate = (double) switches / moves;
+                    areaLimit = Math.min(Math.max(areaLimit * (1 - TARGET_ACCEPTANCE_RATE + acceptanceRate), 1),
+                            areaSwapSize);
+                }
+                totalIterations++;
+                if (keepBest) {
+                    double cost = calcTotalCosts();
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestIteration = totalIterations;
+                        saveLogicPositions(bestX, bestY);
                     }
                 }
-                // check costs and switch
-                if (!switchedPos && placements[idealPos.getX()][idealPos.getY()][0] != null) {
-                    switchedPos = switchLogicBlocks(component, placements[idealPos.getX()][idealPos.getY()][0]);
+                noSwitchCountAdjacent = switches == 0 ? noSwitchCountAdjacent + 1 : 0;
+                // the pads follow the logic blocks, moved pads give the logic blocks new zft-positions
+                if (refinePads && (totalIterations % padRefinementInterval == 0
+                        || noSwitchCountAdjacent == timeOutCount) && refinePads() > 0) {
+                    noSwitchCountAdjacent = 0;
+                    if (keepBest) {
+                        // the best placement is only kept for the current pad positions
+                        bestCost = calcTotalCosts();
+                        bestIteration = totalIterations;
+                        saveLogicPositions(bestX, bestY);
+                    }
                 }
-                if (switchedPos) {
-                    switches++;
+                if (checkpointWriter != null && totalIterations % checkpointInterval == 0)
+                    checkpointWriter.submit(createCheckpoint(totalIterations, totalSwitches, noSwitchCountAdjacent,
+                            adaptiveArea ? areaLimit : 0));
+                if (noSwitchCountAdjacent == timeOutCount) {
+                    System.out.println("Breaking loop, because no changes occurred after " + timeOutCount + " iterations.");
+                    break;
                 }
             }
-            totalIterations++;
-            totalSwitches += switches;
-            noSwitchCountAdjacent = switches == 0 ? noSwitchCountAdjacent + 1 : 0;
-            if (noSwitchCountAdjacent == timeOutCount) {
-                System.out.println("Breaking loop, because no changes occurred after " + timeOutCount + " iterations.");
-                break;
+            if (expired) {
+                if (calcTotalCosts() > bestCost) restoreLogicPositions(bestX, bestY);
+                else bestIteration = totalIterations;
+                System.out.println("Deadline reached after " + totalIterations + " iterations, keeping the " +
+                        "placement of iteration " + bestIteration + ".");
             }
+            if (checkpointWriter != null)
+                checkpointWriter.submit(createCheckpoint(totalIterations, totalSwitches, noSwitchCountAdjacent,
+                        adaptiveArea ? areaLimit : 0));
+        } finally {
+            if (checkpointWriter != null) checkpointWriter.close();
         }
         System.out.println("Placing ended after " + totalIterations + " iterations. " + totalSwitches + " blocks " +
                 "were" + " " + "switched");
     }
 
     /**
-     * Searches a free position nearby of the target position.
+     * @return sum of the bb-costs of all nets
+     */
+    public double calcTotalCosts() {
+        if (costEvaluator == null) costEvaluator = new CostEvaluator(blocks, nets);
+        return costEvaluator.evaluate();
+    }
+
+    private void saveLogicPositions(int[] x, int[] y) {
+        for (int i = 0; i < logicElements.size(); i++) {
+            x[i] = logicElements.get(i).getX();
+            y[i] = logicElements.get(i).getY();
+        }
+    }
+
+    private void restoreLogicPositions(int[] x, int[] y) {
+        for (CircuitElement elem : logicElements) {
+            placements[elem.getX()][elem.getY()][0] = null;
+        }
+        for (int i = 0; i < logicElements.size(); i++) {
+            setPosition(logicElements.get(i), new Position(x[i], y[i]));
+        }
+    }
+
+    /**
+     * Searches the free position nearest to the target position. The area is searched ring by ring around the
+     * target, the search stops as soon as no position of the following rings can be nearer. Of equally near
+     * positions, the one with the smallest x and then y coordinate is taken.
      *
      * @param pos target position
      * @param areaSize size of the area to search for
      * @return free position or null, if all are occupied
      */
     private Position searchPosInArea(Position pos, int areaSize) {
-        int startX = Math.max(pos.getX() - areaSize, 1);
-        int startY = Math.max(pos.getY() - areaSize, 1);
-        int endX = Math.min(pos.getX() + areaSize, placements.length - 2);
-        int endY = Math.min(pos.getY() + areaSize, placements[0].length - 2);
-
-        List<Position> freePositions = new ArrayList<>();
-        // search area for free positions
-        for (int x = startX; x <= endX; x++) {
-            for (int y = startY; y <= endY; y++) {
-                if (placements[x][y][0] == null) {
-                    freePositions.add(new Position(x, y));
-                }
-            }
-        }
-        if (freePositions.isEmpty()) return null;
-
-        // sort for the shortest distance
-        freePositions.sort((m1, m2) -> {
-            double d1 = m1.distance(pos);
-            double d2 = m2.distance(pos);
-            if (d1 == d2) return 0;
-            return d1 > d2 ? 1 : -1;
-        });
-
-        return freePositions.get(0);
+        return FreePositionSearch.nearest(pos.getX(), pos.getY(), 1, 1, placements.length - 2,
+                placements[0].length - 2, areaSize, (x, y) -> placements[x][y][0] == null);
     }
 
     /**
      * Try's to switch the position with the component of occupied the zft-position. The switch will only
-     * be accepted, if the sum costs of both components are smaller than before.
+     * be accepted, if the costs of all nets of both components are smaller than before. In tabu search mode,
+     * a switch to a known position is only accepted, if the component reaches its best costs so far.
+     * The switch is evaluated without changing the placement, only accepted switches are applied.
      *
      * @param component component that wants to switch
      * @param targetComponent target of the zft-position of the component
      * @return true, if a switch occurred
      */
-    private boolean switchLogicBlocks(CircuitElement component, CircuitElement targetComponent) {
+    boolean switchLogicBlocks(CircuitElement component, CircuitElement targetComponent) {
         if (component.getType() != ElementType.CLB)
             throw new IllegalStateException("Only logic blocks can switch position!");
-        if (component.knownPosition(targetComponent.getPosition()) || targetComponent.getType() != ElementType.CLB)
-            return false;
-        if (verbose)
-            System.out.println(component.getBlockName() + " has switched position at " + targetComponent.getPosition());
-
-        double currentCost = component.calcCosts() + targetComponent.calcCosts();
+        if (targetComponent.getType() != ElementType.CLB) return false;
+        boolean tabu = component.knownPosition(targetComponent.getPosition());
+        if (tabu && !tabuSearch) return false;
 
+        Position pos = component.getPosition();
         Position targetPos = targetComponent.getPosition();
-        setPosition(targetComponent, component.getPosition());
+        double costDelta = calcSwitchCostDelta(component, targetComponent);
+        if (costDelta >= 0) return false;
+        double componentCostAfterSwitch = 0;
+        if (tabuSearch) {
+            for (Net net : component.getPinList()) {
+                componentCostAfterSwitch += net.calcCostsWithMove(component, targetPos, targetComponent, pos);
+            }
+        }
+        if (tabu && componentCostAfterSwitch >= component.getBestCost()) return false;
+
+        if (verbose)
+            System.out.println(component.getBlockName() + " has switched position at " + targetPos);
+        setPosition(targetComponent, pos);
         setPosition(component, targetPos);
+        if (tabuSearch) component.updateBestCost(componentCostAfterSwitch);
+        return true;
+    }
 
-        double costAfterSwitch = component.calcCosts() + targetComponent.calcCosts();
-        // switch back
-        if (currentCost <= costAfterSwitch) {
-            setPosition(component, targetComponent.getPosition());
-            setPosition(targetComponent, targetPos);
-            return false;
+    /**
+     * Calculates the change of the total costs, if the two blocks switched their positions, without moving
+     * them. Nets of both blocks and nets connected to a block by several pins are counted once.
+     *
+     * @param a first block
+     * @param b second block
+     * @return cost change, negative if the switch reduces the costs
+     */
+    double calcSwitchCostDelta(CircuitElement a, CircuitElement b) {
+        Position posA = a.getPosition();
+        Position posB = b.getPosition();
+        double costDelta = 0;
+        List<Net> netsA = a.getPinList();
+        for (int i = 0; i < netsA.size(); i++) {
+            Net net = netsA.get(i);
+            if (netsA.indexOf(net) == i) costDelta += net.calcCostsWithMove(a, posB, b, posA) - net.calcCosts();
         }
-        return true;
+        List<Net> netsB = b.getPinList();
+        for (int i = 0; i < netsB.size(); i++) {
+            Net net = netsB.get(i);
+            if (netsB.indexOf(net) != i || netsA.contains(net)) continue;
+            costDelta += net.calcCostsWithMove(a, posB, b, posA) - net.calcCosts();
+        }
+        return costDelta;
     }
 
     /**
      * Switches the logic block position to the new position and updates the placement array.
-     * A switch only occurs, if the target position is valid.
+     * A switch only occurs, if the target position is valid. In tabu search mode, the best costs of the
+     * component are updated.
      *
      * @param component component
      * @param newPos new position
      * @return true, if the switch was successful
      */
-    private boolean switchLogicBlockPosition(CircuitElement component, Position newPos) {
+    boolean switchLogicBlockPosition(CircuitElement component, Position newPos) {
         if (component.getType() != ElementType.CLB)
             throw new IllegalStateException("Only logic blocks can switch position!");
         if (component.knownPosition(newPos) || newPos.getX() == 0 || newPos.getX() == placements.length - 1 || newPos.getY() == 0 || newPos.getY() == placements.length - 1)
@@ -299,6 +679,7 @@ public class ZFTAlgorithm {
         if (verbose) System.out.println(component.getBlockName() + " has switched position at " + newPos);
         placements[component.getX()][component.getY()][0] = null;
         setPosition(component, newPos);
+        if (tabuSearch) component.updateBestCost(component.calcCosts());
         return true;
     }
 
@@ -309,35 +690,105 @@ public class ZFTAlgorithm {
         } else {
             if (!initPhase)
                 throw new IllegalStateException("IO-Components are not allowed to be placed after initialisation!");
-            int i = 0;
-            while (placements[pos.getX()][pos.getY()][i] != null && i < placements[pos.getX()][pos.getY()].length - 1)
-                i++;
-            if (i >= placements[pos.getX()][pos.getY()].length) throw new IllegalStateException("No free Positions");
-            elem.setPosition(pos);
-            placements[pos.getX()][pos.getY()][i] = elem;
+            placePad(elem, pos);
         }
     }
 
+    private void placePad(CircuitElement elem, Position pos) {
+        CircuitElement[] slots = placements[pos.getX()][pos.getY()];
+        int i = 0;
+        while (i < slots.length && slots[i] != null) i++;
+        if (i >= slots.length) throw new IllegalStateException("No free Positions");
+        elem.setPosition(pos);
+        slots[i] = elem;
+    }
+
     /**
-     * Calculates the zft-position of the given component.
+     * @return true, if the io pads are few enough for the refinement
+     */
+    private boolean canRefinePads() {
+        if (new PadPlacer(ioElements, placements.length - 2, architecture.getIoRate()).isFeasible()) return true;
+        System.out.println("Too many io pads for the refinement, the pads keep their positions.");
+        return false;
+    }
+
+    /**
+     * Moves the io pads to the positions with minimal costs for the current placement of the logic blocks.
+     *
+     * @return number of moved pads
+     */
+    private int refinePads() {
+        PadPlacer padPlacer = new PadPlacer(ioElements, placements.length - 2, architecture.getIoRate());
+        Map<CircuitElement, Position> targets = padPlacer.place();
+        int moved = 0;
+        for (CircuitElement pad : ioElements) {
+            if (!targets.get(pad).equals(pad.getPosition())) moved++;
+        }
+        if (moved == 0) return 0;
+        // the costs of each pad assume fixed positions of all other pads, pads sharing a net may interfere
+        double costs = calcTotalCosts();
+        Map<CircuitElement, Position> previous = new HashMap<>();
+        for (CircuitElement pad : ioElements) {
+            previous.put(pad, pad.getPosition());
+        }
+        movePads(targets);
+        if (calcTotalCosts() > costs) {
+            movePads(previous);
+            return 0;
+        }
+        if (verbose) System.out.println(moved + " io pads were moved.");
+        return moved;
+    }
+
+    private void movePads(Map<CircuitElement, Position> targets) {
+        for (CircuitElement pad : ioElements) {
+            CircuitElement[] slots = placements[pad.getX()][pad.getY()];
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == pad) slots[i] = null;
+            }
+        }
+        for (CircuitElement pad : ioElements) {
+            placePad(pad, targets.get(pad));
+        }
+    }
+
+    /**
+     * Calculates the zft-position of the given component. The weighted position sums of each net are
+     * maintained by the net, the component only removes its own contribution. Thus the calculation is
+     * bounded by the degree of the component.
      *
      * @param component component
      * @return target position
      */
-    private Position calculateZFTPos(CircuitElement component) {
-        int forceX = 0;
-        int forceY = 0;
-        int totalWeight = 0;
-        for (Net net : component.getPinList()) {
-            for (CircuitElement element : net.getConnectedPads()) {
-                if (!element.equals(component)) {
-                    forceX += element.getWeight() * element.getX();
-                    forceY += element.getWeight() * element.getY();
-                    totalWeight += element.getWeight();
-                }
+    Position calculateZFTPos(CircuitElement component) {
+        double forceX = 0;
+        double forceY = 0;
+        double totalWeight = 0;
+        List<Net> pins = component.getPinList();
+        for (Net net : pins) {
+            // a net might be connected to multiple pins of the component
+            int occurrences = 0;
+            for (Net other : pins) {
+                if (other == net) occurrences++;
+            }
+            int ownWeight = occurrences * component.getWeight();
+            double netX = net.getWeightedX() - ownWeight * component.getX();
+            double netY = net.getWeightedY() - ownWeight * component.getY();
+            double netWeight = net.getTotalWeight() - ownWeight;
+            int fanout = net.getConnectedPads().size();
+            if (fanout > fanoutThreshold) {
+                // normalised by the fanout, so that global nets do not dominate the sum
+                netX /= fanout - 1;
+                netY /= fanout - 1;
+                netWeight /= fanout - 1;
             }
+            forceX += netX;
+            forceY += netY;
+            totalWeight += netWeight;
         }
+        // without other weighted pins there is no force, the component keeps its position
+        if (totalWeight == 0) return new Position(component.getX(), component.getY());
 
-        return new Position(forceX / totalWeight, forceY / totalWeight);
+        return new Position((int) (forceX / totalWeight), (int) (forceY / totalWeight));
     }
 }
@@ -6,8 +6,12 @@ import gui.VPRListener;
 import gui.ZFTGui;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -18,27 +22,68 @@ public class Benchmark {
     private static final String PLACE = ASSETS + "/place/";
     private static final String ARCH = ASSETS + "/arch/4lut_sanitized.arch";
 
+    private static final String HISTORY = OUT + "history.jsonl";
+    private static final int ITERATIONS = 700;
+    private static final int AREA_SWAP_SIZE = 8;
+    // detailed placement and pad refinement, 0 keeps the records comparable to runs without them
+    private static final int DETAILED_PLACEMENT_PASSES = 0;
+    private static final int PAD_REFINEMENT_INTERVAL = 0;
+
+    /**
+     * Places and routes all netlists. The stats of every repetition are appended to the run history, which is
+     * compared by the {@link RegressionReport}.
+     *
+     * @param args number of repetitions, 1 by default
+     */
     public static void main(String[] args) {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0]) : 1;
         Map<String, File> netlist = searchFiles(NET, "net");
         Map<String, File> bestPlace = searchFiles(PLACE, "place");
         File arch = new File(ARCH);
         StatRecorder recorder = new StatRecorder();
+        PrintStream out = System.out;
         System.setOut(new PrintStream(recorder));
-        AlgorithmExecutor exec = new AlgorithmExecutor(6);
+        RunHistory history = new RunHistory(new File(HISTORY));
+        String revision = RunHistory.gitRevision();
+        String machine = RunHistory.machine();
+        String parameters = "zft iterations=" + ITERATIONS + " areaSwapSize=" + AREA_SWAP_SIZE + " init=GRID_BASED";
+        if (DETAILED_PLACEMENT_PASSES > 0) parameters += " detailedPasses=" + DETAILED_PLACEMENT_PASSES;
+        if (PAD_REFINEMENT_INTERVAL > 0) parameters += " padRefinement=" + PAD_REFINEMENT_INTERVAL;
 
-        for (File file : netlist.values()) {
-            exec.executeZFT(file, arch, 700, 8, false, false);
-        }
-        exec.shutdown(true);
+        // jobs are handed to free threads on submission, the executor orders only the queued ones
+        List<File> largestFirst = new ArrayList<>(netlist.values());
+        largestFirst.sort(Comparator.comparingLong(File::length).reversed());
 
-        exec = new AlgorithmExecutor(6);
-        for (Map.Entry<String, File> entry : netlist.entrySet()) {
-            exec.executeVPRRouting(entry.getValue(), arch);
-        }
-        exec.shutdown(true);
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+            AlgorithmExecutor exec = new AlgorithmExecutor();
+            exec.setDetailedPlacementPasses(DETAILED_PLACEMENT_PASSES);
+            exec.setPadRefinementInterval(PAD_REFINEMENT_INTERVAL);
+            for (File file : largestFirst) {
+                exec.executeZFT(file, arch, ITERATIONS, AREA_SWAP_SIZE, false, false);
+            }
+            exec.shutdown(true);
 
+            exec = new AlgorithmExecutor();
+            for (File file : largestFirst) {
+                if (AlgorithmExecutor.isVPRAvailable()) {
+                    exec.executeVPRRouting(file, arch);
+                } else {
+                    exec.executeRouting(file, arch);
+                }
+            }
+            exec.shutdown(true);
+
+            recorder.printStat(OUT + "recordedStats.json");
+            try {
+                history.append(recorder.toRecords(revision, parameters, machine));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            recorder.resetStats();
+        }
         recorder.endRecording();
-        recorder.printStat(OUT + "recordedStats.json");
+        System.setOut(out);
+        System.out.println("Appended " + repetitions + " runs of revision " + revision + " to " + HISTORY);
     }
 
     private static Map<String, File> searchFiles(String folder, String fileEnding) {
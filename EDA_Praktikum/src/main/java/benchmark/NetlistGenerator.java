@@ -0,0 +1,319 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic netlists for the 4-lut architecture, whose wiring follows Rent's rule. The clbs are
+ * leaves of a binary hierarchy, an input pin leaves its subtree of n clbs with the probability n^(p-1), thus a
+ * subtree has about t * n^p external connections. Pins leaving the whole circuit connect to the primary inputs.
+ * <p>
+ * Every clb drives one net named after it. The drivers of a clb are derived from a random generator seeded
+ * by the clb index, so the netlist is written block by block and only a few bits per clb are kept in memory.
+ * Combinational loops are avoided: a clb is only driven by clbs with a lower index or by registered clbs.
+ * Clbs without fanout are connected to an open or redundant pin of a clb shortly after them, the remaining ones
+ * drive the primary outputs.
+ */
+public class NetlistGenerator {
+
+    private static final int LUT_INPUTS = 4;
+    private static final int MAX_TRIES = 64;
+    // maximal index distance between a clb without fanout and the clb, it is connected to
+    private static final int REPAIR_WINDOW = 64;
+    private static final String CLOCK = "clk";
+    // driver of a pin, that stays open
+    private static final int OPEN = Integer.MIN_VALUE;
+
+    private final int clbs;
+    private final int inputs;
+    private final int outputs;
+    private final int levels;
+    private double rentExponent = 0.6;
+    private double fanoutExponent = 0;
+    private double maxFanoutWeight = 64;
+    private double latchFraction = 0.1;
+    private long seed = 1;
+
+    // round robin counter of the primary inputs
+    private int nextInput;
+    // saturating fanout of each clb and the next clb without fanout, that might be connected
+    private byte[] fanout;
+    private int nextUnused;
+
+    /**
+     * @param clbs    number of clbs
+     * @param inputs  number of primary inputs, unused inputs are not written
+     * @param outputs number of primary outputs, clbs without fanout drive additional outputs
+     */
+    public NetlistGenerator(int clbs, int inputs, int outputs) {
+        if (clbs < 2 || inputs < 1 || outputs < 1)
+            throw new IllegalStateException("A netlist needs at least two clbs, one input and one output.");
+        this.clbs = clbs;
+        this.inputs = inputs;
+        this.outputs = Math.min(outputs, clbs);
+        this.levels = 32 - Integer.numberOfLeadingZeros(clbs - 1);
+    }
+
+    /**
+     * @param rentExponent Rent exponent p between 0 and 1, higher exponents lead to more global wiring
+     */
+    public void setRentExponent(double rentExponent) {
+        if (rentExponent <= 0 || rentExponent >= 1)
+            throw new IllegalStateException("The Rent exponent must be between 0 and 1.");
+        this.rentExponent = rentExponent;
+    }
+
+    /**
+     * Sets the shape of the fanout distribution. Each clb is chosen as driver with a weight drawn from a
+     * Pareto distribution with the given exponent, smaller exponents lead to heavier tails. An exponent of 0
+     * weights all clbs equally, which gives a Poisson distribution of the fanout.
+     *
+     * @param fanoutExponent Pareto exponent, 0 for equal weights
+     */
+    public void setFanoutExponent(double fanoutExponent) {
+        this.fanoutExponent = Math.max(fanoutExponent, 0);
+    }
+
+    /**
+     * @param maxFanoutWeight upper bound of the Pareto weights, relative to the smallest weight
+     */
+    public void setMaxFanoutWeight(double maxFanoutWeight) {
+        this.maxFanoutWeight = Math.max(maxFanoutWeight, 1);
+    }
+
+    /**
+     * @param latchFraction fraction of clbs, whose output is registered
+     */
+    public void setLatchFraction(double latchFraction) {
+        this.latchFraction = Math.max(0, Math.min(latchFraction, 1));
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Writes the netlist. The drivers of all clbs are generated three times: the first pass counts the fanout
+     * and finds the used inputs, the second pass connects clbs without fanout and finds the remaining ones,
+     * which drive the outputs, the third pass writes the clbs.
+     *
+     * @param file destination file
+     * @throws IOException if the file can not be written
+     */
+    public void write(File file) throws IOException {
+        int[] drivers = new int[LUT_INPUTS];
+        byte[] initialFanout = new byte[clbs];
+        BitSet usedInputs = new BitSet(inputs);
+        nextInput = 0;
+        for (int i = 0; i < clbs; i++) {
+            generateDrivers(i, drivers);
+            for (int driver : drivers) {
+                if (driver >= 0 && initialFanout[driver] != -1) initialFanout[driver]++;
+                else if (driver < 0 && driver != OPEN) usedInputs.set(-1 - driver);
+            }
+        }
+        startPass(initialFanout);
+        for (int i = 0; i < clbs; i++) {
+            generateDrivers(i, drivers);
+            connectUnused(i, drivers);
+        }
+        BitSet used = new BitSet(clbs);
+        for (int i = 0; i < clbs; i++) {
+            if (fanout[i] != 0) used.set(i);
+        }
+        BitSet outputBlocks = selectOutputs(used);
+        boolean clocked = latchFraction > 0;
+
+        long nets = 0;
+        try (Writer writer = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            if (clocked) writer.write(".global " + CLOCK + "\n\n");
+            for (int k = usedInputs.nextSetBit(0); k >= 0; k = usedInputs.nextSetBit(k + 1)) {
+                writer.write(".input in" + k + "\npinlist: in" + k + " \n\n");
+                nets++;
+            }
+            if (clocked) {
+                writer.write(".input " + CLOCK + "\npinlist: " + CLOCK + " \n\n");
+                nets++;
+            }
+            for (int i = outputBlocks.nextSetBit(0); i >= 0; i = outputBlocks.nextSetBit(i + 1)) {
+                writer.write(".output out:n" + i + "\npinlist: n" + i + " \n\n");
+            }
+            StringBuilder pinlist = new StringBuilder();
+            StringBuilder subblock = new StringBuilder();
+            startPass(initialFanout);
+            for (int i = 0; i < clbs; i++) {
+                generateDrivers(i, drivers);
+                connectUnused(i, drivers);
+                pinlist.setLength(0);
+                subblock.setLength(0);
+                pinlist.append("pinlist:");
+                subblock.append("subblock: n").append(i);
+                for (int p = 0; p < LUT_INPUTS; p++) {
+                    int driver = drivers[p];
+                    if (driver == OPEN) {
+                        pinlist.append(" open");
+                        subblock.append(" open");
+                    } else {
+                        pinlist.append(driver >= 0 ? " n" : " in").append(driver >= 0 ? driver : -1 - driver);
+                        subblock.append(' ').append(p);
+                    }
+                }
+                boolean registered = isRegistered(i);
+                pinlist.append(" n").append(i).append(registered ? " " + CLOCK : " open").append(" \n");
+                subblock.append(" 4").append(registered ? " 5" : " open").append(" \n\n");
+                writer.write(".clb n" + i + "\n");
+                writer.write(pinlist.toString());
+                writer.write(subblock.toString());
+                nets++;
+            }
+        }
+        System.out.println("Generated " + file.getName() + ": " + clbs + " clbs, " + usedInputs.cardinality()
+                + " inputs, " + outputBlocks.cardinality() + " outputs, " + nets + " nets");
+    }
+
+    private void startPass(byte[] initialFanout) {
+        fanout = initialFanout.clone();
+        nextUnused = 0;
+        nextInput = 0;
+    }
+
+    /**
+     * Connects the first clb without fanout within the window before the given clb to an open pin or to a pin,
+     * whose driver has further fanout. At most one pin of a clb is changed.
+     */
+    private void connectUnused(int block, int[] drivers) {
+        while (nextUnused < block && (fanout[nextUnused] != 0 || nextUnused < block - REPAIR_WINDOW)) nextUnused++;
+        if (nextUnused >= block) return;
+        int pin = -1;
+        for (int p = 0; p < LUT_INPUTS && pin < 0; p++) {
+            if (drivers[p] == OPEN) pin = p;
+        }
+        for (int p = 0; p < LUT_INPUTS && pin < 0; p++) {
+            int driver = drivers[p];
+            if (driver >= 0 && (fanout[driver] & 0xFF) > 1) pin = p;
+        }
+        if (pin < 0) return;
+        int driver = drivers[pin];
+        if (driver >= 0 && fanout[driver] != -1) fanout[driver]--;
+        drivers[pin] = nextUnused;
+        fanout[nextUnused++] = 1;
+    }
+
+    /**
+     * Selects the clbs driving an output: all clbs without fanout and evenly spread clbs, until the number of
+     * outputs is reached.
+     */
+    private BitSet selectOutputs(BitSet used) {
+        BitSet result = new BitSet(clbs);
+        result.set(0, clbs);
+        result.and(used);
+        result.flip(0, clbs);
+        int missing = outputs - result.cardinality();
+        for (int k = 0; k < missing; k++) {
+            int i = (int) ((long) k * clbs / missing);
+            while (result.get(i)) i = (i + 1) % clbs;
+            result.set(i);
+        }
+        return result;
+    }
+
+    /**
+     * Generates the drivers of the input pins of a clb. A driver is the index of a clb, -1 - k for the
+     * primary input k or OPEN.
+     */
+    private void generateDrivers(int block, int[] drivers) {
+        SplittableRandom random = new SplittableRandom(mix(seed, block));
+        int connected = 0;
+        for (int p = 0; p < LUT_INPUTS; p++) {
+            drivers[p] = OPEN;
+            for (int tries = 0; tries < MAX_TRIES && drivers[p] == OPEN; tries++) {
+                int driver = drawDriver(block, random);
+                if (driver >= 0 && !isDriverAllowed(block, driver, random)) continue;
+                if (driver < 0) driver = -1 - (nextInput++ % inputs);
+                if (!contains(drivers, p, driver)) drivers[p] = driver;
+            }
+            if (drivers[p] != OPEN) connected++;
+        }
+        // a lut without any input is driven by a primary input
+        if (connected == 0) drivers[0] = -1 - (nextInput++ % inputs);
+    }
+
+    /**
+     * Draws the level of the connection by Rent's rule and a random clb in the sibling subtree of that level.
+     *
+     * @return index of the clb, -1 if the pin is connected to a primary input
+     */
+    private int drawDriver(int block, SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        // the pin leaves the subtree of 2^l clbs with probability 2^(l * (p - 1))
+        int level = (int) Math.floor(Math.log(u) / Math.log(2) / (rentExponent - 1));
+        while (level < levels) {
+            long start = (long) ((block >>> level) ^ 1) << level;
+            long end = Math.min(start + (1L << level), clbs);
+            if (start < clbs) return (int) (start + random.nextLong(end - start));
+            // the sibling subtree is beyond the last clb
+            level++;
+        }
+        return -1;
+    }
+
+    /**
+     * Accepts a driver by its fanout weight. Only drivers with a lower index or registered outputs are
+     * allowed, thus the netlist has no combinational loops.
+     */
+    private boolean isDriverAllowed(int block, int driver, SplittableRandom random) {
+        if (driver >= block && !isRegistered(driver)) return false;
+        return fanoutExponent == 0 || random.nextDouble() * maxFanoutWeight < fanoutWeight(driver);
+    }
+
+    private double fanoutWeight(int block) {
+        double u = 1 - uniform(mix(seed ^ 0x5DEECE66DL, block));
+        return Math.min(Math.pow(u, -1 / fanoutExponent), maxFanoutWeight);
+    }
+
+    private boolean isRegistered(int block) {
+        return uniform(mix(seed ^ 0xB5AD4ECEDA1CE2A9L, block)) < latchFraction;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private static long mix(long seed, int block) {
+        long z = seed + 0x9E3779B97F4A7C15L * (block + 1L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double uniform(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Generates a netlist from the command line.
+     *
+     * @param args file, clbs, inputs, outputs and optionally the Rent exponent, the fanout exponent and the seed
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Usage: NetlistGenerator <file> <clbs> <inputs> <outputs> [rent exponent] " +
+                    "[fanout exponent] [seed]");
+            return;
+        }
+        NetlistGenerator generator = new NetlistGenerator(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Integer.parseInt(args[3]));
+        if (args.length > 4) generator.setRentExponent(Double.parseDouble(args[4]));
+        if (args.length > 5) generator.setFanoutExponent(Double.parseDouble(args[5]));
+        if (args.length > 6) generator.setSeed(Long.parseLong(args[6]));
+        generator.write(new File(args[0]));
+    }
+}
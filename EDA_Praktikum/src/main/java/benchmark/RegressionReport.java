@@ -0,0 +1,323 @@
+package benchmark;
+
+import algorithm.CostEvaluator;
+import parser.ArchitectureParser;
+import parser.NetlistParser;
+import parser.PlacementParser;
+import types.Architecture;
+import types.CircuitElement;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Compares the runs of a candidate revision with the runs of a baseline revision from the run history. A
+ * runtime or cost regression is flagged, if the candidate is worse by at least the minimal effect and Welch's
+ * t-test rejects, that the candidate is not worse, at the given significance level. The costs are compared with
+ * the reference placements as well.
+ */
+public class RegressionReport {
+
+    private static final String ASSETS = "./assets";
+    private static final String HISTORY = ASSETS + "/out/history.jsonl";
+
+    private final List<RunRecord> records;
+    private double alpha = 0.05;
+    private double minEffect = 0.02;
+    // zft placements are usually far from the reference placements of vpr, only large excesses are flagged
+    private double referenceTolerance = 1.0;
+
+    public RegressionReport(List<RunRecord> records) {
+        this.records = records;
+    }
+
+    /**
+     * @param alpha significance level of the t-tests
+     */
+    public void setAlpha(double alpha) {
+        this.alpha = alpha;
+    }
+
+    /**
+     * @param minEffect minimal relative deterioration, that is reported as regression
+     */
+    public void setMinEffect(double minEffect) {
+        this.minEffect = minEffect;
+    }
+
+    /**
+     * @param referenceTolerance relative excess of the costs over the reference placement, that is accepted
+     */
+    public void setReferenceTolerance(double referenceTolerance) {
+        this.referenceTolerance = referenceTolerance;
+    }
+
+    /**
+     * @return revision of the latest record, null if there are no records
+     */
+    public String getLatestRevision() {
+        return records.isEmpty() ? null : records.get(records.size() - 1).getRevision();
+    }
+
+    /**
+     * Compares the placement runtime and the costs of the candidate with the baseline. Runs are compared, if
+     * they share circuit, parameters and machine.
+     *
+     * @param baseline  revision or prefix of the revision of the baseline
+     * @param candidate revision or prefix of the revision of the candidate
+     * @return descriptions of the regressions
+     */
+    public List<String> compare(String baseline, String candidate) {
+        Map<String, List<RunRecord>> baseRuns = groupByKey(baseline);
+        Map<String, List<RunRecord>> candidateRuns = groupByKey(candidate);
+        List<String> regressions = new ArrayList<>();
+        System.out.println("Comparing " + candidate + " with baseline " + baseline + ":");
+        for (Map.Entry<String, List<RunRecord>> entry : candidateRuns.entrySet()) {
+            List<RunRecord> base = baseRuns.get(entry.getKey());
+            if (base == null) {
+                System.out.println(entry.getKey() + ": no baseline runs");
+                continue;
+            }
+            compareMetric(entry.getKey(), "runtime", "ms", base, entry.getValue(), RunRecord::getPlaceRuntimeMs,
+                    regressions);
+            compareMetric(entry.getKey(), "cost", "", base, entry.getValue(), RunRecord::getCost, regressions);
+        }
+        return regressions;
+    }
+
+    private void compareMetric(String key, String name, String unit, List<RunRecord> base,
+                               List<RunRecord> candidate, Function<RunRecord, ? extends Number> metric,
+                               List<String> regressions) {
+        double[] a = values(base, metric);
+        double[] b = values(candidate, metric);
+        if (a.length == 0 || b.length == 0) return;
+        double meanA = mean(a);
+        double meanB = mean(b);
+        double change = meanA != 0 ? (meanB - meanA) / meanA : 0;
+        String line = String.format(Locale.US, "%s: %s %.2f%s -> %.2f%s (%+.1f%%", key, name, meanA, unit, meanB,
+                unit, 100 * change);
+        if (a.length < 2 || b.length < 2) {
+            System.out.println(line + ", too few runs for a test)");
+            return;
+        }
+        double p = welchPValue(a, b);
+        line += String.format(Locale.US, ", p=%.4f)", p);
+        if (p < alpha && change >= minEffect) {
+            line += " REGRESSION";
+            regressions.add(line);
+        }
+        System.out.println(line);
+    }
+
+    /**
+     * Compares the costs of the candidate with the costs of the reference placements.
+     *
+     * @param candidate      revision or prefix of the revision of the candidate
+     * @param referenceCosts costs of the reference placements by circuit
+     * @return descriptions of the regressions
+     */
+    public List<String> compareWithReference(String candidate, Map<String, Double> referenceCosts) {
+        List<String> regressions = new ArrayList<>();
+        System.out.println("Comparing " + candidate + " with the reference placements:");
+        for (Map.Entry<String, List<RunRecord>> entry : groupByKey(candidate).entrySet()) {
+            Double reference = referenceCosts.get(entry.getValue().get(0).getCircuit());
+            double[] costs = values(entry.getValue(), RunRecord::getCost);
+            if (reference == null || costs.length == 0) continue;
+            double mean = mean(costs);
+            String line = String.format(Locale.US, "%s: cost %.2f, reference %.2f (%+.1f%%", entry.getKey(), mean,
+                    reference, 100 * (mean - reference) / reference);
+            if (costs.length < 2) {
+                System.out.println(line + ", too few runs for a test)");
+                continue;
+            }
+            double p = oneSamplePValue(costs, reference * (1 + referenceTolerance));
+            line += String.format(Locale.US, ", p=%.4f)", p);
+            if (p < alpha) {
+                line += " REGRESSION";
+                regressions.add(line);
+            }
+            System.out.println(line);
+        }
+        return regressions;
+    }
+
+    private Map<String, List<RunRecord>> groupByKey(String revision) {
+        Map<String, List<RunRecord>> groups = new TreeMap<>();
+        for (RunRecord record : records) {
+            if (record.getRevision().startsWith(revision))
+                groups.computeIfAbsent(record.getKey(), k -> new ArrayList<>()).add(record);
+        }
+        return groups;
+    }
+
+    private static double[] values(List<RunRecord> runs, Function<RunRecord, ? extends Number> metric) {
+        return runs.stream().map(metric).filter(Objects::nonNull).mapToDouble(Number::doubleValue).toArray();
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) sum += value;
+        return sum / values.length;
+    }
+
+    private static double variance(double[] values, double mean) {
+        double sum = 0;
+        for (double value : values) sum += (value - mean) * (value - mean);
+        return sum / (values.length - 1);
+    }
+
+    /**
+     * One-sided Welch's t-test, that the mean of b is greater than the mean of a.
+     *
+     * @return p-value
+     */
+    static double welchPValue(double[] a, double[] b) {
+        double meanA = mean(a);
+        double meanB = mean(b);
+        double seA = variance(a, meanA) / a.length;
+        double seB = variance(b, meanB) / b.length;
+        if (seA + seB == 0) return meanB > meanA ? 0 : 1;
+        double t = (meanB - meanA) / Math.sqrt(seA + seB);
+        double df = (seA + seB) * (seA + seB) / (seA * seA / (a.length - 1) + seB * seB / (b.length - 1));
+        return studentUpperTail(t, df);
+    }
+
+    /**
+     * One-sided t-test, that the mean of the values is greater than the given value.
+     *
+     * @return p-value
+     */
+    static double oneSamplePValue(double[] values, double value) {
+        double mean = mean(values);
+        double se = variance(values, mean) / values.length;
+        if (se == 0) return mean > value ? 0 : 1;
+        return studentUpperTail((mean - value) / Math.sqrt(se), values.length - 1);
+    }
+
+    /**
+     * @return probability, that a t-distributed variable with df degrees of freedom exceeds t
+     */
+    private static double studentUpperTail(double t, double df) {
+        double tail = 0.5 * regularizedBeta(df / (df + t * t), df / 2, 0.5);
+        return t > 0 ? tail : 1 - tail;
+    }
+
+    /**
+     * Regularized incomplete beta function, evaluated by its continued fraction.
+     */
+    private static double regularizedBeta(double x, double a, double b) {
+        if (x <= 0) return 0;
+        if (x >= 1) return 1;
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x)
+                + b * Math.log(1 - x));
+        if (x < (a + 1) / (a + b + 2)) return front * betaFraction(x, a, b) / a;
+        return 1 - front * betaFraction(1 - x, b, a) / b;
+    }
+
+    private static double betaFraction(double x, double a, double b) {
+        final double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        if (Math.abs(d) < tiny) d = tiny;
+        d = 1 / d;
+        double h = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            double aa = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + aa * d;
+            if (Math.abs(d) < tiny) d = tiny;
+            c = 1 + aa / c;
+            if (Math.abs(c) < tiny) c = tiny;
+            d = 1 / d;
+            h *= d * c;
+            aa = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + aa * d;
+            if (Math.abs(d) < tiny) d = tiny;
+            c = 1 + aa / c;
+            if (Math.abs(c) < tiny) c = tiny;
+            d = 1 / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < 1e-12) break;
+        }
+        return h;
+    }
+
+    /**
+     * Logarithm of the gamma function by the Lanczos approximation.
+     */
+    private static double logGamma(double x) {
+        double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091, -1.231739572450155,
+                0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+
+    /**
+     * Calculates the costs of the reference placements of the given circuits.
+     *
+     * @param circuits     names of the netlist files
+     * @param netFolder    folder of the netlists
+     * @param placeFolder  folder of the reference placements
+     * @param architecture architecture file
+     * @return costs by circuit, circuits without reference placement are missing
+     */
+    public static Map<String, Double> referenceCosts(Collection<String> circuits, File netFolder, File placeFolder,
+                                                     File architecture) {
+        Map<String, Double> costs = new HashMap<>();
+        Architecture arch = new ArchitectureParser().parse(architecture.getPath());
+        for (String circuit : new TreeSet<>(circuits)) {
+            int dotIndex = circuit.lastIndexOf('.');
+            File place = new File(placeFolder, (dotIndex < 0 ? circuit : circuit.substring(0, dotIndex)) + ".place");
+            File netlist = new File(netFolder, circuit);
+            if (!place.exists() || !netlist.exists()) continue;
+            try {
+                NetlistParser netlistParser = new NetlistParser();
+                List<CircuitElement> blocks = netlistParser.parse(netlist, arch);
+                new PlacementParser().parse(place, blocks);
+                costs.put(circuit, new CostEvaluator(blocks, netlistParser.getNets()).evaluate());
+            } catch (IllegalStateException e) {
+                System.out.println("Unable to evaluate reference placement " + place.getName() + ": " + e.getMessage());
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * Prints the report of a candidate revision.
+     *
+     * @param args baseline revision, optionally the candidate revision, the latest revision by default, and the
+     *             tolerance of the costs over the reference placements
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: RegressionReport <baseline revision> [candidate revision] [reference tolerance]");
+            return;
+        }
+        RegressionReport report = new RegressionReport(new RunHistory(new File(HISTORY)).load());
+        String candidate = args.length > 1 ? args[1] : report.getLatestRevision();
+        if (args.length > 2) report.setReferenceTolerance(Double.parseDouble(args[2]));
+        if (candidate == null) {
+            System.out.println("The run history is empty.");
+            return;
+        }
+        List<String> regressions = new ArrayList<>(report.compare(args[0], candidate));
+        Set<String> circuits = new HashSet<>();
+        for (RunRecord record : report.records) {
+            if (record.getRevision().startsWith(candidate)) circuits.add(record.getCircuit());
+        }
+        regressions.addAll(report.compareWithReference(candidate, referenceCosts(circuits,
+                new File(ASSETS + "/net"), new File(ASSETS + "/place"), new File(ASSETS + "/arch/4lut_sanitized.arch"))));
+        System.out.println();
+        System.out.println(regressions.isEmpty() ? "No regressions found." : regressions.size() + " regressions found.");
+        regressions.forEach(System.out::println);
+    }
+}
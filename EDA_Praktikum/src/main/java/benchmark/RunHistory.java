@@ -0,0 +1,111 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only history of benchmark runs. Every run is stored as one json line, existing lines are never
+ * rewritten, thus the history of all revisions is kept and concurrent benchmark runs do not lose records.
+ */
+public class RunHistory {
+
+    private final File file;
+    private final Gson gson = new Gson();
+
+    public RunHistory(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Appends the records to the history.
+     *
+     * @param records records of a benchmark run
+     * @throws IOException if the history can not be written
+     */
+    public synchronized void append(List<RunRecord> records) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true),
+                StandardCharsets.UTF_8))) {
+            for (RunRecord record : records) {
+                writer.write(gson.toJson(record) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Reads all records. Lines, that can not be read, e.g. an incomplete last line, are skipped.
+     *
+     * @return records in the order of the history
+     * @throws IOException if the history can not be read
+     */
+    public List<RunRecord> load() throws IOException {
+        List<RunRecord> records = new ArrayList<>();
+        if (!file.exists()) return records;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                try {
+                    RunRecord record = gson.fromJson(line, RunRecord.class);
+                    if (record != null && record.getRevision() != null && record.getCircuit() != null)
+                        records.add(record);
+                } catch (JsonParseException e) {
+                    System.out.println("Skipping unreadable line " + lineNumber + " of " + file.getName());
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * @return abbreviated git revision of the working directory, marked as dirty if there are local changes
+     */
+    public static String gitRevision() {
+        try {
+            String revision = runGit("rev-parse", "--short", "HEAD");
+            if (revision.isEmpty()) return "unknown";
+            return runGit("status", "--porcelain", "--untracked-files=no").isEmpty() ? revision : revision + "-dirty";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    private static String runGit(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) output.append(line).append('\n');
+        }
+        return process.waitFor() == 0 ? output.toString().trim() : "";
+    }
+
+    /**
+     * @return host name, operating system, number of cores and maximal heap of this machine
+     */
+    public static String machine() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "unknown";
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return host + "/" + System.getProperty("os.name") + " " + System.getProperty("os.arch") + "/"
+                + runtime.availableProcessors() + " cores/" + (runtime.maxMemory() >> 20) + " MB";
+    }
+}
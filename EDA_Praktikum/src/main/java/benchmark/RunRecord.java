@@ -0,0 +1,107 @@
+package benchmark;
+
+/**
+ * Result of one benchmark run of a circuit. Values, that were not reported by the run, are null.
+ */
+public class RunRecord {
+
+    private String timestamp;
+    private String revision;
+    private String circuit;
+    private String parameters;
+    private String machine;
+    private Double placeRuntimeMs;
+    private Double routeRuntimeMs;
+    private Integer iterations;
+    private Double cost;
+    private Integer channelWidth;
+    private Integer estimatedChannelWidth;
+
+    public RunRecord() {
+    }
+
+    public RunRecord(String timestamp, String revision, String circuit, String parameters, String machine) {
+        this.timestamp = timestamp;
+        this.revision = revision;
+        this.circuit = circuit;
+        this.parameters = parameters;
+        this.machine = machine;
+    }
+
+    /**
+     * Runs with the same key are comparable: same circuit, parameters and machine.
+     *
+     * @return key of the run
+     */
+    public String getKey() {
+        return circuit + " | " + parameters + " | " + machine;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public String getCircuit() {
+        return circuit;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    public String getMachine() {
+        return machine;
+    }
+
+    public Double getPlaceRuntimeMs() {
+        return placeRuntimeMs;
+    }
+
+    public void setPlaceRuntimeMs(Double placeRuntimeMs) {
+        this.placeRuntimeMs = placeRuntimeMs;
+    }
+
+    public Double getRouteRuntimeMs() {
+        return routeRuntimeMs;
+    }
+
+    public void setRouteRuntimeMs(Double routeRuntimeMs) {
+        this.routeRuntimeMs = routeRuntimeMs;
+    }
+
+    public Integer getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(Integer iterations) {
+        this.iterations = iterations;
+    }
+
+    public Double getCost() {
+        return cost;
+    }
+
+    public void setCost(Double cost) {
+        this.cost = cost;
+    }
+
+    public Integer getChannelWidth() {
+        return channelWidth;
+    }
+
+    public void setChannelWidth(Integer channelWidth) {
+        this.channelWidth = channelWidth;
+    }
+
+    public Integer getEstimatedChannelWidth() {
+        return estimatedChannelWidth;
+    }
+
+    public void setEstimatedChannelWidth(Integer estimatedChannelWidth) {
+        this.estimatedChannelWidth = estimatedChannelWidth;
+    }
+}
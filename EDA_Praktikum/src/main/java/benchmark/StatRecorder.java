@@ -4,9 +4,8 @@ import com.google.gson.*;
 import types.CircuitElement;
 
 import java.io.*;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Instant;
+import java.util.*;
 
 /**
  * Records stats printed out by vpr or zft. Stats are recognized via the thread name, thus
@@ -60,10 +59,19 @@ public class StatRecorder extends OutputStream {
         }
         if (line.contains("Placement runtime took:")) {
             stats.setPlaceRuntime(getNextWord(line, "took:"));
+        } else if (line.contains("Routing runtime took:")) {
+            stats.setRouteRuntime(getNextWord(line, "took:"));
+        } else if (line.contains("Estimated channel width:")) {
+            stats.setEstimatedChannelWidth(getNextWord(line, "width:"));
+        } else if (line.contains("Total wirelength:")) {
+            stats.setWirelength(getNextWord(line, "wirelength:"));
         } else if (line.contains("VPR runtime took:")) {
             stats.setVprRuntime(getNextWord(line, "took:"));
         } else if (line.contains("Placing ended after")) {
             stats.setSwitchAmount(getNextWord(line, "iterations."));
+            stats.setIterations(getNextWord(line, "after"));
+        } else if (line.contains("Placement costs:")) {
+            stats.setCosts(getNextWord(line, "costs:"));
         } else if (line.contains("channel width factor")) {
             stats.setMinChanelWidth(getNextWord(line, "factor of"));
         } else if (line.contains("bb_cost recomputed from scratch")) {
@@ -109,6 +117,64 @@ public class StatRecorder extends OutputStream {
         }
     }
 
+    /**
+     * Converts the recorded stats into records of the run history, one record per circuit.
+     *
+     * @param revision   revision of the code
+     * @param parameters parameters of the benchmark
+     * @param machine    machine running the benchmark
+     * @return records of the recorded circuits
+     */
+    public List<RunRecord> toRecords(String revision, String parameters, String machine) {
+        String timestamp = Instant.now().toString();
+        List<RunRecord> records = new ArrayList<>();
+        for (Map.Entry<String, Stats> entry : statsMap.entrySet()) {
+            Stats stats = entry.getValue();
+            RunRecord record = new RunRecord(timestamp, revision, entry.getKey(), parameters, machine);
+            record.setPlaceRuntimeMs(parseRuntime(stats.getPlaceRuntime() != null ? stats.getPlaceRuntime()
+                    : stats.getVprRuntime()));
+            record.setRouteRuntimeMs(parseRuntime(stats.getRouteRuntime()));
+            record.setIterations(parseInteger(stats.getIterations()));
+            record.setCost(parseDouble(stats.getCosts()));
+            record.setChannelWidth(parseInteger(stats.getMinChanelWidth()));
+            record.setEstimatedChannelWidth(parseInteger(stats.getEstimatedChannelWidth()));
+            records.add(record);
+        }
+        records.sort(Comparator.comparing(RunRecord::getCircuit));
+        return records;
+    }
+
+    /**
+     * Parses a runtime printed as HH:mm:ss.SSS.
+     */
+    private static Double parseRuntime(String runtime) {
+        if (runtime == null) return null;
+        String[] parts = runtime.split(":");
+        if (parts.length != 3) return null;
+        try {
+            return (Integer.parseInt(parts[0]) * 3600 + Integer.parseInt(parts[1]) * 60
+                    + Double.parseDouble(parts[2])) * 1000;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        try {
+            return value != null ? Double.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     public void printStat() {
         for (Map.Entry<String, Stats> entry : statsMap.entrySet()) {
             System.out.println(entry.getKey() + " stats " + entry.getValue());
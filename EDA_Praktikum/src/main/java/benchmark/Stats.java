@@ -2,10 +2,14 @@ package benchmark;
 
 public class Stats {
     private String minChanelWidth;
+    private String estimatedChannelWidth;
     private String critPath;
     private String costs;
     private String placeRuntime;
     private String vprRuntime;
+    private String routeRuntime;
+    private String wirelength;
+    private String iterations;
 
     public Stats() {
     }
@@ -29,6 +33,14 @@ public class Stats {
         this.minChanelWidth = minChanelWidth;
     }
 
+    public String getEstimatedChannelWidth() {
+        return estimatedChannelWidth;
+    }
+
+    public void setEstimatedChannelWidth(String estimatedChannelWidth) {
+        this.estimatedChannelWidth = estimatedChannelWidth;
+    }
+
     public String getCritPath() {
         return critPath;
     }
@@ -61,8 +73,32 @@ public class Stats {
         this.vprRuntime = runtime;
     }
 
+    public String getRouteRuntime() {
+        return routeRuntime;
+    }
+
+    public void setRouteRuntime(String routeRuntime) {
+        this.routeRuntime = routeRuntime;
+    }
+
+    public String getWirelength() {
+        return wirelength;
+    }
+
+    public void setWirelength(String wirelength) {
+        this.wirelength = wirelength;
+    }
+
+    public String getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(String iterations) {
+        this.iterations = iterations;
+    }
+
     @Override
     public String toString() {
-        return "Stats{" + "minChanelWidth='" + minChanelWidth + '\'' + ", critPath='" + critPath + '\'' + ", costs='" + costs + '\'' + ", placeRuntime='" + placeRuntime + '\'' + ", vprRuntime='" + vprRuntime + '\'' + ", switchAmount='" + switchAmount + '\'' + '}';
+        return "Stats{" + "minChanelWidth='" + minChanelWidth + '\'' + ", estimatedChannelWidth='" + estimatedChannelWidth + '\'' + ", critPath='" + critPath + '\'' + ", costs='" + costs + '\'' + ", placeRuntime='" + placeRuntime + '\'' + ", vprRuntime='" + vprRuntime + '\'' + ", routeRuntime='" + routeRuntime + '\'' + ", wirelength='" + wirelength + '\'' + ", switchAmount='" + switchAmount + '\'' + ", iterations='" + iterations + '\'' + '}';
     }
 }
@@ -0,0 +1,86 @@
+package checker;
+
+import types.Architecture;
+import types.CircuitElement;
+import types.ElementType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the legality of a placement in linear time, like the placement consistency check of vpr: every block
+ * is placed inside the grid, clbs inside the clb array with subblock 0, io pads on the io ring except the
+ * corners with a subblock number below the io rate, and no two blocks share a location.
+ */
+public class PlacementChecker {
+
+    // further errors are only counted
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final Architecture architecture;
+
+    public PlacementChecker(Architecture architecture) {
+        this.architecture = architecture;
+    }
+
+    /**
+     * Checks the placement of all blocks.
+     *
+     * @param blocks blocks of the netlist
+     * @param nx     number of clb columns
+     * @param ny     number of clb rows
+     * @return error messages, empty if the placement is legal
+     */
+    public List<String> check(List<CircuitElement> blocks, int nx, int ny) {
+        List<String> errors = new ArrayList<>();
+        int errorCount = 0;
+        int ioRate = architecture.getIoRate();
+        int columns = nx + 2;
+        // block index + 1 of the occupant of each location, clbs use subblock 0
+        int[] occupant = new int[columns * (ny + 2) * ioRate];
+
+        for (int i = 0; i < blocks.size(); i++) {
+            CircuitElement block = blocks.get(i);
+            String error = checkBlock(block, nx, ny, ioRate);
+            if (error == null) {
+                int location = (block.getY() * columns + block.getX()) * ioRate + block.getSubblockNumber();
+                if (occupant[location] != 0) {
+                    error = "Block '" + block.getBlockName() + "' overlaps block '"
+                            + blocks.get(occupant[location] - 1).getBlockName() + "' at " + describe(block) + ".";
+                } else {
+                    occupant[location] = i + 1;
+                }
+            }
+            if (error != null && errorCount++ < MAX_REPORTED_ERRORS) errors.add(error);
+        }
+        if (errorCount > MAX_REPORTED_ERRORS) errors.add((errorCount - MAX_REPORTED_ERRORS) + " more errors.");
+        return errors;
+    }
+
+    private String checkBlock(CircuitElement block, int nx, int ny, int ioRate) {
+        if (block.getPosition() == null) return "Block '" + block.getBlockName() + "' is not placed.";
+        int x = block.getX();
+        int y = block.getY();
+        int subblock = block.getSubblockNumber();
+        if (x < 0 || y < 0 || x > nx + 1 || y > ny + 1)
+            return "Block '" + block.getBlockName() + "' is outside of the grid at " + describe(block) + ".";
+        boolean ring = x == 0 || y == 0 || x == nx + 1 || y == ny + 1;
+        if (block.getType() == ElementType.CLB) {
+            if (ring) return "Clb '" + block.getBlockName() + "' is on the io ring at " + describe(block) + ".";
+            if (subblock != 0)
+                return "Clb '" + block.getBlockName() + "' has subblock number " + subblock + ", expected 0.";
+        } else {
+            if (!ring) return "Io pad '" + block.getBlockName() + "' is not on the io ring at " + describe(block) + ".";
+            if ((x == 0 || x == nx + 1) && (y == 0 || y == ny + 1))
+                return "Io pad '" + block.getBlockName() + "' is in a corner at " + describe(block) + ".";
+            if (subblock < 0 || subblock >= ioRate)
+                return "Io pad '" + block.getBlockName() + "' has subblock number " + subblock + ", the io rate is "
+                        + ioRate + ".";
+        }
+        return null;
+    }
+
+    private static String describe(CircuitElement block) {
+        return "(" + block.getX() + "/" + block.getY() + "/" + block.getSubblockNumber() + ")";
+    }
+}
@@ -0,0 +1,464 @@
+package daemon;
+
+import algorithm.AlgorithmExecutor;
+import algorithm.InitStrategy;
+import algorithm.Job;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resident placement service. The daemon keeps one {@link AlgorithmExecutor} alive and accepts place and route
+ * jobs over a local tcp socket or a unix domain socket, thus repeated jobs share the parse cache and run on
+ * compiled code.
+ * <p>
+ * The protocol is line based, every request and every response is one json object. A request is e.g.
+ * <pre>
+ * {"command": "place", "netlist": "clma.net", "architecture": "4lut_sanitized.arch", "iterations": 50,
+ *  "areaSwapSize": 1, "init": "random", "algorithm": "zft", "priority": 0}
+ * {"command": "route", "netlist": "clma.net", "architecture": "4lut_sanitized.arch", "place": "clma.place"}
+ * {"command": "cancel", "id": 3}
+ * {"command": "status"}
+ * {"command": "shutdown"}
+ * </pre>
+ * A job is answered with "queued", "running" and finally "succeeded", "failed" or "cancelled" including its
+ * results. Jobs with a higher priority start first, jobs of the same priority in the order of their arrival.
+ * The queue is bounded, a job arriving at a full queue is rejected.
+ */
+public class PlacementDaemon {
+
+    private final Gson gson = new Gson();
+    private final AlgorithmExecutor executor;
+    private final int queueCapacity;
+    // one permit per thread of the executor, jobs are only handed over if they can start immediately
+    private final Semaphore slots;
+
+    private final PriorityQueue<Request> queue = new PriorityQueue<>(
+            Comparator.comparingInt((Request request) -> -request.priority).thenComparingLong(request -> request.id));
+    // queued and running requests
+    private final Map<Long, Request> requests = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private ServerSocketChannel server;
+    private Path socketFile;
+    private volatile boolean running = true;
+
+    /**
+     * @param threads       number of jobs running at the same time
+     * @param queueCapacity maximum number of waiting jobs
+     */
+    public PlacementDaemon(int threads, int queueCapacity) {
+        this.executor = new AlgorithmExecutor(threads);
+        this.queueCapacity = queueCapacity;
+        this.slots = new Semaphore(threads);
+    }
+
+    /**
+     * Listens on a tcp port of the loopback interface.
+     *
+     * @param port port
+     * @throws IOException if the port can not be bound
+     */
+    public void listen(int port) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        start(server.getLocalAddress());
+    }
+
+    /**
+     * Listens on a unix domain socket. A stale socket file of a previous daemon is removed.
+     *
+     * @param path path of the socket file
+     * @throws IOException if the socket can not be bound
+     */
+    public void listen(Path path) throws IOException {
+        Files.deleteIfExists(path);
+        socketFile = path;
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(path));
+        start(server.getLocalAddress());
+    }
+
+    /**
+     * @return address the daemon listens on, e.g. the port chosen for port 0
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    private void start(SocketAddress address) {
+        Thread dispatcher = new Thread(this::dispatch, "daemon-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        System.out.println("Placement daemon listening on " + address);
+    }
+
+    /**
+     * Accepts connections until the daemon is shut down. Every connection is served by its own thread.
+     */
+    public void serve() {
+        while (running) {
+            try {
+                SocketChannel channel = server.accept();
+                Thread thread = new Thread(() -> new Connection(channel).serve(), "daemon-connection");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (running) System.out.println("Unable to accept connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops accepting requests, cancels all jobs and closes the socket.
+     */
+    public void shutdown() {
+        if (!running) return;
+        running = false;
+        synchronized (queue) {
+            queue.clear();
+            queue.notifyAll();
+        }
+        requests.values().forEach(Request::cancel);
+        executor.stopAll();
+        executor.shutdown(false);
+        try {
+            server.close();
+            if (socketFile != null) Files.deleteIfExists(socketFile);
+        } catch (IOException e) {
+            System.out.println("Unable to close socket: " + e.getMessage());
+        }
+        System.out.println("Placement daemon stopped.");
+    }
+
+    /**
+     * Hands over the queued requests to the executor, whenever one of its threads is free.
+     */
+    private void dispatch() {
+        try {
+            while (running) {
+                slots.acquire();
+                Request request;
+                synchronized (queue) {
+                    while (running && queue.isEmpty()) queue.wait();
+                    if (!running) return;
+                    request = queue.poll();
+                }
+                start(request);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void start(Request request) {
+        Job job;
+        try {
+            job = submit(request.message);
+        } catch (RuntimeException e) {
+            slots.release();
+            requests.remove(request.id);
+            request.connection.send(response(request.id, "failed").put("error", String.valueOf(e)));
+            return;
+        }
+        request.start(job);
+        request.connection.send(response(request.id, "running"));
+        job.addDoneListener(() -> {
+            requests.remove(request.id);
+            String status = job.isCancelled() ? "cancelled" : job.getError() != null ? "failed" : "succeeded";
+            Response response = response(request.id, status);
+            response.object.add("results", gson.toJsonTree(job.getResults()));
+            if (job.getError() != null) response.put("error", job.getError());
+            request.connection.send(response);
+            // released last, thus the final answer of a job precedes the start of the next one
+            slots.release();
+        });
+    }
+
+    private Job submit(JsonObject message) {
+        String command = getString(message, "command", "");
+        File netlist = getFile(message, "netlist");
+        File architecture = getFile(message, "architecture");
+        if (command.equals("route")) {
+            if (!message.has("place")) return executor.executeRouting(netlist, architecture);
+            return executor.executeRouting(netlist, getFile(message, "place"), architecture);
+        }
+        int iterations = getInt(message, "iterations", 50);
+        int areaSwapSize = getInt(message, "areaSwapSize", 1);
+        String algorithm = getString(message, "algorithm", "zft");
+        switch (algorithm) {
+            case "zft":
+                return executor.executeZFT(netlist, architecture, iterations, areaSwapSize,
+                        initStrategy(getString(message, "init", "random")), false);
+            case "multilevel":
+                return executor.executeMultilevelZFT(netlist, architecture, iterations, areaSwapSize, false);
+            case "offheap":
+                return executor.executeOffHeapZFT(netlist, architecture, iterations, areaSwapSize);
+            default:
+                throw new IllegalStateException("Unknown algorithm " + algorithm);
+        }
+    }
+
+    private static InitStrategy initStrategy(String name) {
+        for (InitStrategy strategy : InitStrategy.values()) {
+            if (strategy.name().equalsIgnoreCase(name.replace(' ', '_')) || strategy.toString().equals(name))
+                return strategy;
+        }
+        throw new IllegalStateException("Unknown initial placement " + name);
+    }
+
+    private static File getFile(JsonObject message, String key) {
+        String path = getString(message, key, null);
+        if (path == null) throw new IllegalStateException("Missing " + key);
+        File file = new File(path);
+        if (!file.isFile()) throw new IllegalStateException("File " + path + " not found");
+        return file;
+    }
+
+    private static String getString(JsonObject message, String key, String defaultValue) {
+        JsonElement element = message.get(key);
+        return element == null || element.isJsonNull() ? defaultValue : element.getAsString();
+    }
+
+    private static int getInt(JsonObject message, String key, int defaultValue) {
+        JsonElement element = message.get(key);
+        return element == null || element.isJsonNull() ? defaultValue : element.getAsInt();
+    }
+
+    private Response response(long id, String status) {
+        Response response = new Response();
+        if (id >= 0) response.object.addProperty("id", id);
+        response.put("status", status);
+        return response;
+    }
+
+    /**
+     * Handles one request line of a client.
+     */
+    private void handle(Connection connection, String line) {
+        JsonObject message;
+        try {
+            JsonElement element = JsonParser.parseString(line);
+            if (!element.isJsonObject()) throw new JsonParseException("Request is not an object");
+            message = element.getAsJsonObject();
+        } catch (JsonParseException e) {
+            connection.send(response(-1, "error").put("error", "Unreadable request: " + e.getMessage()));
+            return;
+        }
+        // fields of a wrong type throw, e.g. a text as id or priority, the connection is kept
+        try {
+            String command = getString(message, "command", "");
+            switch (command) {
+                case "place":
+                case "route":
+                    enqueue(connection, message);
+                    break;
+                case "cancel":
+                    cancel(connection, getInt(message, "id", -1));
+                    break;
+                case "status":
+                    connection.send(status());
+                    break;
+                case "shutdown":
+                    connection.send(response(-1, "stopping"));
+                    shutdown();
+                    break;
+                default:
+                    connection.send(response(-1, "error").put("error", "Unknown command " + command));
+            }
+        } catch (RuntimeException e) {
+            connection.send(response(-1, "error").put("error", "Invalid request: " + e));
+        }
+    }
+
+    private void enqueue(Connection connection, JsonObject message) {
+        if (!running) {
+            connection.send(response(-1, "rejected").put("error", "Daemon is stopping"));
+            return;
+        }
+        Request request = new Request(ids.incrementAndGet(), getInt(message, "priority", 0), message, connection);
+        synchronized (queue) {
+            if (queue.size() >= queueCapacity) {
+                connection.send(response(request.id, "rejected").put("error", "Queue is full"));
+                return;
+            }
+            requests.put(request.id, request);
+            // answered before the dispatcher can take the request, thus "queued" always precedes "running"
+            connection.send(response(request.id, "queued"));
+            queue.add(request);
+            queue.notifyAll();
+        }
+    }
+
+    private void cancel(Connection connection, long id) {
+        Request request = requests.get(id);
+        if (request == null) {
+            connection.send(response(id, "error").put("error", "Unknown or finished job"));
+            return;
+        }
+        boolean removed;
+        synchronized (queue) {
+            removed = queue.remove(request);
+        }
+        if (removed) {
+            // never handed over, thus the final answer is given here
+            requests.remove(id);
+            request.connection.send(response(id, "cancelled"));
+        } else {
+            request.cancel();
+        }
+    }
+
+    private Response status() {
+        Response response = response(-1, "ok");
+        synchronized (queue) {
+            response.object.addProperty("queued", queue.size());
+        }
+        response.object.addProperty("running", executor.getRunningJobs().size());
+        JsonObject jobs = new JsonObject();
+        requests.values().forEach(request -> jobs.addProperty(String.valueOf(request.id),
+                (request.job == null ? "queued " : "running ") + request.description));
+        response.object.add("jobs", jobs);
+        return response;
+    }
+
+    /**
+     * Request of a client, queued until the executor starts its job.
+     */
+    private static class Request {
+
+        private final long id;
+        private final int priority;
+        private final JsonObject message;
+        private final Connection connection;
+        // read on arrival, thus a field of a wrong type is rejected before the request is queued
+        private final String description;
+        private volatile Job job;
+        private volatile boolean cancelled = false;
+
+        Request(long id, int priority, JsonObject message, Connection connection) {
+            this.id = id;
+            this.priority = priority;
+            this.message = message;
+            this.connection = connection;
+            this.description = getString(message, "command", "") + " " + getString(message, "netlist", "");
+        }
+
+        // a request cancelled while it is handed over stops its job as soon as the job is known
+        synchronized void start(Job job) {
+            this.job = job;
+            if (cancelled) job.cancel();
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (job != null) job.cancel();
+        }
+    }
+
+    private static class Response {
+        private final JsonObject object = new JsonObject();
+
+        Response put(String key, String value) {
+            object.addProperty(key, value);
+            return this;
+        }
+    }
+
+    /**
+     * Connection of a client. Responses of jobs are written by the threads of the executor, thus writes are
+     * synchronized. Responses to a closed connection are dropped, the jobs keep running.
+     */
+    private class Connection {
+
+        private final SocketChannel channel;
+        private final Writer writer;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        }
+
+        void serve() {
+            try (BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) handle(this, line);
+                }
+            } catch (IOException e) {
+                // client disconnected
+            }
+        }
+
+        synchronized void send(Response response) {
+            if (!channel.isOpen()) return;
+            try {
+                writer.write(gson.toJson(response.object) + "\n");
+                writer.flush();
+            } catch (IOException e) {
+                // client disconnected
+            }
+        }
+    }
+
+    /**
+     * Starts the daemon.
+     *
+     * @param args --port port or --socket path, optionally --threads number and --queue capacity
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 7070;
+        Path socket = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int capacity = 64;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--socket":
+                    socket = Path.of(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--queue":
+                    capacity = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.out.println("Usage: PlacementDaemon [--port port | --socket path] [--threads number]"
+                            + " [--queue capacity]");
+                    return;
+            }
+        }
+        PlacementDaemon daemon = new PlacementDaemon(threads, capacity);
+        if (socket != null) daemon.listen(socket);
+        else daemon.listen(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::shutdown));
+        daemon.serve();
+    }
+}
@@ -1,6 +1,7 @@
 package gui;
 
 import algorithm.AlgorithmExecutor;
+import algorithm.InitStrategy;
 
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -27,6 +28,8 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
     private static final int BUTTON_HEIGHT = 25;
     private static final int BUTTON_WIDTH = 135;
     private static final int TOOL_POS = 35;
+    private static final int DETAILED_PLACEMENT_PASSES = 30;
+    private static final int PAD_REFINEMENT_INTERVAL = 10;
     // Main-Frame
     JFrame frame;
 
@@ -36,7 +39,7 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
 
     // Algorithm selection
     JComboBox<String> algorithmSB = new JComboBox<>(new String[]{"ZFT", "VPR - bounding box", "VPR - net timing",
-            "VPR - path timing"});
+            "VPR - path timing", "ZFT - multilevel"});
     private int selectedAlgorithm;
 
     // Netlist selection
@@ -60,8 +63,14 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
     // verbose output
     JCheckBox verboseCB = new JCheckBox();
 
-    // random initialisation of ZFT
-    JCheckBox randomInitCB = new JCheckBox();
+    // detailed placement after ZFT
+    JCheckBox detailedCB = new JCheckBox();
+
+    // refinement of the io pads during ZFT
+    JCheckBox padRefinementCB = new JCheckBox();
+
+    // initial placement of ZFT
+    JComboBox<InitStrategy> initStrategySB = new JComboBox<>(InitStrategy.values());
 
     // Console-Output
     private final JTextArea output = new JTextArea();
@@ -121,11 +130,13 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
         generatePlaceB.addActionListener(e -> {
             hideStates();
             showPlacementLoading();
+            executor.setDetailedPlacementPasses(detailedCB.isSelected() ? DETAILED_PLACEMENT_PASSES : 0);
+            executor.setPadRefinementInterval(padRefinementCB.isSelected() ? PAD_REFINEMENT_INTERVAL : 0);
             switch (selectedAlgorithm) {
                 case 0 ->
                         executor.executeZFT(netlistFileMap.get(selectedNetlist),
-                                architectureFileMap.get(selectedArchitecture), iterations, areaSwapSize, randomInitCB.isSelected(),
-                                verboseCB.isSelected());
+                                architectureFileMap.get(selectedArchitecture), iterations, areaSwapSize,
+                                (InitStrategy) initStrategySB.getSelectedItem(), verboseCB.isSelected());
                 case 1 ->
                         executor.executeBoundingBox(netlistFileMap.get(selectedNetlist),
                                 architectureFileMap.get(selectedArchitecture));
@@ -135,6 +146,10 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
                 case 3 ->
                         executor.executePathTiming(netlistFileMap.get(selectedNetlist),
                                 architectureFileMap.get(selectedArchitecture));
+                case 4 ->
+                        executor.executeMultilevelZFT(netlistFileMap.get(selectedNetlist),
+                                architectureFileMap.get(selectedArchitecture), iterations, areaSwapSize,
+                                verboseCB.isSelected());
             }
         });
         space += SPACE_BUFFER;
@@ -144,9 +159,16 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
         generateRouteB.setBounds(TOOL_POS, space, BUTTON_WIDTH, BUTTON_HEIGHT);
         generateRouteB.addActionListener(e -> {
             hideStates();
-            showRouteLoading();
-            executor.executeVPRRouting(netlistFileMap.get(selectedNetlist),
-                    architectureFileMap.get(selectedArchitecture));
+            if (AlgorithmExecutor.isVPRAvailable()) {
+                showRouteLoading();
+                executor.executeVPRRouting(netlistFileMap.get(selectedNetlist),
+                        architectureFileMap.get(selectedArchitecture));
+            } else {
+                // the own router does no timing analysis, thus there is no net delay check
+                showRouteLoading(false);
+                executor.executeRouting(netlistFileMap.get(selectedNetlist),
+                        architectureFileMap.get(selectedArchitecture));
+            }
         });
         space += SPACE_BUFFER;
         toolP.add(generateRouteB);
@@ -195,10 +217,13 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
         space += SPACE_BUFFER;
         algorithmSB.addItemListener(e -> {
             selectedAlgorithm = algorithmSB.getSelectedIndex();
-            iterationsS.setEnabled(selectedAlgorithm == 0);
-            areaSwapSizeS.setEnabled(selectedAlgorithm == 0);
-            verboseCB.setEnabled(selectedAlgorithm == 0);
-            randomInitCB.setEnabled(selectedAlgorithm == 0);
+            boolean zft = selectedAlgorithm == 0 || selectedAlgorithm == 4;
+            iterationsS.setEnabled(zft);
+            areaSwapSizeS.setEnabled(zft);
+            verboseCB.setEnabled(zft);
+            detailedCB.setEnabled(zft);
+            padRefinementCB.setEnabled(zft);
+            initStrategySB.setEnabled(selectedAlgorithm == 0);
         });
         selectedAlgorithm = netListSB.getSelectedIndex();
         toolP.add(algorithmSB);
@@ -245,12 +270,31 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
         space += SPACE_BUFFER;
         toolP.add(verboseCB);
 
-        // check random initialisation
-        JLabel randomInitL = new JLabel("Random initialization: ");
-        randomInitL.setBounds(TOOL_POS, space, BUTTON_WIDTH, BUTTON_HEIGHT);
-        toolP.add(randomInitL);
-        randomInitCB.setBounds(TOOL_POS + 123, space, 20, BUTTON_HEIGHT);
-        toolP.add(randomInitCB);
+        // check detailed placement
+        JLabel detailedL = new JLabel("Detailed: ");
+        detailedL.setBounds(TOOL_POS, space, BUTTON_WIDTH, BUTTON_HEIGHT);
+        toolP.add(detailedL);
+        detailedCB.setBounds(TOOL_POS + 55, space, 20, BUTTON_HEIGHT);
+        space += SPACE_BUFFER;
+        toolP.add(detailedCB);
+
+        // check pad refinement
+        JLabel padRefinementL = new JLabel("Refine pads: ");
+        padRefinementL.setBounds(TOOL_POS, space, BUTTON_WIDTH, BUTTON_HEIGHT);
+        toolP.add(padRefinementL);
+        padRefinementCB.setBounds(TOOL_POS + 75, space, 20, BUTTON_HEIGHT);
+        space += SPACE_BUFFER;
+        toolP.add(padRefinementCB);
+
+        // initial placement select box
+        JLabel initStrategyL = new JLabel("Initialization");
+        initStrategyL.setBounds(TOOL_POS, space, BUTTON_WIDTH, BUTTON_HEIGHT);
+        space += 25;
+        toolP.add(initStrategyL);
+
+        initStrategySB.setBounds(TOOL_POS, space, BUTTON_WIDTH, BUTTON_HEIGHT);
+        initStrategySB.setSelectedItem(InitStrategy.GRID_BASED);
+        toolP.add(initStrategySB);
 
         frame.getContentPane().add(toolP);
     }
@@ -326,6 +370,9 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
             int dotIndex = fileEntry.getName().lastIndexOf('.');
             if (fileEntry.getName().substring(dotIndex + 1).equals("net")) {
                 netlistFileMap.put(fileEntry.getName().substring(0, dotIndex), fileEntry);
+            } else if (fileEntry.getName().substring(dotIndex + 1).equals("blif")) {
+                // blif files are packed before placement, the ending tells them apart from the net files
+                netlistFileMap.put(fileEntry.getName(), fileEntry);
             }
         }
         return netlistFileMap.keySet().stream().sorted().toArray(String[]::new);
@@ -366,11 +413,15 @@ public class ZFTGui implements BlockEvent, RouteEvent, PlacementEvent {
     }
 
     public void showRouteLoading() {
+        showRouteLoading(true);
+    }
+
+    public void showRouteLoading(boolean netDelayCheck) {
         placementConsistencyCheckP.setVisible(true);
-        netDelayValueCrossCheckP.setVisible(true);
+        netDelayValueCrossCheckP.setVisible(netDelayCheck);
         routingConsistencyCheckP.setVisible(true);
         showPanelLoading(placementConsistencyCheckP);
-        showPanelLoading(netDelayValueCrossCheckP);
+        if (netDelayCheck) showPanelLoading(netDelayValueCrossCheckP);
         showPanelLoading(routingConsistencyCheckP);
     }
 
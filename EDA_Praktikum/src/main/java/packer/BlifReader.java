@@ -0,0 +1,141 @@
+package packer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a flat blif netlist of luts and latches line by line. Only the connectivity is kept, the truth tables
+ * of the luts are skipped, thus the memory usage does not depend on the size of the file.
+ */
+class BlifReader {
+
+    private final int lutSize;
+
+    private long currentLine;
+
+    private int models;
+
+    /**
+     * @param lutSize number of lut inputs of the architecture
+     */
+    BlifReader(int lutSize) {
+        this.lutSize = lutSize;
+    }
+
+    /**
+     * Reads the blif file.
+     *
+     * @param file blif file
+     * @return netlist with packed latches
+     */
+    LogicNetlist read(File file) {
+        LogicNetlist netlist = new LogicNetlist(lutSize);
+        currentLine = 0;
+        models = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            List<String> tokens;
+            while ((tokens = readStatement(br)) != null) {
+                if (tokens.isEmpty()) continue;
+                if (tokens.get(0).equals(".end")) break;
+                readStatement(tokens, netlist);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read blif file " + file.getName(), e);
+        }
+        netlist.finish();
+        return netlist;
+    }
+
+    /**
+     * Reads the next statement, lines ending with a backslash are continued. Comments are removed.
+     *
+     * @return tokens of the statement, null at the end of the file
+     */
+    private List<String> readStatement(BufferedReader br) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        String line;
+        while ((line = br.readLine()) != null) {
+            currentLine++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            line = line.trim();
+            boolean continued = line.endsWith("\\");
+            if (continued) line = line.substring(0, line.length() - 1);
+            for (String token : line.split("\\s+")) {
+                if (!token.isEmpty()) tokens.add(token);
+            }
+            if (!continued) return tokens;
+        }
+        return tokens.isEmpty() ? null : tokens;
+    }
+
+    private void readStatement(List<String> tokens, LogicNetlist netlist) {
+        switch (tokens.get(0)) {
+            case ".model" -> {
+                if (++models > 1)
+                    throw new IllegalStateException("Hierarchical blif files are not supported. (line: " + currentLine + ")");
+            }
+            case ".inputs" -> {
+                for (String name : tokens.subList(1, tokens.size())) {
+                    netlist.addBlock(new LogicBlock(name, BlockType.INPAD, new int[]{netlist.getNet(name)}));
+                }
+            }
+            case ".outputs" -> {
+                for (String name : tokens.subList(1, tokens.size())) {
+                    netlist.addBlock(new LogicBlock("out:" + name, BlockType.OUTPAD, new int[]{netlist.getNet(name)}));
+                }
+            }
+            case ".names" -> readLut(tokens, netlist);
+            case ".latch" -> readLatch(tokens, netlist);
+            case ".subckt", ".gate", ".mlatch" ->
+                    throw new IllegalStateException("Unsupported blif statement '" + tokens.get(0) + "'. (line: " + currentLine + ")");
+            default -> {
+                // truth table rows and statements without influence on the connectivity
+            }
+        }
+    }
+
+    private void readLut(List<String> tokens, LogicNetlist netlist) {
+        int inputs = tokens.size() - 2;
+        if (inputs < 0)
+            throw new IllegalStateException("Lut without output. (line: " + currentLine + ")");
+        if (inputs > lutSize)
+            throw new IllegalStateException("Lut with " + inputs + " inputs, the architecture supports " + lutSize +
+                    ". (line: " + currentLine + ")");
+        int[] nets = openPins();
+        String output = tokens.get(tokens.size() - 1);
+        nets[0] = netlist.getNet(output);
+        for (int i = 0; i < inputs; i++) {
+            int net = netlist.getNet(tokens.get(i + 1));
+            for (int pin = 1; pin <= i; pin++) {
+                if (nets[pin] == net)
+                    throw new IllegalStateException("Lut '" + output + "' uses input '" + tokens.get(i + 1) + "' " +
+                            "twice. (line: " + currentLine + ")");
+            }
+            nets[i + 1] = net;
+        }
+        netlist.addBlock(new LogicBlock(output, BlockType.LUT, nets));
+    }
+
+    private void readLatch(List<String> tokens, LogicNetlist netlist) {
+        // .latch <input> <output> <type> <clock> <init value>
+        if (tokens.size() != 6)
+            throw new IllegalStateException(".latch does not have 5 parameters. (line: " + currentLine + ")");
+        int[] nets = openPins();
+        nets[0] = netlist.getNet(tokens.get(2));
+        nets[1] = netlist.getNet(tokens.get(1));
+        nets[lutSize + 1] = netlist.getNet(tokens.get(4));
+        netlist.addBlock(new LogicBlock(tokens.get(2), BlockType.LATCH, nets));
+    }
+
+    private int[] openPins() {
+        int[] nets = new int[lutSize + 2];
+        Arrays.fill(nets, LogicBlock.OPEN);
+        return nets;
+    }
+}
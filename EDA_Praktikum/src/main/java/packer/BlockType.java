@@ -0,0 +1,8 @@
+package packer;
+
+/**
+ * Types of the primitive blocks of a logic netlist.
+ */
+enum BlockType {
+    INPAD, OUTPAD, LUT, LATCH, LUT_AND_LATCH, EMPTY
+}
@@ -0,0 +1,341 @@
+package packer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Timing driven greedy clustering of t-vpack. Clusters are filled one after another, starting with the most
+ * critical unclustered block. The next block is the one with the highest attraction to the open cluster, that
+ * still satisfies the input and clock limits of the cluster. The attraction combines the criticality of the
+ * connections to the cluster and the number of nets shared with the cluster. The gains are updated
+ * incrementally, only blocks connected to the open cluster are looked at.
+ */
+class Clusterer {
+
+    private static final int NOT_VALID = -10000;
+    private static final int NO_CLUSTER = -1;
+    private static final int NEVER_CLUSTER = -2;
+
+    private final LogicNetlist netlist;
+    private final List<LogicBlock> blocks;
+    private final int lutSize;
+    private final int clusterSize;
+    private final int inputsPerCluster;
+    private final int clocksPerCluster;
+
+    private double alpha = 0.75;
+    private boolean allowUnrelatedClustering = true;
+
+    private int[] clusterOf;
+
+    // state of the open cluster
+    private int[] pinsOfNetInCluster;
+    private boolean[] netOutputInCluster;
+    private int[] markedNets;
+    private int markedNetCount;
+    private int[] markedBlocks;
+    private int markedBlockCount;
+    private int[] sharingGain;
+    private double[] lengthGain;
+    private double[] gain;
+    private int inputsUsed;
+    private int clocksUsed;
+
+    // nets, whose driver also uses the net as input
+    private boolean[] outputFeedsDriver;
+    // index of each input pin in the sinks of its net
+    private int[][] sinkIndex;
+    // unclustered blocks by number of external inputs, for unrelated clustering
+    private int[][] unclustered;
+    private int[] unclusteredCount;
+    private int[] unclusteredStart;
+
+    private TimingAnalysis timing;
+
+    /**
+     * @param netlist          netlist with packed latches
+     * @param clusterSize      luts per cluster
+     * @param inputsPerCluster input pins per cluster
+     * @param clocksPerCluster clock pins per cluster
+     */
+    Clusterer(LogicNetlist netlist, int clusterSize, int inputsPerCluster, int clocksPerCluster) {
+        this.netlist = netlist;
+        this.blocks = netlist.getBlocks();
+        this.lutSize = netlist.getLutSize();
+        this.clusterSize = clusterSize;
+        this.inputsPerCluster = inputsPerCluster;
+        this.clocksPerCluster = clocksPerCluster;
+    }
+
+    /**
+     * @param alpha trade-off between timing (1) and shared nets (0) in the attraction
+     */
+    void setAlpha(double alpha) {
+        this.alpha = alpha;
+    }
+
+    /**
+     * @param allowUnrelatedClustering fill clusters with unconnected blocks, if no connected block fits anymore
+     */
+    void setAllowUnrelatedClustering(boolean allowUnrelatedClustering) {
+        this.allowUnrelatedClustering = allowUnrelatedClustering;
+    }
+
+    /**
+     * Clusters all luts and latches.
+     *
+     * @param timing timing analysis of the unclustered netlist
+     * @return blocks of each cluster
+     */
+    List<int[]> cluster(TimingAnalysis timing) {
+        this.timing = timing;
+        init();
+
+        Integer[] seeds = IntStream.range(0, blocks.size())
+                .filter(b -> blocks.get(b).isClusterable())
+                .boxed()
+                .sorted(Comparator.comparingDouble(b -> -timing.getBlockCriticality(b)))
+                .toArray(Integer[]::new);
+
+        List<int[]> clusters = new ArrayList<>();
+        int[] members = new int[clusterSize];
+        int seedIndex = 0;
+        while (true) {
+            while (seedIndex < seeds.length && clusterOf[seeds[seedIndex]] != NO_CLUSTER) seedIndex++;
+            if (seedIndex == seeds.length) break;
+
+            int cluster = clusters.size();
+            int used = 0;
+            inputsUsed = 0;
+            clocksUsed = 0;
+            int next = seeds[seedIndex];
+            while (next != NO_CLUSTER) {
+                addToCluster(next, cluster);
+                members[used++] = next;
+                if (used == clusterSize) break;
+                next = getHighestGainBlock();
+                if (next == NO_CLUSTER && allowUnrelatedClustering) next = getFreeBlockWithMostExtInputs();
+            }
+            clusters.add(Arrays.copyOf(members, used));
+            resetCluster();
+        }
+        return clusters;
+    }
+
+    /**
+     * @return cluster of each block, negative for io pads
+     */
+    int[] getClusterOf() {
+        return clusterOf;
+    }
+
+    private void init() {
+        int n = blocks.size();
+        int nets = netlist.getNetCount();
+        clusterOf = new int[n];
+        sharingGain = new int[n];
+        lengthGain = new double[n];
+        gain = new double[n];
+        markedBlocks = new int[n];
+        markedBlockCount = 0;
+        Arrays.fill(sharingGain, NOT_VALID);
+        pinsOfNetInCluster = new int[nets];
+        netOutputInCluster = new boolean[nets];
+        markedNets = new int[nets];
+        markedNetCount = 0;
+
+        outputFeedsDriver = new boolean[nets];
+        sinkIndex = new int[n][];
+        for (int b = 0; b < n; b++) {
+            LogicBlock block = blocks.get(b);
+            clusterOf[b] = block.isClusterable() ? NO_CLUSTER : NEVER_CLUSTER;
+            sinkIndex[b] = new int[block.nets.length];
+        }
+        for (int net = 0; net < nets; net++) {
+            int[] sinks = netlist.getSinks(net);
+            for (int s = 0; s < sinks.length; s++) {
+                LogicBlock sink = blocks.get(sinks[s]);
+                if (sinks[s] == netlist.getDriver(net)) outputFeedsDriver[net] = true;
+                for (int pin = 0; pin < sink.nets.length; pin++) {
+                    if (sink.nets[pin] == net && (pin > 0 || sink.type == BlockType.OUTPAD)) sinkIndex[sinks[s]][pin] = s;
+                }
+            }
+        }
+
+        unclustered = new int[lutSize + 1][];
+        unclusteredCount = new int[lutSize + 1];
+        unclusteredStart = new int[lutSize + 1];
+        for (int b = 0; b < n; b++) {
+            if (blocks.get(b).isClusterable()) unclusteredCount[externalInputs(b)]++;
+        }
+        for (int i = 0; i <= lutSize; i++) {
+            unclustered[i] = new int[unclusteredCount[i]];
+            unclusteredCount[i] = 0;
+        }
+        for (int b = 0; b < n; b++) {
+            if (!blocks.get(b).isClusterable()) continue;
+            int ext = externalInputs(b);
+            unclustered[ext][unclusteredCount[ext]++] = b;
+        }
+    }
+
+    /**
+     * @return number of used lut inputs, that are not connected to the output of the block itself
+     */
+    private int externalInputs(int b) {
+        LogicBlock block = blocks.get(b);
+        int count = 0;
+        for (int pin = 1; pin <= lutSize; pin++) {
+            if (block.nets[pin] != LogicBlock.OPEN && block.nets[pin] != block.nets[0]) count++;
+        }
+        return count;
+    }
+
+    private void addToCluster(int b, int cluster) {
+        LogicBlock block = blocks.get(b);
+        clusterOf[b] = cluster;
+
+        // clocks are routed globally, packing blocks with the same clock together gains nothing
+        int out = block.nets[0];
+        markAndUpdateGain(out, !netlist.isClock(out), b, 0);
+        netOutputInCluster[out] = true;
+        if (pinsOfNetInCluster[out] > 1 && !netlist.isClock(out)) inputsUsed--;
+
+        for (int pin = 1; pin <= lutSize; pin++) {
+            int net = block.nets[pin];
+            if (net == LogicBlock.OPEN) continue;
+            markAndUpdateGain(net, true, b, pin);
+            // otherwise the net is driven inside the cluster or already an input of it
+            if (pinsOfNetInCluster[net] == 1) inputsUsed++;
+        }
+
+        int clock = block.nets[lutSize + 1];
+        if (clock != LogicBlock.OPEN) {
+            markAndUpdateGain(clock, false, b, lutSize + 1);
+            // lut outputs can not drive clocks inside the cluster
+            if (pinsOfNetInCluster[clock] == 1 || pinsOfNetInCluster[clock] == 2 && netOutputInCluster[clock])
+                clocksUsed++;
+        }
+
+        double netGain = (1 - alpha) / (lutSize + 1);
+        for (int i = 0; i < markedBlockCount; i++) {
+            int m = markedBlocks[i];
+            gain[m] = alpha * lengthGain[m] + netGain * sharingGain[m];
+        }
+    }
+
+    private void markAndUpdateGain(int net, boolean updateGain, int clusteredBlock, int pin) {
+        if (pinsOfNetInCluster[net] == 0) markedNets[markedNetCount++] = net;
+
+        if (updateGain) {
+            if (pinsOfNetInCluster[net] == 0) {
+                // the driver is listed as sink as well, if it uses its own output
+                if (!outputFeedsDriver[net]) shareNet(netlist.getDriver(net));
+                for (int sink : netlist.getSinks(net)) shareNet(sink);
+            }
+            if (!netlist.isClock(net)) updateLengthGain(net, clusteredBlock, pin);
+        }
+        pinsOfNetInCluster[net]++;
+    }
+
+    private void shareNet(int b) {
+        if (clusterOf[b] != NO_CLUSTER) return;
+        if (sharingGain[b] == NOT_VALID) {
+            markedBlocks[markedBlockCount++] = b;
+            sharingGain[b] = 1;
+        } else {
+            sharingGain[b]++;
+        }
+    }
+
+    /**
+     * The length gain of a block is the criticality of its most critical connection to the open cluster.
+     */
+    private void updateLengthGain(int net, int clusteredBlock, int pin) {
+        if (pin == 0) {
+            int[] sinks = netlist.getSinks(net);
+            for (int s = 0; s < sinks.length; s++) {
+                if (clusterOf[sinks[s]] == NO_CLUSTER)
+                    lengthGain[sinks[s]] = Math.max(lengthGain[sinks[s]], timing.getCriticality(net, s));
+            }
+        } else {
+            int driver = netlist.getDriver(net);
+            if (clusterOf[driver] == NO_CLUSTER) {
+                double criticality = timing.getCriticality(net, sinkIndex[clusteredBlock][pin]);
+                lengthGain[driver] = Math.max(lengthGain[driver], criticality);
+            }
+        }
+    }
+
+    private int getHighestGainBlock() {
+        double bestGain = NOT_VALID + 1;
+        int best = NO_CLUSTER;
+        for (int i = 0; i < markedBlockCount; i++) {
+            int b = markedBlocks[i];
+            if (clusterOf[b] == NO_CLUSTER && gain[b] > bestGain && inputsAndClocksFeasible(b)) {
+                bestGain = gain[b];
+                best = b;
+            }
+        }
+        return best;
+    }
+
+    private boolean inputsAndClocksFeasible(int b) {
+        LogicBlock block = blocks.get(b);
+        int inputsAvail = inputsPerCluster - inputsUsed;
+        int out = block.nets[0];
+        if (pinsOfNetInCluster[out] != 0 && !netlist.isClock(out)) inputsAvail++;
+        for (int pin = 1; pin <= lutSize; pin++) {
+            int net = block.nets[pin];
+            if (net != LogicBlock.OPEN && pinsOfNetInCluster[net] == 0 && net != out) inputsAvail--;
+        }
+        return inputsAvail >= 0 && clocksFeasible(b);
+    }
+
+    private boolean clocksFeasible(int b) {
+        int clocksAvail = clocksPerCluster - clocksUsed;
+        int clock = blocks.get(b).nets[lutSize + 1];
+        if (clock != LogicBlock.OPEN) {
+            if (pinsOfNetInCluster[clock] == 0 || pinsOfNetInCluster[clock] == 1 && netOutputInCluster[clock])
+                clocksAvail--;
+        }
+        return clocksAvail >= 0;
+    }
+
+    /**
+     * Finds the unclustered block with the most external inputs, that fits into the open cluster. The block has
+     * no connection to the cluster, otherwise it would have been found by its gain.
+     */
+    private int getFreeBlockWithMostExtInputs() {
+        for (int ext = Math.min(lutSize, inputsPerCluster - inputsUsed); ext >= 0; ext--) {
+            // clustered blocks at the front of the list are removed
+            while (unclusteredStart[ext] < unclusteredCount[ext]
+                    && clusterOf[unclustered[ext][unclusteredStart[ext]]] != NO_CLUSTER) {
+                unclusteredStart[ext]++;
+            }
+            for (int i = unclusteredStart[ext]; i < unclusteredCount[ext]; i++) {
+                int b = unclustered[ext][i];
+                if (clusterOf[b] == NO_CLUSTER && clocksFeasible(b)) return b;
+            }
+        }
+        return NO_CLUSTER;
+    }
+
+    private void resetCluster() {
+        for (int i = 0; i < markedNetCount; i++) {
+            pinsOfNetInCluster[markedNets[i]] = 0;
+            netOutputInCluster[markedNets[i]] = false;
+        }
+        markedNetCount = 0;
+        for (int i = 0; i < markedBlockCount; i++) {
+            int b = markedBlocks[i];
+            sharingGain[b] = NOT_VALID;
+            lengthGain[b] = 0;
+            gain[b] = 0;
+        }
+        markedBlockCount = 0;
+    }
+}
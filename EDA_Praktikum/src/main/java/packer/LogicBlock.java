@@ -0,0 +1,24 @@
+package packer;
+
+/**
+ * Primitive block of a logic netlist. Pin 0 is the output, pins 1 to lut size are the lut inputs and the last
+ * pin is the clock. Io pads have a single pin, the input of an output pad is pin 0 as well.
+ */
+class LogicBlock {
+
+    static final int OPEN = -1;
+
+    String name;
+    BlockType type;
+    final int[] nets;
+
+    LogicBlock(String name, BlockType type, int[] nets) {
+        this.name = name;
+        this.type = type;
+        this.nets = nets;
+    }
+
+    boolean isClusterable() {
+        return type == BlockType.LUT || type == BlockType.LATCH || type == BlockType.LUT_AND_LATCH;
+    }
+}
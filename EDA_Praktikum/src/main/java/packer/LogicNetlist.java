@@ -0,0 +1,212 @@
+package packer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flat netlist of luts, latches and io pads, as read from a blif file. After reading, latches are packed
+ * into the lut driving them and the netlist is compressed, like in t-vpack.
+ */
+class LogicNetlist {
+
+    private final int lutSize;
+    private List<LogicBlock> blocks = new ArrayList<>();
+    private List<String> netNames = new ArrayList<>();
+    private final Map<String, Integer> netIndex = new HashMap<>();
+
+    // connectivity, valid after finish()
+    private int[] driver;
+    private int[][] sinks;
+    private boolean[] clock;
+
+    LogicNetlist(int lutSize) {
+        this.lutSize = lutSize;
+    }
+
+    int getNet(String name) {
+        Integer index = netIndex.get(name);
+        if (index == null) {
+            index = netNames.size();
+            netNames.add(name);
+            netIndex.put(name, index);
+        }
+        return index;
+    }
+
+    void addBlock(LogicBlock block) {
+        blocks.add(block);
+    }
+
+    /**
+     * Checks the netlist, packs latches into luts and builds the connectivity.
+     */
+    void finish() {
+        buildConnectivity();
+        checkNets();
+        packLutsAndLatches();
+        compress();
+        buildConnectivity();
+        checkClocks();
+    }
+
+    private void buildConnectivity() {
+        int nets = netNames.size();
+        driver = new int[nets];
+        Arrays.fill(driver, LogicBlock.OPEN);
+        int[] sinkCount = new int[nets];
+        int[] driverCount = new int[nets];
+        for (LogicBlock block : blocks) {
+            for (int pin = 0; pin < block.nets.length; pin++) {
+                int net = block.nets[pin];
+                if (net == LogicBlock.OPEN) continue;
+                if (isDriverPin(block, pin)) {
+                    driverCount[net]++;
+                } else {
+                    sinkCount[net]++;
+                }
+            }
+        }
+        sinks = new int[nets][];
+        for (int net = 0; net < nets; net++) {
+            if (driverCount[net] > 1)
+                throw new IllegalStateException("Net '" + netNames.get(net) + "' has " + driverCount[net] + " drivers.");
+            sinks[net] = new int[sinkCount[net]];
+            sinkCount[net] = 0;
+        }
+        for (int b = 0; b < blocks.size(); b++) {
+            LogicBlock block = blocks.get(b);
+            for (int pin = 0; pin < block.nets.length; pin++) {
+                int net = block.nets[pin];
+                if (net == LogicBlock.OPEN) continue;
+                if (isDriverPin(block, pin)) {
+                    driver[net] = b;
+                } else {
+                    sinks[net][sinkCount[net]++] = b;
+                }
+            }
+        }
+    }
+
+    private static boolean isDriverPin(LogicBlock block, int pin) {
+        return pin == 0 && block.type != BlockType.OUTPAD;
+    }
+
+    private void checkNets() {
+        for (int net = 0; net < netNames.size(); net++) {
+            if (driver[net] == LogicBlock.OPEN)
+                throw new IllegalStateException("Net '" + netNames.get(net) + "' has no driver.");
+            if (sinks[net].length == 0) {
+                LogicBlock block = blocks.get(driver[net]);
+                // lots of the mcnc circuits have unused inputs
+                if (block.type != BlockType.INPAD)
+                    throw new IllegalStateException("Net '" + netNames.get(net) + "' has no fanout.");
+                System.out.println("Input " + block.name + " is unused; removing it.");
+                block.type = BlockType.EMPTY;
+            }
+        }
+    }
+
+    /**
+     * Packs every latch into the lut driving it, if the lut drives nothing else. The packed block takes the
+     * name and the output of the latch.
+     */
+    private void packLutsAndLatches() {
+        for (LogicBlock latch : blocks) {
+            if (latch.type != BlockType.LATCH) continue;
+            int in = latch.nets[1];
+            if (sinks[in].length != 1) continue;
+            LogicBlock lut = blocks.get(driver[in]);
+            if (lut.type != BlockType.LUT) continue;
+            lut.nets[0] = latch.nets[0];
+            lut.nets[lutSize + 1] = latch.nets[lutSize + 1];
+            lut.name = latch.name;
+            lut.type = BlockType.LUT_AND_LATCH;
+            latch.type = BlockType.EMPTY;
+        }
+    }
+
+    /**
+     * Removes empty blocks and the nets, that are not connected anymore.
+     */
+    private void compress() {
+        List<LogicBlock> used = new ArrayList<>();
+        int[] remap = new int[netNames.size()];
+        Arrays.fill(remap, LogicBlock.OPEN);
+        List<String> names = new ArrayList<>();
+        netIndex.clear();
+        for (LogicBlock block : blocks) {
+            if (block.type == BlockType.EMPTY) continue;
+            used.add(block);
+            for (int pin = 0; pin < block.nets.length; pin++) {
+                int net = block.nets[pin];
+                if (net == LogicBlock.OPEN) continue;
+                if (remap[net] == LogicBlock.OPEN) {
+                    remap[net] = names.size();
+                    netIndex.put(netNames.get(net), names.size());
+                    names.add(netNames.get(net));
+                }
+                block.nets[pin] = remap[net];
+            }
+        }
+        blocks = used;
+        netNames = names;
+    }
+
+    /**
+     * Marks all nets driving a latch clock. Clocks must not drive lut inputs, as they are routed globally.
+     */
+    private void checkClocks() {
+        clock = new boolean[netNames.size()];
+        for (LogicBlock block : blocks) {
+            if (block.isClusterable() && block.nets[lutSize + 1] != LogicBlock.OPEN)
+                clock[block.nets[lutSize + 1]] = true;
+        }
+        for (LogicBlock block : blocks) {
+            if (!block.isClusterable()) continue;
+            for (int pin = 1; pin <= lutSize; pin++) {
+                if (block.nets[pin] != LogicBlock.OPEN && clock[block.nets[pin]])
+                    throw new IllegalStateException("Clock net '" + netNames.get(block.nets[pin]) + "' drives an " +
+                            "input of block '" + block.name + "'.");
+            }
+        }
+    }
+
+    List<LogicBlock> getBlocks() {
+        return blocks;
+    }
+
+    String getNetName(int net) {
+        return netNames.get(net);
+    }
+
+    int getNetCount() {
+        return netNames.size();
+    }
+
+    int getDriver(int net) {
+        return driver[net];
+    }
+
+    int[] getSinks(int net) {
+        return sinks[net];
+    }
+
+    boolean isClock(int net) {
+        return clock[net];
+    }
+
+    int getLutSize() {
+        return lutSize;
+    }
+
+    int count(BlockType type) {
+        int count = 0;
+        for (LogicBlock block : blocks) {
+            if (block.type == type) count++;
+        }
+        return count;
+    }
+}
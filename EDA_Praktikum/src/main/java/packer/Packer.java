@@ -0,0 +1,233 @@
+package packer;
+
+import profiling.ParseEvent;
+import types.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Packs a blif netlist of luts and latches into the clbs of an architecture, like t-vpack. The result is the
+ * same netlist, that the NetlistParser would read from the .net file written by t-vpack, thus blif files can be
+ * placed without running t-vpack first.
+ */
+public class Packer {
+
+    private final Architecture arch;
+
+    private double alpha = 0.75;
+
+    private boolean allowUnrelatedClustering = true;
+
+    private Map<Integer, Net> knownNets = new LinkedHashMap<>();
+
+    public Packer(Architecture arch) {
+        this.arch = arch;
+    }
+
+    public void setAlpha(double alpha) {
+        this.alpha = alpha;
+    }
+
+    public void setAllowUnrelatedClustering(boolean allowUnrelatedClustering) {
+        this.allowUnrelatedClustering = allowUnrelatedClustering;
+    }
+
+    /**
+     * Reads and clusters the blif file.
+     *
+     * @param file blif file
+     * @return io pads and clbs, in the order t-vpack writes them
+     */
+    public List<CircuitElement> pack(File file) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        knownNets = new LinkedHashMap<>();
+
+        int lutSize = arch.getSubblockLutSize();
+        int clusterSize = arch.getSubblocksPerClb();
+        int inputs = countPins(ClassType.INPUT);
+        int outputs = countPins(ClassType.OUTPUT);
+        int clocks = countPins(ClassType.GLOBAL);
+        if (inputs < lutSize)
+            throw new IllegalStateException("A clb has " + inputs + " inputs, a lut needs " + lutSize + ".");
+        if (outputs < clusterSize)
+            throw new IllegalStateException("A clb has " + outputs + " outputs for " + clusterSize + " subblocks.");
+
+        LogicNetlist netlist = new BlifReader(lutSize).read(file);
+        int latches = netlist.count(BlockType.LATCH) + netlist.count(BlockType.LUT_AND_LATCH);
+        if (latches > 0 && clocks == 0)
+            throw new IllegalStateException("The netlist contains latches, but a clb has no clock input.");
+
+        int[] unclustered = new int[netlist.getBlocks().size()];
+        Arrays.fill(unclustered, -1);
+        TimingAnalysis timing = new TimingAnalysis(netlist, unclustered);
+        timing.analyse();
+        double unclusteredDelay = timing.getCriticalPath();
+
+        Clusterer clusterer = new Clusterer(netlist, clusterSize, inputs, clocks);
+        clusterer.setAlpha(alpha);
+        clusterer.setAllowUnrelatedClustering(allowUnrelatedClustering);
+        List<int[]> clusters = clusterer.cluster(timing);
+        int[] clusterOf = clusterer.getClusterOf();
+        TimingAnalysis clusteredTiming = new TimingAnalysis(netlist, clusterOf);
+        clusteredTiming.analyse();
+
+        List<CircuitElement> elements = new ArrayList<>();
+        long iCount = 0;
+        long oCount = 0;
+        for (LogicBlock block : netlist.getBlocks()) {
+            if (block.type != BlockType.INPAD && block.type != BlockType.OUTPAD) continue;
+            NetClass pinList = new NetClass();
+            pinList.add(getNet(netlist, block.nets[0]), arch.getIoClasses().get(0));
+            ElementType type = block.type == BlockType.INPAD ? ElementType.INPUT : ElementType.OUTPUT;
+            elements.add(new CircuitElement(type, block.name, elements.size(), pinList));
+            if (type == ElementType.INPUT) iCount++;
+            else oCount++;
+        }
+        for (int c = 0; c < clusters.size(); c++) {
+            elements.add(buildClb(netlist, clusters.get(c), c, clusterOf, elements.size()));
+        }
+
+        System.out.println("Successfully packed blif file " + file.getName());
+        System.out.println(netlist.count(BlockType.LUT) + netlist.count(BlockType.LUT_AND_LATCH) + " luts, "
+                + latches + " latches, " + netlist.count(BlockType.LUT_AND_LATCH) + " packed into a lut");
+        System.out.println(elements.size() + " blocks, " + knownNets.size() + " nets");
+        System.out.println(clusters.size() + " clbs, " + iCount + " inputs, " + oCount + " outputs");
+        System.out.println(String.format(Locale.US, "Critical path: %.2f before clustering, %.2f after clustering",
+                unclusteredDelay, clusteredTiming.getCriticalPath()));
+        if (event.shouldCommit()) {
+            event.circuit = file.getName();
+            event.kind = "blif";
+            event.blocks = elements.size();
+            event.nets = knownNets.size();
+            event.globalNets = (int) knownNets.keySet().stream().filter(netlist::isClock).count();
+            event.clbs = clusters.size();
+            event.inputs = iCount;
+            event.outputs = oCount;
+            event.commit();
+        }
+        return elements;
+    }
+
+    public List<Net> getNets() {
+        return new ArrayList<>(knownNets.values());
+    }
+
+    /**
+     * Builds a clb with the clb pins in the order of the architecture: the i-th input class pin gets the i-th
+     * input of the cluster, the k-th output class pin the output of the k-th lut, the clock class pins the clocks.
+     * Outputs only used inside the cluster stay unconnected.
+     */
+    private CircuitElement buildClb(LogicNetlist netlist, int[] members, int cluster, int[] clusterOf,
+                                    int blockNumber) {
+        List<LogicBlock> blocks = netlist.getBlocks();
+        int lutSize = netlist.getLutSize();
+        List<Integer> inputs = new ArrayList<>();
+        List<Integer> clocks = new ArrayList<>();
+        int[] outputs = new int[members.length];
+        for (int m = 0; m < members.length; m++) {
+            LogicBlock block = blocks.get(members[m]);
+            for (int pin = 1; pin <= lutSize; pin++) {
+                int net = block.nets[pin];
+                if (net != LogicBlock.OPEN && clusterOf[netlist.getDriver(net)] != cluster && !inputs.contains(net))
+                    inputs.add(net);
+            }
+            int clock = block.nets[lutSize + 1];
+            if (clock != LogicBlock.OPEN && !clocks.contains(clock)) clocks.add(clock);
+
+            int out = block.nets[0];
+            outputs[m] = LogicBlock.OPEN;
+            for (int sink : netlist.getSinks(out)) {
+                if (clusterOf[sink] != cluster) outputs[m] = out;
+            }
+        }
+
+        // clb pin number of each input, output and clock
+        List<ClassType> classes = arch.getIoClasses();
+        int[] inputPins = new int[inputs.size()];
+        int[] outputPins = new int[members.length];
+        int[] clockPins = new int[clocks.size()];
+        int in = 0, out = 0, clk = 0;
+        NetClass pinList = new NetClass();
+        for (int pin = 0; pin < classes.size(); pin++) {
+            switch (classes.get(pin)) {
+                case INPUT -> {
+                    if (in < inputs.size()) {
+                        pinList.add(getNet(netlist, inputs.get(in)), ClassType.INPUT);
+                        inputPins[in] = pin;
+                    }
+                    in++;
+                }
+                case OUTPUT -> {
+                    if (out < members.length) {
+                        if (outputs[out] != LogicBlock.OPEN)
+                            pinList.add(getNet(netlist, outputs[out]), ClassType.OUTPUT);
+                        outputPins[out] = pin;
+                    }
+                    out++;
+                }
+                case GLOBAL -> {
+                    if (clk < clocks.size()) {
+                        pinList.add(getNet(netlist, clocks.get(clk)), ClassType.GLOBAL);
+                        clockPins[clk] = pin;
+                    }
+                    clk++;
+                }
+            }
+        }
+        if (clk < clocks.size())
+            throw new IllegalStateException("Cluster of block '" + blocks.get(members[0]).name + "' uses " +
+                    clocks.size() + " clocks, a clb has " + clk + ".");
+
+        // one subblock per lut: lut inputs, output and clock
+        List<String> subBlockNames = new ArrayList<>();
+        List<List<String>> subblocks = new ArrayList<>();
+        for (int m = 0; m < members.length; m++) {
+            LogicBlock block = blocks.get(members[m]);
+            List<String> subblock = new ArrayList<>();
+            for (int pin = 1; pin <= lutSize; pin++) {
+                int net = block.nets[pin];
+                if (net == LogicBlock.OPEN) {
+                    subblock.add("open");
+                } else if (clusterOf[netlist.getDriver(net)] == cluster) {
+                    subblock.add("ble_" + indexOf(members, netlist.getDriver(net)));
+                } else {
+                    subblock.add(String.valueOf(inputPins[inputs.indexOf(net)]));
+                }
+            }
+            subblock.add(String.valueOf(outputPins[m]));
+            int clock = block.nets[lutSize + 1];
+            subblock.add(clock == LogicBlock.OPEN ? "open" : String.valueOf(clockPins[clocks.indexOf(clock)]));
+            subBlockNames.add(block.name);
+            subblocks.add(subblock);
+        }
+
+        String name = blocks.get(members[0]).name;
+        return new CircuitElement(ElementType.CLB, name, blockNumber, pinList, subBlockNames, subblocks);
+    }
+
+    private Net getNet(LogicNetlist netlist, int net) {
+        return knownNets.computeIfAbsent(net, n -> new Net(netlist.getNetName(n)));
+    }
+
+    private int countPins(ClassType type) {
+        int count = 0;
+        for (ClassType classType : arch.getIoClasses()) {
+            if (classType == type) count++;
+        }
+        return count;
+    }
+
+    private static int indexOf(int[] array, int value) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == value) return i;
+        }
+        return -1;
+    }
+}
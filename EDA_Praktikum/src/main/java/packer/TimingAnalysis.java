@@ -0,0 +1,181 @@
+package packer;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Static timing analysis of a logic netlist with the unit delay model of t-vpack. Every lut adds the block delay,
+ * connections inside a cluster are much faster than connections between clusters. Io pads and latch outputs
+ * start the paths, output pads and latch inputs end them.
+ */
+class TimingAnalysis {
+
+    static final double BLOCK_DELAY = 0.1;
+    static final double INTRA_CLUSTER_NET_DELAY = 0.1;
+    static final double INTER_CLUSTER_NET_DELAY = 1.0;
+
+    private final LogicNetlist netlist;
+    private final int[] clusterOf;
+
+    private double[] arrival;
+    private double[] required;
+    // [net][sink] criticality of each connection
+    private double[][] criticality;
+    private double[] blockCriticality;
+    private double criticalPath;
+
+    /**
+     * @param netlist   netlist
+     * @param clusterOf cluster of each block, negative if the block is not clustered
+     */
+    TimingAnalysis(LogicNetlist netlist, int[] clusterOf) {
+        this.netlist = netlist;
+        this.clusterOf = clusterOf;
+    }
+
+    /**
+     * Calculates arrival and required times and the criticality of all connections and blocks.
+     */
+    void analyse() {
+        List<LogicBlock> blocks = netlist.getBlocks();
+        int n = blocks.size();
+        int[] order = topologicalOrder();
+
+        // arrival time at the output of each block
+        arrival = new double[n];
+        criticalPath = 0;
+        for (int b : order) {
+            LogicBlock block = blocks.get(b);
+            if (block.type == BlockType.LUT) arrival[b] = inputArrival(b) + BLOCK_DELAY;
+        }
+        for (int b = 0; b < n; b++) {
+            LogicBlock block = blocks.get(b);
+            if (block.type == BlockType.LUT_AND_LATCH) {
+                criticalPath = Math.max(criticalPath, inputArrival(b) + BLOCK_DELAY);
+            } else if (block.type == BlockType.LATCH || block.type == BlockType.OUTPAD) {
+                criticalPath = Math.max(criticalPath, inputArrival(b));
+            } else if (block.type == BlockType.LUT) {
+                criticalPath = Math.max(criticalPath, arrival[b]);
+            }
+        }
+
+        // required time at the output of each block
+        required = new double[n];
+        Arrays.fill(required, criticalPath);
+        for (int i = order.length - 1; i >= 0; i--) {
+            int b = order[i];
+            required[b] = outputRequired(b);
+        }
+        for (int b = 0; b < n; b++) {
+            if (blocks.get(b).type != BlockType.LUT) required[b] = outputRequired(b);
+        }
+
+        criticality = new double[netlist.getNetCount()][];
+        blockCriticality = new double[n];
+        for (int net = 0; net < netlist.getNetCount(); net++) {
+            int driver = netlist.getDriver(net);
+            int[] sinks = netlist.getSinks(net);
+            criticality[net] = new double[sinks.length];
+            if (netlist.isClock(net)) continue;
+            for (int s = 0; s < sinks.length; s++) {
+                double slack = inputRequired(sinks[s]) - arrival[driver] - delay(driver, sinks[s]);
+                double crit = criticalPath > 0 ? 1 - slack / criticalPath : 0;
+                criticality[net][s] = crit;
+                blockCriticality[driver] = Math.max(blockCriticality[driver], crit);
+                blockCriticality[sinks[s]] = Math.max(blockCriticality[sinks[s]], crit);
+            }
+        }
+    }
+
+    /**
+     * Orders the combinational luts, so that each lut follows all luts driving it.
+     */
+    private int[] topologicalOrder() {
+        List<LogicBlock> blocks = netlist.getBlocks();
+        int lutSize = netlist.getLutSize();
+        int[] pending = new int[blocks.size()];
+        Deque<Integer> ready = new ArrayDeque<>();
+        int luts = 0;
+        for (int b = 0; b < blocks.size(); b++) {
+            LogicBlock block = blocks.get(b);
+            if (block.type != BlockType.LUT) continue;
+            luts++;
+            for (int pin = 1; pin <= lutSize; pin++) {
+                int net = block.nets[pin];
+                if (net != LogicBlock.OPEN && blocks.get(netlist.getDriver(net)).type == BlockType.LUT) pending[b]++;
+            }
+            if (pending[b] == 0) ready.add(b);
+        }
+        int[] order = new int[luts];
+        int count = 0;
+        while (!ready.isEmpty()) {
+            int b = ready.poll();
+            order[count++] = b;
+            for (int sink : netlist.getSinks(blocks.get(b).nets[0])) {
+                if (blocks.get(sink).type == BlockType.LUT && --pending[sink] == 0) ready.add(sink);
+            }
+        }
+        if (count != luts) throw new IllegalStateException("The netlist contains a combinational loop.");
+        return order;
+    }
+
+    private double inputArrival(int b) {
+        LogicBlock block = netlist.getBlocks().get(b);
+        int pins = block.type == BlockType.OUTPAD ? 1 : netlist.getLutSize() + 1;
+        int first = block.type == BlockType.OUTPAD ? 0 : 1;
+        double max = 0;
+        for (int pin = first; pin < pins; pin++) {
+            int net = block.nets[pin];
+            if (net == LogicBlock.OPEN) continue;
+            int driver = netlist.getDriver(net);
+            max = Math.max(max, arrival[driver] + delay(driver, b));
+        }
+        return max;
+    }
+
+    private double outputRequired(int b) {
+        LogicBlock block = netlist.getBlocks().get(b);
+        if (block.type == BlockType.OUTPAD) return criticalPath;
+        double min = criticalPath;
+        for (int sink : netlist.getSinks(block.nets[0])) {
+            min = Math.min(min, inputRequired(sink) - delay(b, sink));
+        }
+        return min;
+    }
+
+    /**
+     * Required time at the inputs of a block.
+     */
+    private double inputRequired(int b) {
+        return switch (netlist.getBlocks().get(b).type) {
+            case LUT -> required[b] - BLOCK_DELAY;
+            case LUT_AND_LATCH -> criticalPath - BLOCK_DELAY;
+            default -> criticalPath;
+        };
+    }
+
+    private double delay(int driver, int sink) {
+        boolean sameCluster = clusterOf[driver] >= 0 && clusterOf[driver] == clusterOf[sink];
+        return sameCluster ? INTRA_CLUSTER_NET_DELAY : INTER_CLUSTER_NET_DELAY;
+    }
+
+    /**
+     * @return criticality of the connection to the s-th sink of the net
+     */
+    double getCriticality(int net, int s) {
+        return criticality[net][s];
+    }
+
+    double getBlockCriticality(int b) {
+        return blockCriticality[b];
+    }
+
+    /**
+     * @return delay of the longest path in units of the inter cluster net delay
+     */
+    double getCriticalPath() {
+        return criticalPath;
+    }
+}
@@ -1,5 +1,6 @@
 package parser;
 
+import profiling.ParseEvent;
 import types.Architecture;
 import types.ClassType;
 
@@ -17,14 +18,19 @@ public class ArchitectureParser {
 
     private List<ClassType> ioClasses;
 
+    private List<List<String>> pinSides;
+
     public Architecture parse(String fileName) {
         return parse(new File(fileName));
     }
 
     public Architecture parse(File file) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
         currentLine = 1;
         arch = new Architecture();
         ioClasses = new ArrayList<>();
+        pinSides = new ArrayList<>();
         try (BufferedReader br = new BufferedReader(new FileReader(file))) {
             String line = "";
             while ((line = br.readLine()) != null) {
@@ -32,6 +38,10 @@ public class ArchitectureParser {
                 currentLine++;
             }
             arch.setIoClasses(ioClasses);
+            arch.setPinSides(pinSides);
+            event.circuit = file.getName();
+            event.kind = "architecture";
+            event.commit();
             return arch;
         } catch (IOException e) {
             e.printStackTrace();
@@ -44,9 +54,18 @@ public class ArchitectureParser {
         switch (parts[0]) {
             case "subblocks_per_clb" -> arch.setSubblocksPerClb(readNumber(parts[1]));
             case "subblock_lut_size" -> arch.setSubblockLutSize(readNumber(parts[1]));
-            case "inpin" -> readPinClass(ClassType.INPUT, parts[3]);
-            case "outpin" -> readPinClass(ClassType.OUTPUT, parts[3]);
+            case "inpin" -> {
+                readPinClass(ClassType.INPUT, parts[3]);
+                readPinSides(parts);
+            }
+            case "outpin" -> {
+                readPinClass(ClassType.OUTPUT, parts[3]);
+                readPinSides(parts);
+            }
             case "io_rat" -> arch.setIoRate(readNumber(parts[1]));
+            case "Fc_input" -> arch.setFcInput(readFraction(parts[1]));
+            case "Fc_output" -> arch.setFcOutput(readFraction(parts[1]));
+            case "Fc_pad" -> arch.setFcPad(readFraction(parts[1]));
             default -> {
                 // do nothing, read comment or unimportant config
             }
@@ -61,6 +80,27 @@ public class ArchitectureParser {
         }
     }
 
+    private void readPinSides(String[] parts) {
+        List<String> sides = new ArrayList<>();
+        for (int i = 3; i < parts.length && !parts[i].startsWith("#"); i++) {
+            switch (parts[i]) {
+                case "bottom", "top", "left", "right" -> sides.add(parts[i]);
+                default -> {
+                    // global option
+                }
+            }
+        }
+        pinSides.add(sides);
+    }
+
+    private Double readFraction(String part) {
+        try {
+            return Double.parseDouble(part);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Unable to parse architecture definition in line " + currentLine + ". " + "Expected a fraction but received '" + part + "'.", e);
+        }
+    }
+
     private Integer readNumber(String part) {
         try {
             return Integer.parseInt(part);
@@ -1,27 +1,32 @@
 package parser;
 
+import profiling.ParseEvent;
 import types.*;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.sql.Array;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class NetlistParser {
 
     private List<CircuitElement> netlist = new ArrayList<>();
 
-    private List<String> knownBlockNames = new ArrayList<>();
+    private Set<String> knownBlockNames = new HashSet<>();
 
     private List<String> globalNet = new ArrayList<>();
 
     private Map<String, Net> knownNets = new HashMap<>();
 
+    // names of blocks, subblocks and nets share one string per name
+    private StringPool names = new StringPool();
+
     private Architecture arch;
 
     private long currentLine = 1;
@@ -33,10 +38,13 @@ public class NetlistParser {
     private long clbCount;
 
     public List<CircuitElement> parse(File file, Architecture arch) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
         netlist = new ArrayList<>();
-        knownBlockNames = new ArrayList<>();
+        knownBlockNames = new HashSet<>();
         knownNets = new HashMap<>();
         globalNet = new ArrayList<>();
+        names = new StringPool();
         this.arch = arch;
         currentLine = 1;
         iCount = 0;
@@ -47,7 +55,7 @@ public class NetlistParser {
             while (line != null) {
                 List<String> block = new ArrayList<>();
                 while ((line = br.readLine()) != null && !line.isEmpty()) {
-                    block.add(line);
+                    block.add(readContinuation(line, br));
                     currentLine++;
                 }
                 readBlock(block);
@@ -58,6 +66,17 @@ public class NetlistParser {
             System.out.println(netlist.size() + " blocks, " + knownNets.size() + " nets, " + globalNet.size() + " " +
                     "global nets");
             System.out.println(clbCount + " clbs, " + iCount + " inputs, " + oCount + " outputs");
+            if (event.shouldCommit()) {
+                event.circuit = file.getName();
+                event.kind = "netlist";
+                event.blocks = netlist.size();
+                event.nets = knownNets.size();
+                event.globalNets = globalNet.size();
+                event.clbs = clbCount;
+                event.inputs = iCount;
+                event.outputs = oCount;
+                event.commit();
+            }
             return netlist;
         } catch (IOException e) {
             e.printStackTrace();
@@ -65,6 +84,23 @@ public class NetlistParser {
         return null;
     }
 
+    /**
+     * Joins a line ending with a backslash with the following lines, like t-vpack writes long pin lists.
+     */
+    private String readContinuation(String line, BufferedReader br) throws IOException {
+        StringBuilder joined = new StringBuilder(line);
+        String next = line;
+        while (next != null && next.stripTrailing().endsWith("\\")) {
+            joined.setLength(joined.lastIndexOf("\\"));
+            next = br.readLine();
+            if (next != null) {
+                joined.append(' ').append(next);
+                currentLine++;
+            }
+        }
+        return joined.toString();
+    }
+
     public List<Net> getNets() {
         return new ArrayList<>(knownNets.values());
     }
@@ -109,12 +145,20 @@ public class NetlistParser {
     }
 
     private void readCLB(List<String[]> blockParts) {
-        if (blockParts.size() != 3)
+        Integer subblocksPerClb = arch.getSubblocksPerClb();
+        if (blockParts.size() < 3 || subblocksPerClb != null && blockParts.size() > 2 + subblocksPerClb)
             throw new IllegalStateException("Unexpected number of lines for cbl block. (line: " + currentLine + ")");
 
-        CircuitElement elem = new CircuitElement(ElementType.CLB, readTypeName(blockParts.get(0)), netlist.size(),
-                readPinList(blockParts.get(1)), readSubBlockName(blockParts.get(2)),
-                readSubBlockList(blockParts.get(2)));
+        String name = readTypeName(blockParts.get(0));
+        NetClass pinList = readPinList(blockParts.get(1));
+        List<String> subBlockNames = new ArrayList<>();
+        List<List<String>> subblocks = new ArrayList<>();
+        for (int i = 2; i < blockParts.size(); i++) {
+            subBlockNames.add(readSubBlockName(blockParts.get(i)));
+            subblocks.add(readSubBlockList(blockParts.get(i)));
+        }
+        CircuitElement elem = new CircuitElement(ElementType.CLB, name, netlist.size(), pinList, subBlockNames,
+                subblocks);
         clbCount++;
         netlist.add(elem);
     }
@@ -122,19 +166,18 @@ public class NetlistParser {
     private String readTypeName(String[] line) {
         if (line.length < 2) throw new IllegalStateException("No blockname specified! (line: " + currentLine + ")");
 
-        return line[1];
+        return names.intern(line[1]);
     }
 
     private String readSubBlockName(String[] line) {
         if (line.length < 3)
             throw new IllegalStateException("Missing blockname or at least one pin! (line: " + (currentLine + 2) + ")");
 
-        String blockName = line[1];
+        String blockName = names.intern(line[1]);
 
-        if (knownBlockNames.contains(blockName))
+        if (!knownBlockNames.add(blockName))
             throw new IllegalStateException("Blockname '" + blockName + "' already given! (line: " + (currentLine + 2) + ")");
 
-        knownBlockNames.add(blockName);
         return blockName;
     }
 
@@ -153,7 +196,7 @@ public class NetlistParser {
                 if (knownNets.containsKey(line[i])) {
                     netClass.add(knownNets.get(line[i]), arch.getIoClasses().get(i - 1));
                 } else {
-                    Net net = new Net(line[i]);
+                    Net net = new Net(names.intern(line[i]));
                     netClass.add(net, arch.getIoClasses().get(i - 1));
                     knownNets.put(line[i], net);
                 }
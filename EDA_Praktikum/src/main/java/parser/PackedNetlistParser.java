@@ -0,0 +1,273 @@
+package parser;
+
+import profiling.ParseEvent;
+import types.Architecture;
+import types.ClassType;
+import types.DirectMemory;
+import types.ElementType;
+import types.PackedNetlist;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a net file into a {@link PackedNetlist}, without creating objects per block or net. The file is read
+ * twice: the first pass counts blocks, pins and names, the second one fills the direct buffers. Nets are
+ * numbered by their first appearance, their names are resolved by an off-heap hash table, that is only kept
+ * while parsing.
+ */
+public class PackedNetlistParser {
+
+    private Architecture arch;
+    private long currentLine;
+
+    // sizes of the first pass
+    private int blockCount;
+    private long pinCount;
+    private long blockNameBytes;
+    private long pinNameBytes;
+    private int globalCount;
+    private long iCount;
+    private long oCount;
+    private long clbCount;
+
+    // buffers of the second pass
+    private int block;
+    private int pin;
+    private ByteBuffer types;
+    private IntBuffer nameStart;
+    private ByteBuffer names;
+    private IntBuffer blockPinStart;
+    private IntBuffer blockIoEnd;
+    private IntBuffer blockPins;
+
+    // hash table of the net names: net index + 1 of each slot, 0 if the slot is free
+    private IntBuffer table;
+    private IntBuffer netNameStart;
+    private ByteBuffer netNames;
+    private int netCount;
+
+    public PackedNetlist parse(File file, Architecture arch) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        this.arch = arch;
+        blockCount = 0;
+        pinCount = 0;
+        blockNameBytes = 0;
+        pinNameBytes = 0;
+        globalCount = 0;
+        iCount = 0;
+        oCount = 0;
+        clbCount = 0;
+        read(file, true);
+        if (pinCount > Integer.MAX_VALUE / 8 || blockNameBytes > Integer.MAX_VALUE
+                || pinNameBytes > Integer.MAX_VALUE)
+            throw new IllegalStateException("The net file " + file.getName() + " is too large for an off-heap netlist.");
+
+        int tableSize = Integer.highestOneBit((int) Math.max(pinCount, 1)) * 4;
+        DirectMemory.require(blockCount + 4L * (3L * blockCount + 4 * pinCount + 4) + blockNameBytes
+                + pinNameBytes + 4L * tableSize, "parsing " + file.getName());
+        block = 0;
+        pin = 0;
+        types = DirectMemory.bytes(blockCount);
+        nameStart = DirectMemory.ints(blockCount + 1);
+        names = DirectMemory.bytes((int) blockNameBytes);
+        blockPinStart = DirectMemory.ints(blockCount + 1);
+        blockIoEnd = DirectMemory.ints(blockCount);
+        blockPins = DirectMemory.ints((int) pinCount);
+        table = DirectMemory.ints(tableSize);
+        netNameStart = DirectMemory.ints((int) pinCount + 1);
+        netNames = DirectMemory.bytes((int) pinNameBytes);
+        netCount = 0;
+        read(file, false);
+        nameStart.put(blockCount, names.position());
+        blockPinStart.put(blockCount, pin);
+        PackedNetlist netlist = new PackedNetlist(types, nameStart, names, blockPinStart, blockIoEnd, blockPins,
+                netCount);
+        table = null;
+        netNameStart = null;
+        netNames = null;
+
+        System.out.println("Successfully read net file " + file.getName());
+        System.out.println(blockCount + " blocks, " + netCount + " nets, " + globalCount + " global nets");
+        System.out.println(clbCount + " clbs, " + iCount + " inputs, " + oCount + " outputs");
+        if (event.shouldCommit()) {
+            event.circuit = file.getName();
+            event.kind = "netlist";
+            event.blocks = blockCount;
+            event.nets = netCount;
+            event.globalNets = globalCount;
+            event.clbs = clbCount;
+            event.inputs = iCount;
+            event.outputs = oCount;
+            event.commit();
+        }
+        return netlist;
+    }
+
+    private void read(File file, boolean count) {
+        currentLine = 1;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line = "";
+            List<String[]> blockParts = new ArrayList<>();
+            while (line != null) {
+                blockParts.clear();
+                while ((line = br.readLine()) != null && !line.isEmpty()) {
+                    blockParts.add(readContinuation(line, br).trim().split("\\s+"));
+                    currentLine++;
+                }
+                if (!blockParts.isEmpty()) {
+                    if (count) countBlock(blockParts);
+                    else readBlock(blockParts);
+                }
+                currentLine++;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read net file " + file.getName() + ".", e);
+        }
+    }
+
+    /**
+     * Joins a line ending with a backslash with the following lines, see {@link NetlistParser}.
+     */
+    private String readContinuation(String line, BufferedReader br) throws IOException {
+        StringBuilder joined = new StringBuilder(line);
+        String next = line;
+        while (next != null && next.stripTrailing().endsWith("\\")) {
+            joined.setLength(joined.lastIndexOf("\\"));
+            next = br.readLine();
+            if (next != null) {
+                joined.append(' ').append(next);
+                currentLine++;
+            }
+        }
+        return joined.toString();
+    }
+
+    private void countBlock(List<String[]> blockParts) {
+        ElementType type = readType(blockParts);
+        if (type == null) {
+            globalCount++;
+            return;
+        }
+        switch (type) {
+            case INPUT -> iCount++;
+            case OUTPUT -> oCount++;
+            case CLB -> clbCount++;
+        }
+        blockCount++;
+        blockNameBytes += readName(blockParts.get(0)).getBytes(StandardCharsets.UTF_8).length;
+        String[] pins = readPinList(blockParts.get(1));
+        for (int i = 1; i < pins.length && !pins[i].startsWith("#"); i++) {
+            if (pins[i].equals("open")) continue;
+            pinCount++;
+            pinNameBytes += pins[i].getBytes(StandardCharsets.UTF_8).length;
+        }
+    }
+
+    private void readBlock(List<String[]> blockParts) {
+        ElementType type = readType(blockParts);
+        if (type == null) return;
+        types.put(block, (byte) type.ordinal());
+        nameStart.put(block, names.position());
+        names.put(readName(blockParts.get(0)).getBytes(StandardCharsets.UTF_8));
+        blockPinStart.put(block, pin);
+        // the io nets of the block in the order of the pin classes, followed by the global nets
+        String[] pins = readPinList(blockParts.get(1));
+        for (ClassType classType : ClassType.values()) {
+            if (classType == ClassType.GLOBAL) blockIoEnd.put(block, pin);
+            for (int i = 1; i < pins.length && !pins[i].startsWith("#"); i++) {
+                if (pins[i].equals("open") || arch.getIoClasses().get(i - 1) != classType) continue;
+                blockPins.put(pin++, netIndex(pins[i]));
+            }
+        }
+        block++;
+    }
+
+    /**
+     * @return type of the block, null for a global net declaration
+     */
+    private ElementType readType(List<String[]> blockParts) {
+        String keyword = blockParts.get(0)[0];
+        int lines;
+        ElementType type;
+        switch (keyword) {
+            case ".input" -> {
+                type = ElementType.INPUT;
+                lines = 2;
+            }
+            case ".output" -> {
+                type = ElementType.OUTPUT;
+                lines = 2;
+            }
+            case ".clb" -> {
+                type = ElementType.CLB;
+                lines = 3;
+            }
+            case ".global" -> {
+                return null;
+            }
+            default -> throw new IllegalStateException("Unknown element type '" + keyword + "'. (line: "
+                    + currentLine + ")");
+        }
+        // a clb holds one or more subblocks
+        if (blockParts.size() != lines && (type != ElementType.CLB || blockParts.size() < lines))
+            throw new IllegalStateException("Unexpected number of lines for " + keyword.substring(1)
+                    + " block. (line: " + currentLine + ")");
+        return type;
+    }
+
+    private String readName(String[] line) {
+        if (line.length < 2) throw new IllegalStateException("No blockname specified! (line: " + currentLine + ")");
+        return line[1];
+    }
+
+    private String[] readPinList(String[] line) {
+        if (line.length < 2)
+            throw new IllegalStateException("At least one pin must be given! (line: " + (currentLine + 1) + ")");
+        if (!line[0].equalsIgnoreCase("pinlist:"))
+            throw new IllegalStateException("Unknown keyword '" + line[0] + "'. Expected pinlist instead. (line: "
+                    + (currentLine + 1) + ")");
+        return line;
+    }
+
+    /**
+     * Looks up the index of the net in the hash table, unknown nets get the next index.
+     */
+    private int netIndex(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int mask = table.capacity() - 1;
+        int hash = 1;
+        for (byte b : bytes) {
+            hash = 31 * hash + b;
+        }
+        // spreads the higher bits, the table is indexed by the lower ones
+        for (int s = (hash ^ (hash >>> 16)) & mask; ; s = (s + 1) & mask) {
+            int entry = table.get(s);
+            if (entry == 0) {
+                netNameStart.put(netCount, netNames.position());
+                netNames.put(bytes);
+                netNameStart.put(netCount + 1, netNames.position());
+                table.put(s, ++netCount);
+                return netCount - 1;
+            }
+            if (sameName(entry - 1, bytes)) return entry - 1;
+        }
+    }
+
+    private boolean sameName(int net, byte[] bytes) {
+        int start = netNameStart.get(net);
+        if (netNameStart.get(net + 1) - start != bytes.length) return false;
+        for (int i = 0; i < bytes.length; i++) {
+            if (netNames.get(start + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package parser;
+
+import packer.Packer;
+import types.Architecture;
+import types.NetlistTopology;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of parsed architectures and netlists, shared by all tasks of an executor. Entries are keyed by path,
+ * size and modification time of the files, thus a changed file is parsed again. Netlists are kept as immutable
+ * topologies, every task instantiates its own blocks and nets. The least recently used netlists are evicted,
+ * when the estimated size of all netlists exceeds the memory budget.
+ * <p>
+ * Cached architectures are shared between tasks and must not be modified.
+ */
+public class ParseCache {
+
+    private final Map<String, Architecture> architectures = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, NetlistTopology> netlists = new LinkedHashMap<>(16, 0.75f, true);
+    private long budget;
+    private long usedBytes = 0;
+
+    /**
+     * @param budget memory budget for the cached netlists in bytes
+     */
+    public ParseCache(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Returns the parsed architecture, the file is only parsed if it is not cached yet.
+     *
+     * @param file architecture file
+     * @return architecture
+     */
+    public Architecture getArchitecture(File file) {
+        String key = key(file);
+        synchronized (this) {
+            Architecture arch = architectures.get(key);
+            if (arch != null) return arch;
+        }
+        Architecture arch = new ArchitectureParser().parse(file);
+        synchronized (this) {
+            architectures.put(key, arch);
+        }
+        return arch;
+    }
+
+    /**
+     * Returns the topology of the netlist, the file is only parsed if it is not cached yet.
+     *
+     * @param file             netlist file, blif files are packed first
+     * @param architectureFile architecture file, the pin classes of the netlist depend on it
+     * @return topology of the netlist
+     */
+    public NetlistTopology getNetlist(File file, File architectureFile) {
+        String key = key(file) + "@" + key(architectureFile);
+        synchronized (this) {
+            NetlistTopology topology = netlists.get(key);
+            if (topology != null) {
+                System.out.println("Using cached net file " + file.getName());
+                return topology;
+            }
+        }
+        // parsing happens outside of the lock, tasks for other netlists must not wait
+        NetlistTopology topology;
+        if (file.getName().endsWith(".blif")) {
+            Packer packer = new Packer(getArchitecture(architectureFile));
+            topology = NetlistTopology.of(packer.pack(file), packer.getNets());
+        } else {
+            NetlistParser parser = new NetlistParser();
+            topology = NetlistTopology.of(parser.parse(file, getArchitecture(architectureFile)), parser.getNets());
+        }
+        System.out.println("Netlist memory: about " + (topology.estimateSize() + topology.estimateInstanceSize())
+                / Math.max(topology.getBlockCount(), 1) + " bytes per block");
+        synchronized (this) {
+            if (netlists.put(key, topology) == null) usedBytes += topology.estimateSize();
+            evict();
+        }
+        return topology;
+    }
+
+    /**
+     * Sets the memory budget and evicts netlists, if the budget is exceeded.
+     *
+     * @param budget memory budget for the cached netlists in bytes
+     */
+    public synchronized void setBudget(long budget) {
+        this.budget = budget;
+        evict();
+    }
+
+    public synchronized void clear() {
+        architectures.clear();
+        netlists.clear();
+        usedBytes = 0;
+    }
+
+    private void evict() {
+        Iterator<NetlistTopology> iterator = netlists.values().iterator();
+        // the most recently used netlist is kept, even if it alone exceeds the budget
+        while (usedBytes > budget && netlists.size() > 1) {
+            usedBytes -= iterator.next().estimateSize();
+            iterator.remove();
+        }
+    }
+
+    private static String key(File file) {
+        return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+    }
+}
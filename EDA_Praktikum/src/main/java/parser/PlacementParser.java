@@ -0,0 +1,92 @@
+package parser;
+
+import types.CircuitElement;
+import types.Position;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a placement file of vpr and applies the positions to the blocks of a parsed netlist.
+ */
+public class PlacementParser {
+
+    private long currentLine;
+
+    private int xDimension;
+
+    private int yDimension;
+
+    /**
+     * Parses the placement file and sets position and subblock number of each listed block.
+     *
+     * @param file    placement file
+     * @param netlist blocks of the netlist, matched by their block name
+     * @return number of blocks, that were placed
+     */
+    public int parse(File file, List<CircuitElement> netlist) {
+        currentLine = 1;
+        xDimension = 0;
+        yDimension = 0;
+        Map<String, CircuitElement> blocks = new HashMap<>();
+        for (CircuitElement elem : netlist) {
+            blocks.put(elem.getBlockName(), elem);
+        }
+        int placed = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.startsWith("Array size:")) {
+                    readArraySize(trimmed.split("\\s+"));
+                } else if (!trimmed.isEmpty() && !trimmed.startsWith("#") && !trimmed.startsWith("Netlist file:")) {
+                    readBlock(trimmed.split("\\s+"), blocks);
+                    placed++;
+                }
+                currentLine++;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return placed;
+    }
+
+    public int getXDimension() {
+        return xDimension;
+    }
+
+    public int getYDimension() {
+        return yDimension;
+    }
+
+    private void readArraySize(String[] parts) {
+        // Array size: <x> x <y> logic blocks
+        if (parts.length < 5)
+            throw new IllegalStateException("Unable to read array size. (line: " + currentLine + ")");
+        xDimension = readNumber(parts[2]);
+        yDimension = readNumber(parts[4]);
+    }
+
+    private void readBlock(String[] parts, Map<String, CircuitElement> blocks) {
+        if (parts.length < 4)
+            throw new IllegalStateException("Expected block name, x, y and subblock. (line: " + currentLine + ")");
+        CircuitElement elem = blocks.get(parts[0]);
+        if (elem == null)
+            throw new IllegalStateException("Unknown block '" + parts[0] + "'. (line: " + currentLine + ")");
+        elem.setPosition(new Position(readNumber(parts[1]), readNumber(parts[2])));
+        elem.setSubblockNumber(readNumber(parts[3]));
+    }
+
+    private int readNumber(String part) {
+        try {
+            return Integer.parseInt(part);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Unable to parse placement in line " + currentLine + ". " + "Expected a number but received '" + part + "'.", e);
+        }
+    }
+}
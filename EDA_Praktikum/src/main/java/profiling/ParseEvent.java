@@ -0,0 +1,41 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for parsing an architecture or netlist file.
+ */
+@Name("eda.Parse")
+@Label("Parse")
+@Category({"EDA", "Parsing"})
+@Description("Reading an architecture or netlist file")
+public class ParseEvent extends jdk.jfr.Event {
+
+    @Label("Circuit")
+    public String circuit;
+
+    @Label("Kind")
+    @Description("architecture or netlist")
+    public String kind;
+
+    @Label("Blocks")
+    public int blocks;
+
+    @Label("Nets")
+    public int nets;
+
+    @Label("Global Nets")
+    public int globalNets;
+
+    @Label("CLBs")
+    public long clbs;
+
+    @Label("Inputs")
+    public long inputs;
+
+    @Label("Outputs")
+    public long outputs;
+}
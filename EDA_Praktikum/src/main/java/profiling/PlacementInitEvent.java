@@ -0,0 +1,35 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the initial placement of the zft algorithm.
+ */
+@Name("eda.PlacementInit")
+@Label("Placement Initialisation")
+@Category({"EDA", "Placement"})
+@Description("Initial placement of io pads and logic blocks")
+public class PlacementInitEvent extends jdk.jfr.Event {
+
+    @Label("Circuit")
+    public String circuit;
+
+    @Label("Strategy")
+    public String strategy;
+
+    @Label("Grid Size")
+    @Description("Number of clbs per row")
+    public int gridSize;
+
+    @Label("CLBs")
+    public int clbs;
+
+    @Label("IO Pads")
+    public int ioPads;
+
+    @Label("Nets")
+    public int nets;
+}
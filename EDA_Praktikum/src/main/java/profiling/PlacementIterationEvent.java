@@ -0,0 +1,33 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for one pass of the zft algorithm over all logic blocks.
+ */
+@Name("eda.PlacementIteration")
+@Label("Placement Iteration")
+@Category({"EDA", "Placement"})
+@Description("One zft pass over all logic blocks")
+public class PlacementIterationEvent extends jdk.jfr.Event {
+
+    @Label("Circuit")
+    public String circuit;
+
+    @Label("Iteration")
+    public int iteration;
+
+    @Label("Blocks")
+    public int blocks;
+
+    @Label("Switches")
+    @Description("Number of blocks that changed their position")
+    public int switches;
+
+    @Label("Cost")
+    @Description("Total bounding box cost of all nets after the pass")
+    public double cost;
+}
@@ -0,0 +1,29 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for writing a placement file.
+ */
+@Name("eda.PlacementWrite")
+@Label("Placement Write")
+@Category({"EDA", "Placement"})
+public class PlacementWriteEvent extends jdk.jfr.Event {
+
+    @Label("Circuit")
+    public String circuit;
+
+    @Label("Destination")
+    public String destination;
+
+    @Label("Blocks")
+    public int blocks;
+
+    @Label("Array Size X")
+    public int xDimension;
+
+    @Label("Array Size Y")
+    public int yDimension;
+}
@@ -0,0 +1,33 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event around a call of the vpr subprocess.
+ */
+@Name("eda.VPR")
+@Label("VPR Execution")
+@Category({"EDA", "VPR"})
+@Description("Runtime of the vpr subprocess")
+public class VPREvent extends jdk.jfr.Event {
+
+    @Label("Circuit")
+    public String circuit;
+
+    @Label("Method")
+    @Description("-place_only or -route_only")
+    public String method;
+
+    @Label("Algorithm")
+    public String algorithm;
+
+    @Label("Output Lines")
+    public int outputLines;
+
+    @Label("Exit Code")
+    @Description("Exit code of vpr, -1 if the process did not terminate")
+    public int exitCode;
+}
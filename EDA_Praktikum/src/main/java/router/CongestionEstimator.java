@@ -0,0 +1,178 @@
+package router;
+
+import types.CircuitElement;
+import types.Net;
+import types.Position;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the routing demand of a placement without routing it (RUDY). The expected wirelength of every net
+ * is spread uniformly over its bounding box: a net with a box of w x h tiles adds q / h horizontal and
+ * q / w vertical tracks to each tile of the box, q being the crossing count of the net. The boxes are
+ * accumulated in difference arrays and summed up with 2D prefix sums, thus the costs are linear in the number
+ * of pins and tiles.
+ */
+public class CongestionEstimator {
+
+    // ratio of the channel width found by the PathFinder router to the peak demand, the mcnc circuits
+    // alu4, ex5p, misex3 and tseng range from 0.76 to 1.02
+    private static final double WIDTH_FACTOR = 0.85;
+
+    private final List<CircuitElement> blocks;
+    private final int nx;
+    private final int ny;
+
+    /**
+     * @param blocks placed blocks of the netlist
+     * @param nx     number of clb columns
+     * @param ny     number of clb rows
+     */
+    public CongestionEstimator(List<CircuitElement> blocks, int nx, int ny) {
+        this.blocks = blocks;
+        this.nx = nx;
+        this.ny = ny;
+    }
+
+    /**
+     * Calculates the congestion map of the placement.
+     *
+     * @return horizontal and vertical demand of each tile
+     */
+    public CongestionMap estimate() {
+        // bounding box and pin count of each net, global pins are not part of the io nets
+        Map<Net, int[]> boxes = new HashMap<>();
+        for (CircuitElement block : blocks) {
+            Position pos = block.getPosition();
+            if (pos == null) continue;
+            for (Net net : block.getPinList()) {
+                int[] box = boxes.get(net);
+                if (box == null) {
+                    boxes.put(net, new int[]{pos.getX(), pos.getY(), pos.getX(), pos.getY(), 1});
+                } else {
+                    box[0] = Math.min(box[0], pos.getX());
+                    box[1] = Math.min(box[1], pos.getY());
+                    box[2] = Math.max(box[2], pos.getX());
+                    box[3] = Math.max(box[3], pos.getY());
+                    box[4]++;
+                }
+            }
+        }
+
+        double[][] horizontal = new double[nx + 3][ny + 3];
+        double[][] vertical = new double[nx + 3][ny + 3];
+        for (Map.Entry<Net, int[]> entry : boxes.entrySet()) {
+            int[] box = entry.getValue();
+            if (box[4] < 2) continue;
+            double crossings = entry.getKey().calcCrossings();
+            int width = box[2] - box[0] + 1;
+            int height = box[3] - box[1] + 1;
+            addBox(horizontal, box, crossings / height);
+            addBox(vertical, box, crossings / width);
+        }
+        prefixSum(horizontal);
+        prefixSum(vertical);
+        return new CongestionMap(horizontal, vertical, nx, ny);
+    }
+
+    private static void addBox(double[][] diff, int[] box, double demand) {
+        diff[box[0]][box[1]] += demand;
+        diff[box[2] + 1][box[1]] -= demand;
+        diff[box[0]][box[3] + 1] -= demand;
+        diff[box[2] + 1][box[3] + 1] += demand;
+    }
+
+    private static void prefixSum(double[][] grid) {
+        for (int x = 0; x < grid.length; x++) {
+            for (int y = 1; y < grid[x].length; y++) {
+                grid[x][y] += grid[x][y - 1];
+            }
+        }
+        for (int x = 1; x < grid.length; x++) {
+            for (int y = 0; y < grid[x].length; y++) {
+                grid[x][y] += grid[x - 1][y];
+            }
+        }
+    }
+
+    /**
+     * Routing demand per tile of a placement.
+     */
+    public static class CongestionMap {
+        private final double[][] horizontal;
+        private final double[][] vertical;
+        private final int nx;
+        private final int ny;
+
+        private CongestionMap(double[][] horizontal, double[][] vertical, int nx, int ny) {
+            this.horizontal = horizontal;
+            this.vertical = vertical;
+            this.nx = nx;
+            this.ny = ny;
+        }
+
+        public double getHorizontalDemand(int x, int y) {
+            return horizontal[x][y];
+        }
+
+        public double getVerticalDemand(int x, int y) {
+            return vertical[x][y];
+        }
+
+        /**
+         * @return maximal demand in any direction of all tiles of the grid, io ring included
+         */
+        public double getPeakDemand() {
+            double peak = 0;
+            for (int x = 0; x <= nx + 1; x++) {
+                for (int y = 0; y <= ny + 1; y++) {
+                    peak = Math.max(peak, Math.max(horizontal[x][y], vertical[x][y]));
+                }
+            }
+            return peak;
+        }
+
+        /**
+         * @return average demand of the clb tiles
+         */
+        public double getAverageDemand() {
+            double sum = 0;
+            for (int x = 1; x <= nx; x++) {
+                for (int y = 1; y <= ny; y++) {
+                    sum += Math.max(horizontal[x][y], vertical[x][y]);
+                }
+            }
+            return sum / (nx * ny);
+        }
+
+        /**
+         * Predicts the minimal channel width from the peak demand.
+         *
+         * @return predicted channel width
+         */
+        public int getPredictedChannelWidth() {
+            return (int) Math.ceil(WIDTH_FACTOR * getPeakDemand());
+        }
+
+        /**
+         * Renders the map as text, one character per tile from '0' (no demand) to '9' (peak demand). The top
+         * row of the grid is printed first.
+         *
+         * @return congestion map
+         */
+        public String render() {
+            double peak = getPeakDemand();
+            StringBuilder sb = new StringBuilder();
+            for (int y = ny + 1; y >= 0; y--) {
+                for (int x = 0; x <= nx + 1; x++) {
+                    double demand = Math.max(horizontal[x][y], vertical[x][y]);
+                    sb.append(peak == 0 ? '0' : (char) ('0' + (int) (9 * demand / peak)));
+                }
+                sb.append('\n');
+            }
+            return sb.toString();
+        }
+    }
+}
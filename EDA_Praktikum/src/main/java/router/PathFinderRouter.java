@@ -0,0 +1,350 @@
+package router;
+
+import types.*;
+
+import java.util.*;
+
+/**
+ * Negotiated congestion router (PathFinder). Every net is routed by a maze expansion from its current routing
+ * tree to each of its sinks. Overused routing resources get more expensive with every iteration, until all
+ * nets have negotiated a routing without overuse. The heap and the cost arrays of the maze expansion are
+ * reused for all nets.
+ * <p>
+ * Global nets are not routed, like in vpr they are expected to use dedicated resources.
+ */
+public class PathFinderRouter {
+
+    private static final int MAX_ITERATIONS = 30;
+    private static final double INITIAL_PRES_FAC = 0.5;
+    private static final double PRES_FAC_MULT = 1.5;
+    private static final double HIST_FAC = 1.0;
+    private static final double ASTAR_FAC = 1.2;
+    private static final int INITIAL_WIDTH = 4;
+    private static final int MAX_WIDTH = 512;
+
+    private final List<CircuitElement> blocks;
+    private final Architecture architecture;
+    private final int nx;
+    private final int ny;
+    private final List<RouteNet> routeNets = new ArrayList<>();
+    private final boolean verbose;
+
+    // state of the current routing attempt
+    private RoutingGraph graph;
+    private int[] occupancy;
+    private double[] history;
+    private double presFac;
+    private IntList[] trees;
+
+    // buffers of the maze expansion, reused for all nets
+    private double[] pathCost;
+    private int[] previous;
+    private final IntList touched = new IntList(1024);
+    private int[] heapNodes = new int[1024];
+    private double[] heapKeys = new double[1024];
+    private int heapSize;
+
+    /**
+     * @param blocks       placed blocks of the netlist
+     * @param nets         nets of the netlist
+     * @param architecture architecture
+     * @param nx           number of clb columns
+     * @param ny           number of clb rows
+     * @param verbose      verbose mode
+     */
+    public PathFinderRouter(List<CircuitElement> blocks, List<Net> nets, Architecture architecture, int nx, int ny,
+                            boolean verbose) {
+        this.blocks = blocks;
+        this.architecture = architecture;
+        this.nx = nx;
+        this.ny = ny;
+        this.verbose = verbose;
+        for (Net net : nets) {
+            RouteNet routeNet = collectTerminals(net);
+            if (routeNet != null) routeNets.add(routeNet);
+        }
+    }
+
+    /**
+     * Determines driver and sinks of a net. Global pins are ignored.
+     *
+     * @return terminals of the net, null if the net has nothing to route
+     */
+    private RouteNet collectTerminals(Net net) {
+        CircuitElement driver = null;
+        List<CircuitElement> sinks = new ArrayList<>();
+        for (CircuitElement pad : net.getConnectedPads()) {
+            boolean drives = pad.getType() == ElementType.INPUT
+                    || (pad.getType() == ElementType.CLB && pad.getNetClass().getOutputNets().contains(net));
+            boolean sinks_ = pad.getType() == ElementType.OUTPUT
+                    || (pad.getType() == ElementType.CLB && pad.getNetClass().getInputNets().contains(net));
+            if (drives) driver = pad;
+            if (sinks_ && !sinks.contains(pad)) sinks.add(pad);
+        }
+        if (driver == null) return null;
+        sinks.remove(driver);
+        if (sinks.isEmpty()) return null;
+        Position from = driver.getPosition();
+        sinks.sort(Comparator.comparingInt(s -> s.getPosition().rectilinear(from)));
+        return new RouteNet(driver, sinks);
+    }
+
+    /**
+     * Searches the minimal channel width, with which the circuit is routable. The width is doubled until the
+     * routing succeeds and then narrowed by binary search.
+     *
+     * @return routing with the minimal channel width, unsuccessful if even the maximal width fails
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    public RoutingResult routeMinChannelWidth() throws InterruptedException {
+        int low = 0;
+        int width = INITIAL_WIDTH;
+        RoutingResult best = null;
+        while (best == null && width <= MAX_WIDTH) {
+            RoutingResult result = route(width);
+            if (result.isSuccessful()) {
+                best = result;
+            } else {
+                low = width;
+                width *= 2;
+            }
+        }
+        if (best == null) return new RoutingResult(false, MAX_WIDTH, 0, MAX_ITERATIONS);
+
+        int high = best.getChannelWidth();
+        while (high - low > 1) {
+            int mid = (low + high) / 2;
+            RoutingResult result = route(mid);
+            if (result.isSuccessful()) {
+                best = result;
+                high = mid;
+            } else {
+                low = mid;
+            }
+        }
+        // the last attempt might have failed, restore the state of the best routing
+        if (graph.getWidth() != best.getChannelWidth()) route(best.getChannelWidth());
+        return best;
+    }
+
+    /**
+     * Routes all nets with the given channel width.
+     *
+     * @param width number of tracks per channel
+     * @return result of the routing
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    public RoutingResult route(int width) throws InterruptedException {
+        graph = new RoutingGraph(architecture, blocks, nx, ny, width);
+        int n = graph.getNodeCount();
+        occupancy = new int[n];
+        history = new double[n];
+        pathCost = new double[n];
+        previous = new int[n];
+        Arrays.fill(pathCost, Double.MAX_VALUE);
+        Arrays.fill(previous, -1);
+        trees = new IntList[routeNets.size()];
+        for (int i = 0; i < trees.length; i++) {
+            trees[i] = new IntList();
+        }
+        presFac = INITIAL_PRES_FAC;
+
+        for (int iter = 1; iter <= MAX_ITERATIONS; iter++) {
+            for (int i = 0; i < routeNets.size(); i++) {
+                if (Thread.interrupted()) throw new InterruptedException("Routing was stopped.");
+                ripUp(trees[i]);
+                if (!routeNet(routeNets.get(i), trees[i])) {
+                    // a sink is not reachable at all, more iterations will not help
+                    return new RoutingResult(false, width, 0, iter);
+                }
+            }
+            int overused = 0;
+            for (int node = 0; node < n; node++) {
+                int overuse = occupancy[node] - graph.getCapacity(node);
+                if (overuse > 0) {
+                    overused++;
+                    history[node] += HIST_FAC * overuse;
+                }
+            }
+            if (verbose) System.out.println("Routing iteration " + iter + ": " + overused + " overused nodes");
+            if (overused == 0) {
+                System.out.println("Routing with channel width " + width + " succeeded after " + iter + " " +
+                        "iterations.");
+                return new RoutingResult(true, width, calcWirelength(), iter);
+            }
+            presFac *= PRES_FAC_MULT;
+        }
+        System.out.println("Routing failed for channel width " + width + ".");
+        return new RoutingResult(false, width, 0, MAX_ITERATIONS);
+    }
+
+    private void ripUp(IntList tree) {
+        for (int i = 0; i < tree.size(); i++) {
+            occupancy[tree.get(i)]--;
+        }
+        tree.clear();
+    }
+
+    private boolean routeNet(RouteNet net, IntList tree) {
+        int source = graph.getSource(net.driver);
+        tree.add(source);
+        occupancy[source]++;
+        for (CircuitElement sink : net.sinks) {
+            int target = graph.getSink(sink);
+            if (!expand(tree, target)) return false;
+            // backtrace, the tree nodes have no predecessor
+            int node = target;
+            while (node != -1 && previous[node] != -1) {
+                tree.add(node);
+                occupancy[node]++;
+                node = previous[node];
+            }
+            resetBuffers();
+        }
+        return true;
+    }
+
+    /**
+     * Maze expansion from all nodes of the tree to the target, directed by the rectilinear distance (A*).
+     *
+     * @return true, if the target was reached
+     */
+    private boolean expand(IntList tree, int target) {
+        int tx = graph.getX(target);
+        int ty = graph.getY(target);
+        heapSize = 0;
+        for (int i = 0; i < tree.size(); i++) {
+            int node = tree.get(i);
+            if (pathCost[node] == 0) continue;
+            pathCost[node] = 0;
+            previous[node] = -1;
+            touched.add(node);
+            push(node, ASTAR_FAC * distance(node, tx, ty));
+        }
+        while (heapSize > 0) {
+            int node = heapNodes[0];
+            double key = heapKeys[0];
+            pop();
+            if (node == target) return true;
+            // skip outdated heap entries
+            if (key > pathCost[node] + ASTAR_FAC * distance(node, tx, ty) + 1e-9) continue;
+            for (int e = graph.getEdgeStart(node); e < graph.getEdgeEnd(node); e++) {
+                int next = graph.getEdgeTarget(e);
+                byte nextType = graph.getType(next);
+                if (nextType == RoutingGraph.SOURCE) continue;
+                if (nextType == RoutingGraph.SINK && next != target) continue;
+                if (nextType == RoutingGraph.IPIN && graph.getIpinSink(next) != target) continue;
+                double cost = pathCost[node] + nodeCost(next);
+                if (cost < pathCost[next]) {
+                    if (pathCost[next] == Double.MAX_VALUE) touched.add(next);
+                    pathCost[next] = cost;
+                    previous[next] = node;
+                    push(next, cost + ASTAR_FAC * distance(next, tx, ty));
+                }
+            }
+        }
+        return false;
+    }
+
+    private int distance(int node, int tx, int ty) {
+        return Math.abs(graph.getX(node) - tx) + Math.abs(graph.getY(node) - ty);
+    }
+
+    private double nodeCost(int node) {
+        int overuse = occupancy[node] + 1 - graph.getCapacity(node);
+        double presentCost = overuse > 0 ? 1 + presFac * overuse : 1;
+        double baseCost = graph.getType(node) == RoutingGraph.SINK ? 0 : 1;
+        return (baseCost + history[node]) * presentCost;
+    }
+
+    private void resetBuffers() {
+        for (int i = 0; i < touched.size(); i++) {
+            pathCost[touched.get(i)] = Double.MAX_VALUE;
+            previous[touched.get(i)] = -1;
+        }
+        touched.clear();
+    }
+
+    private int calcWirelength() {
+        int wirelength = 0;
+        for (IntList tree : trees) {
+            for (int i = 0; i < tree.size(); i++) {
+                if (graph.isWire(tree.get(i))) wirelength++;
+            }
+        }
+        return wirelength;
+    }
+
+    /**
+     * Checks the current routing: every sink of every net is part of its tree and no node is overused.
+     *
+     * @return true, if the routing is consistent
+     */
+    public boolean checkRouting() {
+        if (graph == null) return false;
+        int[] used = new int[graph.getNodeCount()];
+        for (int i = 0; i < routeNets.size(); i++) {
+            Set<Integer> nodes = new HashSet<>();
+            for (int k = 0; k < trees[i].size(); k++) {
+                nodes.add(trees[i].get(k));
+                used[trees[i].get(k)]++;
+            }
+            for (CircuitElement sink : routeNets.get(i).sinks) {
+                if (!nodes.contains(graph.getSink(sink))) return false;
+            }
+        }
+        for (int node = 0; node < used.length; node++) {
+            if (used[node] > graph.getCapacity(node)) return false;
+        }
+        return true;
+    }
+
+    private void push(int node, double key) {
+        if (heapSize == heapNodes.length) {
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heapKeys[parent] <= key) break;
+            heapNodes[i] = heapNodes[parent];
+            heapKeys[i] = heapKeys[parent];
+            i = parent;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = key;
+    }
+
+    private void pop() {
+        heapSize--;
+        if (heapSize == 0) return;
+        int node = heapNodes[heapSize];
+        double key = heapKeys[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) child++;
+            if (heapKeys[child] >= key) break;
+            heapNodes[i] = heapNodes[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = key;
+    }
+
+    /**
+     * Driver and sinks of a net, the sinks are sorted by their distance to the driver.
+     */
+    private static class RouteNet {
+        final CircuitElement driver;
+        final List<CircuitElement> sinks;
+
+        RouteNet(CircuitElement driver, List<CircuitElement> sinks) {
+            this.driver = driver;
+            this.sinks = sinks;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package router;
+
+import types.Architecture;
+import types.CircuitElement;
+import types.ClassType;
+import types.ElementType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routing resource graph of an island style fpga. All wire segments span one logic block and the switch
+ * boxes are disjoint (subset), thus track t of a channel only connects to track t of the adjacent channels.
+ * Pins connect to a fraction of the tracks of the channels at their sides, given by Fc of the architecture.
+ * <p>
+ * Channel coordinates follow vpr: chanx(i, j) lies above the clb row j, chany(i, j) right of the clb column i.
+ */
+public class RoutingGraph {
+
+    public static final byte SOURCE = 0;
+    public static final byte SINK = 1;
+    public static final byte OPIN = 2;
+    public static final byte IPIN = 3;
+    public static final byte CHANX = 4;
+    public static final byte CHANY = 5;
+
+    private static final List<String> ALL_SIDES = List.of("bottom", "top", "left", "right");
+
+    private final int nx;
+    private final int ny;
+    private final int width;
+    private final int chanxCount;
+    private final int chanCount;
+
+    private final IntList types = new IntList(1024);
+    private final IntList capacities = new IntList(1024);
+    private final IntList xs = new IntList(1024);
+    private final IntList ys = new IntList(1024);
+    private final IntList ipinSinks = new IntList(1024);
+    private final IntList edgeSources = new IntList(1024);
+    private final IntList edgeTargets = new IntList(1024);
+
+    private final Map<CircuitElement, Integer> sourceOf = new HashMap<>();
+    private final Map<CircuitElement, Integer> sinkOf = new HashMap<>();
+
+    private byte[] type;
+    private int[] capacity;
+    private int[] x;
+    private int[] y;
+    private int[] ipinSink;
+    private int[] edgeStart;
+    private int[] edgeTarget;
+
+    /**
+     * Builds the routing graph for the placed blocks.
+     *
+     * @param architecture architecture
+     * @param blocks       placed blocks
+     * @param nx           number of clb columns
+     * @param ny           number of clb rows
+     * @param width        number of tracks per channel
+     */
+    public RoutingGraph(Architecture architecture, List<CircuitElement> blocks, int nx, int ny, int width) {
+        this.nx = nx;
+        this.ny = ny;
+        this.width = width;
+        this.chanxCount = nx * (ny + 1) * width;
+        this.chanCount = chanxCount + (nx + 1) * ny * width;
+
+        for (int j = 0; j <= ny; j++) {
+            for (int i = 1; i <= nx; i++) {
+                for (int t = 0; t < width; t++) {
+                    addNode(CHANX, 1, i, j);
+                }
+            }
+        }
+        for (int i = 0; i <= nx; i++) {
+            for (int j = 1; j <= ny; j++) {
+                for (int t = 0; t < width; t++) {
+                    addNode(CHANY, 1, i, j);
+                }
+            }
+        }
+        for (CircuitElement block : blocks) {
+            if (block.getType() == ElementType.CLB) {
+                addLogicBlock(architecture, block);
+            } else {
+                addPad(architecture, block);
+            }
+        }
+        addSwitchBoxes();
+        build();
+    }
+
+    private int addNode(byte nodeType, int nodeCapacity, int nodeX, int nodeY) {
+        types.add(nodeType);
+        capacities.add(nodeCapacity);
+        xs.add(nodeX);
+        ys.add(nodeY);
+        ipinSinks.add(-1);
+        return types.size() - 1;
+    }
+
+    private void addEdge(int from, int to) {
+        edgeSources.add(from);
+        edgeTargets.add(to);
+    }
+
+    private void addLogicBlock(Architecture architecture, CircuitElement block) {
+        List<ClassType> classes = architecture.getIoClasses();
+        int inputs = 0;
+        int outputs = 0;
+        for (ClassType classType : classes) {
+            if (classType == ClassType.INPUT) inputs++;
+            if (classType == ClassType.OUTPUT) outputs++;
+        }
+        // pins of one class are logically equivalent, they share a source or sink
+        int sink = addNode(SINK, inputs, block.getX(), block.getY());
+        int source = addNode(SOURCE, outputs, block.getX(), block.getY());
+        sinkOf.put(block, sink);
+        sourceOf.put(block, source);
+        for (int p = 0; p < classes.size(); p++) {
+            if (classes.get(p) == ClassType.GLOBAL) continue;
+            List<String> sides = architecture.getPinSides() == null || architecture.getPinSides().get(p).isEmpty()
+                    ? ALL_SIDES : architecture.getPinSides().get(p);
+            if (classes.get(p) == ClassType.INPUT) {
+                int pin = addNode(IPIN, 1, block.getX(), block.getY());
+                ipinSinks.set(pin, sink);
+                addEdge(pin, sink);
+                for (String side : sides) {
+                    int channel = channelOfLogicBlock(side, block.getX(), block.getY());
+                    for (int track : tracks(architecture.getFcInput(), p)) {
+                        addEdge(channel + track, pin);
+                    }
+                }
+            } else {
+                int pin = addNode(OPIN, 1, block.getX(), block.getY());
+                addEdge(source, pin);
+                for (String side : sides) {
+                    int channel = channelOfLogicBlock(side, block.getX(), block.getY());
+                    for (int track : tracks(architecture.getFcOutput(), p)) {
+                        addEdge(pin, channel + track);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addPad(Architecture architecture, CircuitElement pad) {
+        int channel = channelOfPad(pad.getX(), pad.getY());
+        if (pad.getType() == ElementType.INPUT) {
+            int source = addNode(SOURCE, 1, pad.getX(), pad.getY());
+            int pin = addNode(OPIN, 1, pad.getX(), pad.getY());
+            sourceOf.put(pad, source);
+            addEdge(source, pin);
+            for (int track : tracks(architecture.getFcPad(), pad.getSubblockNumber())) {
+                addEdge(pin, channel + track);
+            }
+        } else {
+            int sink = addNode(SINK, 1, pad.getX(), pad.getY());
+            int pin = addNode(IPIN, 1, pad.getX(), pad.getY());
+            sinkOf.put(pad, sink);
+            ipinSinks.set(pin, sink);
+            addEdge(pin, sink);
+            for (int track : tracks(architecture.getFcPad(), pad.getSubblockNumber())) {
+                addEdge(channel + track, pin);
+            }
+        }
+    }
+
+    /**
+     * Selects the tracks a pin connects to. The tracks are evenly spread over the channel and shifted by
+     * the pin number, so that different pins use different tracks.
+     */
+    private int[] tracks(double fc, int pinNumber) {
+        int count = Math.max(1, Math.min(width, (int) Math.ceil(fc * width)));
+        int[] result = new int[count];
+        for (int k = 0; k < count; k++) {
+            result[k] = (k * width / count + pinNumber) % width;
+        }
+        return result;
+    }
+
+    private void addSwitchBoxes() {
+        int[] segments = new int[4];
+        for (int i = 0; i <= nx; i++) {
+            for (int j = 0; j <= ny; j++) {
+                int count = 0;
+                if (i >= 1) segments[count++] = chanx(i, j);
+                if (i + 1 <= nx) segments[count++] = chanx(i + 1, j);
+                if (j >= 1) segments[count++] = chany(i, j);
+                if (j + 1 <= ny) segments[count++] = chany(i, j + 1);
+                for (int a = 0; a < count; a++) {
+                    for (int b = 0; b < count; b++) {
+                        if (a == b) continue;
+                        for (int t = 0; t < width; t++) {
+                            addEdge(segments[a] + t, segments[b] + t);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private int chanx(int i, int j) {
+        if (i < 1 || i > nx || j < 0 || j > ny)
+            throw new IllegalStateException("No horizontal channel at (" + i + "/" + j + ")");
+        return (j * nx + (i - 1)) * width;
+    }
+
+    private int chany(int i, int j) {
+        if (i < 0 || i > nx || j < 1 || j > ny)
+            throw new IllegalStateException("No vertical channel at (" + i + "/" + j + ")");
+        return chanxCount + (i * ny + (j - 1)) * width;
+    }
+
+    private int channelOfLogicBlock(String side, int bx, int by) {
+        return switch (side) {
+            case "top" -> chanx(bx, by);
+            case "bottom" -> chanx(bx, by - 1);
+            case "right" -> chany(bx, by);
+            case "left" -> chany(bx - 1, by);
+            default -> throw new IllegalStateException("Unknown pin side '" + side + "'");
+        };
+    }
+
+    private int channelOfPad(int px, int py) {
+        if (py == 0) return chanx(px, 0);
+        if (py == ny + 1) return chanx(px, ny);
+        if (px == 0) return chany(0, py);
+        if (px == nx + 1) return chany(nx, py);
+        throw new IllegalStateException("IO pad at (" + px + "/" + py + ") is not on the io ring");
+    }
+
+    /**
+     * Converts the collected nodes and edges into arrays, the edges in compressed row format.
+     */
+    private void build() {
+        int n = types.size();
+        type = new byte[n];
+        for (int i = 0; i < n; i++) {
+            type[i] = (byte) types.get(i);
+        }
+        capacity = capacities.toArray();
+        x = xs.toArray();
+        y = ys.toArray();
+        ipinSink = ipinSinks.toArray();
+
+        edgeStart = new int[n + 1];
+        for (int e = 0; e < edgeSources.size(); e++) {
+            edgeStart[edgeSources.get(e) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            edgeStart[i + 1] += edgeStart[i];
+        }
+        edgeTarget = new int[edgeSources.size()];
+        int[] fill = new int[n];
+        for (int e = 0; e < edgeSources.size(); e++) {
+            int from = edgeSources.get(e);
+            edgeTarget[edgeStart[from] + fill[from]++] = edgeTargets.get(e);
+        }
+    }
+
+    public int getNodeCount() {
+        return type.length;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public byte getType(int node) {
+        return type[node];
+    }
+
+    public int getCapacity(int node) {
+        return capacity[node];
+    }
+
+    public int getX(int node) {
+        return x[node];
+    }
+
+    public int getY(int node) {
+        return y[node];
+    }
+
+    /**
+     * Returns the sink an input pin leads to.
+     *
+     * @param node input pin
+     * @return sink node, -1 if the node is no input pin
+     */
+    public int getIpinSink(int node) {
+        return ipinSink[node];
+    }
+
+    public int getEdgeStart(int node) {
+        return edgeStart[node];
+    }
+
+    public int getEdgeEnd(int node) {
+        return edgeStart[node + 1];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    public boolean isWire(int node) {
+        return node < chanCount;
+    }
+
+    public Integer getSource(CircuitElement block) {
+        return sourceOf.get(block);
+    }
+
+    public Integer getSink(CircuitElement block) {
+        return sinkOf.get(block);
+    }
+}
@@ -0,0 +1,46 @@
+package router;
+
+/**
+ * Result of a routing attempt.
+ */
+public class RoutingResult {
+
+    private final boolean successful;
+    private final int channelWidth;
+    private final int wirelength;
+    private final int iterations;
+
+    public RoutingResult(boolean successful, int channelWidth, int wirelength, int iterations) {
+        this.successful = successful;
+        this.channelWidth = channelWidth;
+        this.wirelength = wirelength;
+        this.iterations = iterations;
+    }
+
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    public int getChannelWidth() {
+        return channelWidth;
+    }
+
+    /**
+     * Returns the number of used wire segments, each segment spans one logic block.
+     *
+     * @return wirelength in logic blocks
+     */
+    public int getWirelength() {
+        return wirelength;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String toString() {
+        return "RoutingResult{" + "successful=" + successful + ", channelWidth=" + channelWidth + ", wirelength="
+                + wirelength + ", iterations=" + iterations + '}';
+    }
+}
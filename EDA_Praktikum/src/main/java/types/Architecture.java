@@ -9,6 +9,10 @@ public class Architecture {
     private Integer subblockLutSize;
     private Integer ioRate;
     private List<ClassType> ioClasses;
+    private List<List<String>> pinSides;
+    private Double fcInput = 1.0;
+    private Double fcOutput = 1.0;
+    private Double fcPad = 1.0;
 
     public void setSubblocksPerClb(Integer subblocksPerClb) {
         this.subblocksPerClb = subblocksPerClb;
@@ -41,4 +45,42 @@ public class Architecture {
     public void setIoClasses(List<ClassType> ioClasses) {
         this.ioClasses = ioClasses;
     }
+
+    /**
+     * Returns the sides of the clb (bottom, top, left, right), at which a pin is accessible. Same order
+     * as the io classes.
+     *
+     * @return sides of each pin
+     */
+    public List<List<String>> getPinSides() {
+        return pinSides;
+    }
+
+    public void setPinSides(List<List<String>> pinSides) {
+        this.pinSides = pinSides;
+    }
+
+    public Double getFcInput() {
+        return fcInput;
+    }
+
+    public void setFcInput(Double fcInput) {
+        this.fcInput = fcInput;
+    }
+
+    public Double getFcOutput() {
+        return fcOutput;
+    }
+
+    public void setFcOutput(Double fcOutput) {
+        this.fcOutput = fcOutput;
+    }
+
+    public Double getFcPad() {
+        return fcPad;
+    }
+
+    public void setFcPad(Double fcPad) {
+        this.fcPad = fcPad;
+    }
 }
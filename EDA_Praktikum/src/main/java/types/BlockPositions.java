@@ -0,0 +1,14 @@
+package types;
+
+/**
+ * Positions of the blocks of a placement, addressed by the index of the block in the netlist. Used for
+ * placements, that do not keep a {@link CircuitElement} per block.
+ */
+public interface BlockPositions {
+
+    int getX(int block);
+
+    int getY(int block);
+
+    int getSubblockNumber(int block);
+}
@@ -1,37 +1,49 @@
 package types;
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 public class CircuitElement {
 
-    private final static Integer MAX_RECENT_POS = 2;
+    private final static int MAX_RECENT_POS = 2;
+    private final static String[] NO_SUBBLOCKS = new String[0];
     private final ElementType type;
     private final String blockName;
-    private final Integer blockNumber;
+    private final int blockNumber;
     private final NetClass pinList;
-    private final String subBlockName;
-    private final List<String> subblock;
+    private final String[] subBlockNames;
+    // packed pins of all subblocks, one after another, see SubblockPins
+    private final short[] subblocks;
 
-    private final LinkedList<Position> recentPositions;
+    private TabuList recentPositions;
     private Position position;
-    private Integer subblockNumber;
+    private int subblockNumber;
     private int weight;
+    private double bestCost = Double.MAX_VALUE;
 
-    public CircuitElement(ElementType type, String blockname, Integer blockNumber, NetClass pinList) {
-        this(type, blockname, blockNumber, pinList, null, Collections.emptyList());
+    public CircuitElement(ElementType type, String blockname, int blockNumber, NetClass pinList) {
+        this(type, blockname, blockNumber, pinList, NO_SUBBLOCKS, SubblockPins.EMPTY);
     }
 
-    public CircuitElement(ElementType type, String blockname, Integer blockNumber, NetClass pinList,
+    public CircuitElement(ElementType type, String blockname, int blockNumber, NetClass pinList,
                           String subBlockName, List<String> subblock) {
+        this(type, blockname, blockNumber, pinList, new String[]{subBlockName}, SubblockPins.pack(subblock));
+    }
+
+    public CircuitElement(ElementType type, String blockname, int blockNumber, NetClass pinList,
+                          List<String> subBlockNames, List<List<String>> subblocks) {
+        this(type, blockname, blockNumber, pinList, subBlockNames.toArray(NO_SUBBLOCKS),
+                SubblockPins.packAll(subblocks));
+    }
+
+    CircuitElement(ElementType type, String blockname, int blockNumber, NetClass pinList, String[] subBlockNames,
+                   short[] subblocks) {
         this.type = type;
         this.blockName = blockname;
         this.blockNumber = blockNumber;
         this.pinList = pinList;
-        this.subBlockName = subBlockName;
-        this.subblock = subblock;
-        this.recentPositions = new LinkedList<>();
+        this.subBlockNames = subBlockNames;
+        this.subblocks = subblocks;
+        this.recentPositions = new TabuList(MAX_RECENT_POS);
         this.position = null;
         this.weight = 1;
         this.subblockNumber = 0;
@@ -53,9 +65,33 @@ public class CircuitElement {
         return pinList.collectIONets();
     }
 
+    public NetClass getNetClass() {
+
+        return this.pinList;
+    }
+
+    /**
+     * @return pins of the first subblock, empty for io blocks
+     */
     public List<String> getSubblock() {
+        return subBlockNames.length == 0 ? List.of() : getSubblock(0);
+    }
+
+    public List<String> getSubblock(int index) {
+        int length = subblocks.length / subBlockNames.length;
+        return SubblockPins.unpack(subblocks, index * length, (index + 1) * length);
+    }
+
+    public int getSubblockCount() {
+        return subBlockNames.length;
+    }
 
-        return this.subblock;
+    String[] getSubBlockNames() {
+        return subBlockNames;
+    }
+
+    short[] getPackedSubblocks() {
+        return subblocks;
     }
 
     public int getX() {
@@ -71,18 +107,17 @@ public class CircuitElement {
     }
 
     public void setWeight(int weight) {
+        if (position != null) pinList.changePadWeight(this.weight, weight, position);
         this.weight = weight;
     }
 
     public void calcWeight() {
-        weight = pinList.calcWeight();
+        setWeight(pinList.calcWeight());
     }
 
     public void setPosition(Position pos) {
-        recentPositions.add(pos);
-        if (recentPositions.size() > MAX_RECENT_POS)
-            recentPositions.removeFirst();
-        pinList.invalidateNetCosts();
+        recentPositions.add(pos.getX(), pos.getY());
+        pinList.movePad(weight, position, pos);
         position = pos;
     }
 
@@ -90,23 +125,56 @@ public class CircuitElement {
         return position;
     }
 
+    /**
+     * @return name of the first subblock, null for io blocks
+     */
     public String getSubBlockName() {
-        return subBlockName;
+        return subBlockNames.length == 0 ? null : subBlockNames[0];
+    }
+
+    public String getSubBlockName(int index) {
+        return subBlockNames[index];
     }
 
-    public Integer getBlockNumber() {
+    public int getBlockNumber() {
         return blockNumber;
     }
 
     public boolean knownPosition(Position pos) {
-        return recentPositions.contains(pos);
+        return recentPositions.contains(pos.getX(), pos.getY());
+    }
+
+    /**
+     * Sets the number of recent positions, that are known by the element. Known positions are cleared.
+     *
+     * @param tenure number of recent positions, the default of 2 positions against oscillation if 0 or less
+     */
+    public void setTabuTenure(int tenure) {
+        recentPositions = new TabuList(tenure > 0 ? tenure : MAX_RECENT_POS);
+    }
+
+    public TabuList getRecentPositions() {
+        return recentPositions;
+    }
+
+    public double getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * Keeps the lowest costs, the element has reached so far.
+     *
+     * @param cost current costs of the element
+     */
+    public void updateBestCost(double cost) {
+        bestCost = Math.min(bestCost, cost);
     }
 
-    public Integer getSubblockNumber() {
+    public int getSubblockNumber() {
         return subblockNumber;
     }
 
-    public void setSubblockNumber(Integer subblockNumber) {
+    public void setSubblockNumber(int subblockNumber) {
         this.subblockNumber = subblockNumber;
     }
 
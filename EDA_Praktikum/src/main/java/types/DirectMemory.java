@@ -0,0 +1,78 @@
+package types;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Allocation of direct buffers for the off-heap placement. All direct buffers of the jvm are limited by
+ * -XX:MaxDirectMemorySize, which defaults to the maximal heap size -Xmx. A placement with a small heap thus
+ * needs the limit to be raised explicitly, e.g. -Xmx256m -XX:MaxDirectMemorySize=8g. A failed allocation is
+ * reported with the limit and the option to raise it.
+ */
+public final class DirectMemory {
+
+    private DirectMemory() {
+    }
+
+    /**
+     * @return maximal size of all direct buffers in bytes
+     */
+    public static long limit() {
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            long limit = Long.parseLong(bean.getVMOption("MaxDirectMemorySize").getValue());
+            if (limit > 0) return limit;
+        } catch (RuntimeException e) {
+            // not a hotspot jvm, the default applies
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * @return bytes currently allocated by direct buffers
+     */
+    public static long used() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        }
+        return 0;
+    }
+
+    /**
+     * Checks, that the limit of the direct buffers can hold the given size at all.
+     *
+     * @param bytes   size of all buffers, that are needed
+     * @param purpose what the buffers are needed for
+     */
+    public static void require(long bytes, String purpose) {
+        if (bytes > limit()) throw tooSmall(bytes, purpose);
+    }
+
+    public static ByteBuffer bytes(int n) {
+        try {
+            return ByteBuffer.allocateDirect(n).order(ByteOrder.nativeOrder());
+        } catch (OutOfMemoryError e) {
+            throw tooSmall(n, "a buffer");
+        }
+    }
+
+    public static IntBuffer ints(int n) {
+        return bytes(4 * n).asIntBuffer();
+    }
+
+    public static DoubleBuffer doubles(int n) {
+        return bytes(8 * n).asDoubleBuffer();
+    }
+
+    private static IllegalStateException tooSmall(long bytes, String purpose) {
+        return new IllegalStateException("Direct memory of " + (limit() >> 20) + " MB (" + (used() >> 20)
+                + " MB used) is too small for " + purpose + " of " + (bytes >> 20) + " MB. Raise the limit with "
+                + "-XX:MaxDirectMemorySize.");
+    }
+}
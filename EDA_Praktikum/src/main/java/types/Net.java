@@ -16,9 +16,14 @@ public class Net {
 
     private boolean calculatedCostsValid = false;
 
+    // weighted sums over all placed pads, maintained on every move of a pad
+    private double weightedX = 0;
+    private double weightedY = 0;
+    private double totalWeight = 0;
+
     /* By VPR: Expected crossing counts for nets with different #'s of pins.  From *
      * ICCAD 94 pp. 690 - 695 (with linear interpolation applied by me).   */
-    private final double[] crossCount = new double[]{   /* [0..49] */
+    private static final double[] CROSS_COUNT = new double[]{   /* [0..49] */
             1.0, 1.0, 1.0, 1.0828, 1.1536, 1.2206, 1.2823, 1.3385, 1.3991, 1.4493, 1.4974, 1.5455, 1.5937, 1.6418,
             1.6899, 1.7304, 1.7709, 1.8114, 1.8519, 1.8924, 1.9288, 1.9652, 2.0015, 2.0379, 2.0743, 2.1061, 2.1379,
             2.1698, 2.2016, 2.2334, 2.2646, 2.2958, 2.3271, 2.3583, 2.3895, 2.4187, 2.4479, 2.4772, 2.5064, 2.5356,
@@ -29,6 +34,10 @@ public class Net {
         connectedPads = new ArrayList<>();
     }
 
+    public String getName() {
+        return name;
+    }
+
     public void addPad(CircuitElement pad) {
         connectedPads.add(pad);
     }
@@ -41,20 +50,68 @@ public class Net {
         calculatedCostsValid = false;
     }
 
+    /**
+     * Updates the weighted sums of the pad positions, after a pad has moved.
+     *
+     * @param weight weight of the pad
+     * @param oldPos previous position, null if the pad was not placed before
+     * @param newPos new position
+     */
+    public void movePad(int weight, Position oldPos, Position newPos) {
+        if (oldPos != null) {
+            weightedX -= weight * oldPos.getX();
+            weightedY -= weight * oldPos.getY();
+            totalWeight -= weight;
+        }
+        weightedX += weight * newPos.getX();
+        weightedY += weight * newPos.getY();
+        totalWeight += weight;
+        calculatedCostsValid = false;
+    }
+
+    /**
+     * Updates the weighted sums of the pad positions, after the weight of a placed pad has changed.
+     *
+     * @param oldWeight previous weight of the pad
+     * @param newWeight new weight of the pad
+     * @param pos       position of the pad
+     */
+    public void changePadWeight(int oldWeight, int newWeight, Position pos) {
+        weightedX += (newWeight - oldWeight) * pos.getX();
+        weightedY += (newWeight - oldWeight) * pos.getY();
+        totalWeight += newWeight - oldWeight;
+    }
+
+    public double getWeightedX() {
+        return weightedX;
+    }
+
+    public double getWeightedY() {
+        return weightedY;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
     /**
      * Calculates the crossings for the net. The cross count is an interpolated value by vpr.
      *
      * @return cross count
      */
-    public Double calcCrossings() {
-        double crossings = 0;
+    public double calcCrossings() {
+        return crossings(connectedPads.size());
+    }
 
-        if (connectedPads.size() > 50) {
-            crossings = 2.7933 + 0.02616 * (connectedPads.size() - 50);
-        } else {
-            crossings = crossCount[connectedPads.size() - 1];
-        }
-        return crossings;
+    /**
+     * Calculates the crossings for a net with the given number of pads.
+     *
+     * @param pads number of pads, at least 1
+     * @return cross count
+     */
+    public static double crossings(int pads) {
+        if (pads > 50) return 2.7933 + 0.02616 * (pads - 50);
+        return CROSS_COUNT[pads - 1];
     }
 
     /**
@@ -77,6 +134,44 @@ public class Net {
         return costs;
     }
 
+    /**
+     * Calculates the bb-costs of the net as if the two given pads were at the given positions. The
+     * placement and the cached costs are not changed.
+     *
+     * @param a    first pad
+     * @param posA position of the first pad
+     * @param b    second pad
+     * @param posB position of the second pad
+     * @return costs
+     */
+    public double calcCostsWithMove(CircuitElement a, Position posA, CircuitElement b, Position posB) {
+        int xMin = Integer.MAX_VALUE;
+        int yMin = Integer.MAX_VALUE;
+        int xMax = Integer.MIN_VALUE;
+        int yMax = Integer.MIN_VALUE;
+
+        for (CircuitElement element : connectedPads) {
+            int x;
+            int y;
+            if (element == a) {
+                x = posA.getX();
+                y = posA.getY();
+            } else if (element == b) {
+                x = posB.getX();
+                y = posB.getY();
+            } else {
+                x = element.getX();
+                y = element.getY();
+            }
+            xMin = Math.min(xMin, x);
+            yMin = Math.min(yMin, y);
+            xMax = Math.max(xMax, x);
+            yMax = Math.max(yMax, y);
+        }
+        double crossings = calcCrossings();
+        return (xMax - xMin + 1) * crossings + (yMax - yMin + 1) * crossings;
+    }
+
     /**
      * Determines the bounding box of the net.
      *
@@ -1,6 +1,7 @@
 package types;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -11,12 +12,18 @@ public class NetClass {
     private final List<Net> outPins = new ArrayList<>();
     private final List<Net> globalPins = new ArrayList<>();
 
+    // cached views, the pins do not change after parsing
+    private List<Net> ioNets;
+    private List<Net> allNets;
+
     public void add(Net net, ClassType classType) {
         switch (classType) {
             case INPUT -> inPins.add(net);
             case OUTPUT -> outPins.add(net);
             case GLOBAL -> globalPins.add(net);
         }
+        ioNets = null;
+        allNets = null;
     }
 
     public void addBlock(CircuitElement circuitElement) {
@@ -41,18 +48,46 @@ public class NetClass {
         return sum;
     }
 
-    public void invalidateNetCosts() {
+    /**
+     * Moves a block in all its nets, which updates their weighted sums and invalidates their costs.
+     */
+    public void movePad(int weight, Position oldPos, Position newPos) {
         for (Net net : collectAllNets()) {
-            net.invalidateCosts();
+            net.movePad(weight, oldPos, newPos);
         }
     }
 
+    public void changePadWeight(int oldWeight, int newWeight, Position pos) {
+        for (Net net : collectAllNets()) {
+            net.changePadWeight(oldWeight, newWeight, pos);
+        }
+    }
+
+    public List<Net> getInputNets() {
+        return Collections.unmodifiableList(inPins);
+    }
+
+    public List<Net> getOutputNets() {
+        return Collections.unmodifiableList(outPins);
+    }
+
+    public List<Net> getGlobalNets() {
+        return Collections.unmodifiableList(globalPins);
+    }
+
     public List<Net> collectIONets() {
-        return Stream.concat(inPins.stream(), outPins.stream()).collect(Collectors.toList());
+        if (ioNets == null) {
+            ioNets = Stream.concat(inPins.stream(), outPins.stream()).collect(Collectors.toUnmodifiableList());
+        }
+        return ioNets;
     }
 
     public List<Net> collectAllNets() {
-        return Stream.concat(Stream.concat(inPins.stream(), outPins.stream()), globalPins.stream()).collect(Collectors.toList());
+        if (allNets == null) {
+            allNets = Stream.concat(Stream.concat(inPins.stream(), outPins.stream()), globalPins.stream())
+                    .collect(Collectors.toUnmodifiableList());
+        }
+        return allNets;
     }
 
 
@@ -0,0 +1,211 @@
+package types;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of a parsed netlist: blocks, nets and their connections, but no placement. The snapshot
+ * can be shared by concurrent placements, each of them instantiates its own mutable blocks and nets.
+ */
+public final class NetlistTopology {
+
+    private final String[] netNames;
+    private final ElementType[] types;
+    private final String[] blockNames;
+    private final int[] blockNumbers;
+    private final String[][] subBlockNames;
+    private final short[][] subblocks;
+    // indices into netNames for each block and pin class
+    private final int[][] inputNets;
+    private final int[][] outputNets;
+    private final int[][] globalNets;
+
+    private NetlistTopology(String[] netNames, ElementType[] types, String[] blockNames, int[] blockNumbers,
+                            String[][] subBlockNames, short[][] subblocks, int[][] inputNets,
+                            int[][] outputNets, int[][] globalNets) {
+        this.netNames = netNames;
+        this.types = types;
+        this.blockNames = blockNames;
+        this.blockNumbers = blockNumbers;
+        this.subBlockNames = subBlockNames;
+        this.subblocks = subblocks;
+        this.inputNets = inputNets;
+        this.outputNets = outputNets;
+        this.globalNets = globalNets;
+    }
+
+    /**
+     * Takes a snapshot of a parsed netlist.
+     *
+     * @param blocks blocks of the netlist
+     * @param nets   all nets of the netlist
+     * @return topology of the netlist
+     */
+    public static NetlistTopology of(List<CircuitElement> blocks, List<Net> nets) {
+        Map<Net, Integer> netIndex = new IdentityHashMap<>();
+        String[] netNames = new String[nets.size()];
+        for (int i = 0; i < nets.size(); i++) {
+            netIndex.put(nets.get(i), i);
+            netNames[i] = nets.get(i).getName();
+        }
+        int n = blocks.size();
+        ElementType[] types = new ElementType[n];
+        String[] blockNames = new String[n];
+        int[] blockNumbers = new int[n];
+        String[][] subBlockNames = new String[n][];
+        short[][] subblocks = new short[n][];
+        int[][] inputNets = new int[n][];
+        int[][] outputNets = new int[n][];
+        int[][] globalNets = new int[n][];
+        for (int i = 0; i < n; i++) {
+            CircuitElement block = blocks.get(i);
+            types[i] = block.getType();
+            blockNames[i] = block.getBlockName();
+            blockNumbers[i] = block.getBlockNumber();
+            subBlockNames[i] = block.getSubBlockNames();
+            // the subblocks are never modified, thus they are shared with all instances
+            subblocks[i] = block.getPackedSubblocks();
+            inputNets[i] = indices(block.getNetClass().getInputNets(), netIndex);
+            outputNets[i] = indices(block.getNetClass().getOutputNets(), netIndex);
+            globalNets[i] = indices(block.getNetClass().getGlobalNets(), netIndex);
+        }
+        return new NetlistTopology(netNames, types, blockNames, blockNumbers, subBlockNames, subblocks, inputNets,
+                outputNets, globalNets);
+    }
+
+    private static int[] indices(List<Net> nets, Map<Net, Integer> netIndex) {
+        int[] result = new int[nets.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = netIndex.get(nets.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Creates new, unplaced blocks and nets of the netlist. Blocks and nets are in the same order as in the
+     * parsed netlist.
+     *
+     * @return blocks and nets
+     */
+    public Instance instantiate() {
+        List<Net> nets = new ArrayList<>(netNames.length);
+        for (String name : netNames) {
+            nets.add(new Net(name));
+        }
+        List<CircuitElement> blocks = new ArrayList<>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            NetClass netClass = new NetClass();
+            for (int net : inputNets[i]) netClass.add(nets.get(net), ClassType.INPUT);
+            for (int net : outputNets[i]) netClass.add(nets.get(net), ClassType.OUTPUT);
+            for (int net : globalNets[i]) netClass.add(nets.get(net), ClassType.GLOBAL);
+            blocks.add(new CircuitElement(types[i], blockNames[i], blockNumbers[i], netClass, subBlockNames[i],
+                    subblocks[i]));
+        }
+        return new Instance(blocks, nets);
+    }
+
+    public int getBlockCount() {
+        return types.length;
+    }
+
+    public int getNetCount() {
+        return netNames.length;
+    }
+
+    public ElementType getType(int block) {
+        return types[block];
+    }
+
+    public String getBlockName(int block) {
+        return blockNames[block];
+    }
+
+    public int getBlockNumber(int block) {
+        return blockNumbers[block];
+    }
+
+    /**
+     * The net arrays are shared with the snapshot and must not be modified.
+     *
+     * @return indices of the nets at the input pins of the block
+     */
+    public int[] getInputNets(int block) {
+        return inputNets[block];
+    }
+
+    /**
+     * @return indices of the nets at the output pins of the block
+     */
+    public int[] getOutputNets(int block) {
+        return outputNets[block];
+    }
+
+    /**
+     * @return indices of the nets at the global pins of the block
+     */
+    public int[] getGlobalNets(int block) {
+        return globalNets[block];
+    }
+
+    /**
+     * Rough estimate of the heap usage of the snapshot.
+     *
+     * @return size in bytes
+     */
+    public long estimateSize() {
+        long size = 0;
+        for (String name : netNames) {
+            size += 48 + name.length();
+        }
+        for (int i = 0; i < types.length; i++) {
+            size += 48 + blockNames[i].length() + 3 * 16;
+            size += 4L * (inputNets[i].length + outputNets[i].length + globalNets[i].length);
+            // subblock names are usually the pooled block names
+            size += 16 + 4L * subBlockNames[i].length;
+            for (String name : subBlockNames[i]) {
+                if (name != blockNames[i]) size += 48 + name.length();
+            }
+            size += 16 + 2L * subblocks[i].length;
+        }
+        return size;
+    }
+
+    /**
+     * Rough estimate of the heap usage of one instance of the netlist, with compressed object pointers. Names
+     * and subblock pins are shared with the snapshot and not counted.
+     *
+     * @return size in bytes
+     */
+    public long estimateInstanceSize() {
+        // net with its list of pads
+        long size = netNames.length * (56L + 40);
+        for (int i = 0; i < types.length; i++) {
+            int pins = inputNets[i].length + outputNets[i].length + globalNets[i].length;
+            // block, net class with three pin lists and two cached views, tabu list, position
+            size += 64 + 32 + 3 * 40 + 2 * 32 + 48 + 24;
+            // references to the pins in the net class and the views, reference to the block in each net
+            size += 4L * 4 * pins;
+        }
+        return size;
+    }
+
+    /**
+     * Mutable blocks and nets of one placement.
+     */
+    public static class Instance {
+        private final List<CircuitElement> blocks;
+        private final List<Net> nets;
+
+        private Instance(List<CircuitElement> blocks, List<Net> nets) {
+            this.blocks = blocks;
+            this.nets = nets;
+        }
+
+        public List<CircuitElement> getBlocks() {
+            return blocks;
+        }
+
+        public List<Net> getNets() {
+            return nets;
+        }
+    }
+}
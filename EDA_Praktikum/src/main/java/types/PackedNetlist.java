@@ -0,0 +1,159 @@
+package types;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Netlist, that is kept outside of the heap in direct buffers, for placements of very large netlists. Blocks
+ * and nets are addressed by their index, the block number of a block is its index. The pins are kept in
+ * compressed rows: the nets of each block, the io nets first, followed by the global nets, and the blocks of
+ * each net. A block connected to a net by several pins is a pin of the net several times, as in {@link Net}.
+ * <p>
+ * Net names are only needed while parsing, they are not kept.
+ */
+public final class PackedNetlist {
+
+    private static final ElementType[] TYPES = ElementType.values();
+
+    private final int blockCount;
+    private final int netCount;
+    private final ByteBuffer types;
+    private final IntBuffer nameStart;
+    private final ByteBuffer names;
+    private final IntBuffer blockPinStart;
+    private final IntBuffer blockIoEnd;
+    private final IntBuffer blockPins;
+    private final IntBuffer netPinStart;
+    private final IntBuffer netPins;
+
+    /**
+     * Creates the netlist from filled block rows, the rows of the nets are derived from them.
+     *
+     * @param types         ordinal of the element type of each block
+     * @param nameStart     start of the name of each block in the names, blockCount + 1 entries
+     * @param names         utf-8 encoded names of all blocks
+     * @param blockPinStart start of the pins of each block, blockCount + 1 entries
+     * @param blockIoEnd    end of the io pins of each block
+     * @param blockPins     net of each pin
+     * @param netCount      number of nets
+     */
+    public PackedNetlist(ByteBuffer types, IntBuffer nameStart, ByteBuffer names, IntBuffer blockPinStart,
+                         IntBuffer blockIoEnd, IntBuffer blockPins, int netCount) {
+        this.blockCount = types.capacity();
+        this.netCount = netCount;
+        this.types = types;
+        this.nameStart = nameStart;
+        this.names = names;
+        this.blockPinStart = blockPinStart;
+        this.blockIoEnd = blockIoEnd;
+        this.blockPins = blockPins;
+        this.netPinStart = DirectMemory.ints(netCount + 1);
+        this.netPins = DirectMemory.ints(blockPins.capacity());
+        buildNetPins();
+    }
+
+    private void buildNetPins() {
+        int pins = blockPinStart.get(blockCount);
+        // count the pins of each net, then use the start of each net as cursor while filling
+        for (int p = 0; p < pins; p++) {
+            int net = blockPins.get(p);
+            netPinStart.put(net + 1, netPinStart.get(net + 1) + 1);
+        }
+        for (int net = 0; net < netCount; net++) {
+            netPinStart.put(net + 1, netPinStart.get(net + 1) + netPinStart.get(net));
+        }
+        for (int i = 0; i < blockCount; i++) {
+            for (int p = blockPinStart.get(i); p < blockPinStart.get(i + 1); p++) {
+                int net = blockPins.get(p);
+                int cursor = netPinStart.get(net);
+                netPins.put(cursor, i);
+                netPinStart.put(net, cursor + 1);
+            }
+        }
+        // the cursors have moved to the start of the next net
+        for (int net = netCount; net > 0; net--) {
+            netPinStart.put(net, netPinStart.get(net - 1));
+        }
+        netPinStart.put(0, 0);
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    public int getNetCount() {
+        return netCount;
+    }
+
+    public int getPinCount() {
+        return blockPinStart.get(blockCount);
+    }
+
+    public ElementType getType(int block) {
+        return TYPES[types.get(block)];
+    }
+
+    public String getBlockName(int block) {
+        byte[] name = new byte[nameStart.get(block + 1) - nameStart.get(block)];
+        names.get(nameStart.get(block), name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return index of the first pin of the block
+     */
+    public int getPinStart(int block) {
+        return blockPinStart.get(block);
+    }
+
+    /**
+     * @return index after the last io pin of the block, the global pins follow
+     */
+    public int getIoEnd(int block) {
+        return blockIoEnd.get(block);
+    }
+
+    /**
+     * @return index after the last pin of the block
+     */
+    public int getPinEnd(int block) {
+        return blockPinStart.get(block + 1);
+    }
+
+    /**
+     * @return net of the pin
+     */
+    public int getNet(int pin) {
+        return blockPins.get(pin);
+    }
+
+    /**
+     * @return index of the first pin of the net in the net rows
+     */
+    public int getNetPinStart(int net) {
+        return netPinStart.get(net);
+    }
+
+    /**
+     * @return index after the last pin of the net in the net rows
+     */
+    public int getNetPinEnd(int net) {
+        return netPinStart.get(net + 1);
+    }
+
+    /**
+     * @return block of the pin in the net rows
+     */
+    public int getBlock(int netPin) {
+        return netPins.get(netPin);
+    }
+
+    /**
+     * @return bytes allocated outside of the heap
+     */
+    public long getOffHeapSize() {
+        return types.capacity() + names.capacity() + 4L * (nameStart.capacity() + blockPinStart.capacity()
+                + blockIoEnd.capacity() + blockPins.capacity() + netPinStart.capacity() + netPins.capacity());
+    }
+}
@@ -0,0 +1,22 @@
+package types;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool of the names of a netlist. Equal names share one string, e.g. the name of a clb and its subblock or
+ * the name of a net on all its pins.
+ */
+public class StringPool {
+
+    private final Map<String, String> pool = new HashMap<>();
+
+    public String intern(String s) {
+        String pooled = pool.putIfAbsent(s, s);
+        return pooled != null ? pooled : s;
+    }
+
+    public int size() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,72 @@
+package types;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs the pin list of a subblock into shorts: clb pin numbers are kept, open pins and pins connected to the
+ * output of another subblock (ble_k) are encoded as negative numbers. The subblocks of a clb have the same number
+ * of pins, they are packed one after another.
+ */
+final class SubblockPins {
+
+    private static final short OPEN = -1;
+    // ble_k is stored as BLE_OFFSET - k
+    private static final short BLE_OFFSET = -2;
+
+    static final short[] EMPTY = new short[0];
+
+    private SubblockPins() {
+    }
+
+    static short[] pack(List<String> pins) {
+        if (pins.isEmpty()) return EMPTY;
+        short[] packed = new short[pins.size()];
+        for (int i = 0; i < packed.length; i++) {
+            String pin = pins.get(i);
+            try {
+                if (pin.equals("open")) {
+                    packed[i] = OPEN;
+                } else if (pin.startsWith("ble_")) {
+                    packed[i] = (short) (BLE_OFFSET - Integer.parseInt(pin.substring(4)));
+                } else {
+                    packed[i] = Short.parseShort(pin);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Unknown subblock pin '" + pin + "'.", e);
+            }
+        }
+        return packed;
+    }
+
+    static short[] packAll(List<List<String>> subblocks) {
+        if (subblocks.isEmpty()) return EMPTY;
+        int length = subblocks.get(0).size();
+        short[] packed = new short[subblocks.size() * length];
+        for (int s = 0; s < subblocks.size(); s++) {
+            if (subblocks.get(s).size() != length)
+                throw new IllegalStateException("The subblocks of a clb have different numbers of pins.");
+            System.arraycopy(pack(subblocks.get(s)), 0, packed, s * length, length);
+        }
+        return packed;
+    }
+
+    static List<String> unpack(short[] packed) {
+        return unpack(packed, 0, packed.length);
+    }
+
+    static List<String> unpack(short[] packed, int from, int to) {
+        List<String> pins = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            short pin = packed[i];
+            if (pin == OPEN) {
+                pins.add("open");
+            } else if (pin < 0) {
+                pins.add("ble_" + (BLE_OFFSET - pin));
+            } else {
+                pins.add(String.valueOf(pin));
+            }
+        }
+        return pins;
+    }
+}
@@ -0,0 +1,74 @@
+package types;
+
+/**
+ * Fixed size ring buffer of recently visited positions. Positions are stored as packed primitives, thus adding
+ * and checking positions does not allocate.
+ */
+public class TabuList {
+
+    private final int[] entries;
+    private int head;
+    private int size;
+
+    /**
+     * @param tenure number of recent positions, that are remembered
+     */
+    public TabuList(int tenure) {
+        this.entries = new int[Math.max(tenure, 0)];
+    }
+
+    private static int pack(int x, int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
+
+    /**
+     * Adds a position and drops the oldest one, if the tenure is reached.
+     */
+    public void add(int x, int y) {
+        if (entries.length == 0) return;
+        entries[head] = pack(x, y);
+        head = (head + 1) % entries.length;
+        size = Math.min(size + 1, entries.length);
+    }
+
+    public boolean contains(int x, int y) {
+        int key = pack(x, y);
+        for (int i = 0; i < size; i++) {
+            if (entries[i] == key) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return packed positions, the oldest first
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int oldest = size < entries.length ? 0 : head;
+        for (int i = 0; i < size; i++) {
+            result[i] = entries[(oldest + i) % entries.length];
+        }
+        return result;
+    }
+
+    /**
+     * Adds packed positions as returned by {@link #toArray()}, the oldest first.
+     */
+    public void addAll(int[] packed) {
+        for (int key : packed) {
+            if (entries.length == 0) return;
+            entries[head] = key;
+            head = (head + 1) % entries.length;
+            size = Math.min(size + 1, entries.length);
+        }
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public int getTenure() {
+        return entries.length;
+    }
+}
@@ -1,6 +1,9 @@
 package writer;
 
+import profiling.PlacementWriteEvent;
+import types.BlockPositions;
 import types.CircuitElement;
+import types.PackedNetlist;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -11,6 +14,8 @@ public class PlacementWriter {
 
     public void write(String destinationFileName, File netlistFile, File architectureFile,
                       List<CircuitElement> placements, Integer xDimension, Integer yDimension) {
+        PlacementWriteEvent event = new PlacementWriteEvent();
+        event.begin();
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(destinationFileName))) {
             writer.write("Netlist file: " + netlistFile.getAbsolutePath() + "  Architecture file: " + architectureFile.getAbsolutePath() + "\n");
             writer.write("Array size: " + xDimension + " x " + yDimension + " logic blocks\n\n");
@@ -26,6 +31,45 @@ public class PlacementWriter {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        if (event.shouldCommit()) {
+            event.circuit = netlistFile.getName();
+            event.destination = destinationFileName;
+            event.blocks = placements.size();
+            event.xDimension = xDimension;
+            event.yDimension = yDimension;
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes a placement, that is given by the positions of the blocks of an off-heap netlist. The blocks are
+     * written in netlist order, the block number of a block is its index.
+     */
+    public void write(String destinationFileName, File netlistFile, File architectureFile, PackedNetlist netlist,
+                      BlockPositions positions, Integer xDimension, Integer yDimension) {
+        PlacementWriteEvent event = new PlacementWriteEvent();
+        event.begin();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(destinationFileName))) {
+            writer.write("Netlist file: " + netlistFile.getAbsolutePath() + "  Architecture file: " + architectureFile.getAbsolutePath() + "\n");
+            writer.write("Array size: " + xDimension + " x " + yDimension + " logic blocks\n\n");
+            writer.write(formatLine("#block name", "x", "y", "subblk", "block number\n"));
+            writer.write(formatLine("#----------", "--", "--", "------", "------------\n"));
+            for (int i = 0; i < netlist.getBlockCount(); i++) {
+                writer.write(formatLine(netlist.getBlockName(i), String.valueOf(positions.getX(i)),
+                        String.valueOf(positions.getY(i)), String.valueOf(positions.getSubblockNumber(i)),
+                        "#" + i) + "\n");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (event.shouldCommit()) {
+            event.circuit = netlistFile.getName();
+            event.destination = destinationFileName;
+            event.blocks = netlist.getBlockCount();
+            event.xDimension = xDimension;
+            event.yDimension = yDimension;
+            event.commit();
+        }
     }
 
     private String formatLine(String blockName, String x, String y, String subblk, String blockNumber) {
@@ -40,7 +84,7 @@ public class PlacementWriter {
             }
 
         }
-        res.sort(Comparator.comparing(CircuitElement::getBlockNumber));
+        res.sort(Comparator.comparingInt(CircuitElement::getBlockNumber));
         return res;
     }
 }
@@ -0,0 +1,69 @@
+package algorithm;
+
+import benchmark.NetlistGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.ArchitectureParser;
+import parser.NetlistParser;
+import parser.PackedNetlistParser;
+import parser.PlacementParser;
+import types.Architecture;
+import types.CircuitElement;
+import types.PackedNetlist;
+import writer.PlacementWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapZFTAlgorithmTest {
+    private final static String TEST_PATH = "./src/test/java/algorithm/test.net";
+    private final static String ARCH_PATH = "./src/test/java/algorithm/4lut_sanitized.arch";
+    private Architecture arch;
+
+    @BeforeEach
+    void setUp() {
+        arch = new ArchitectureParser().parse(new File(ARCH_PATH));
+    }
+
+    @Test
+    void Test_TestNet(@TempDir Path dir) throws InterruptedException {
+        PackedNetlist netlist = new PackedNetlistParser().parse(new File(TEST_PATH), arch);
+        assertEquals(14, netlist.getBlockCount());
+        placeAndCompare(new File(TEST_PATH), netlist, dir);
+    }
+
+    @Test
+    void Test_GeneratedNet(@TempDir Path dir) throws IOException, InterruptedException {
+        File file = dir.resolve("generated.net").toFile();
+        new NetlistGenerator(6000, 64, 64).write(file);
+        PackedNetlist netlist = new PackedNetlistParser().parse(file, arch);
+        NetlistParser parser = new NetlistParser();
+        List<CircuitElement> blocks = parser.parse(file, arch);
+        assertEquals(blocks.size(), netlist.getBlockCount());
+        assertEquals(parser.getNets().size(), netlist.getNetCount());
+        placeAndCompare(file, netlist, dir);
+    }
+
+    /**
+     * Places the netlist and compares the costs with the costs of the written placement on the heap.
+     */
+    private void placeAndCompare(File file, PackedNetlist netlist, Path dir) throws InterruptedException {
+        OffHeapZFTAlgorithm algorithm = new OffHeapZFTAlgorithm(netlist, arch.getIoRate());
+        algorithm.run(10, 4);
+        assertEquals(0, algorithm.checkConsistency());
+        double costs = algorithm.calcTotalCosts();
+
+        File placement = dir.resolve("offheap.place").toFile();
+        new PlacementWriter().write(placement.getPath(), file, new File(ARCH_PATH), netlist, algorithm,
+                algorithm.getXDimensionRespectively(), algorithm.getYDimensionRespectively());
+        NetlistParser parser = new NetlistParser();
+        List<CircuitElement> blocks = parser.parse(file, arch);
+        assertEquals(blocks.size(), new PlacementParser().parse(placement, blocks));
+        assertEquals(new CostEvaluator(blocks, parser.getNets()).evaluate(), costs, costs * 1e-12);
+    }
+}
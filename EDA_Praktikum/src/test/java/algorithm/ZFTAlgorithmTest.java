@@ -1,20 +1,35 @@
 package algorithm;
 
+import benchmark.NetlistGenerator;
+import checker.PlacementChecker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.ArchitectureParser;
 import parser.NetlistParser;
 import types.Architecture;
 import types.CircuitElement;
 import types.ClassType;
+import types.Net;
+import types.Position;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ZFTAlgorithmTest {
     private final static String TEST_PATH = "./src/test/java/algorithm/test.net";
+    private final static String ARCH_PATH = "./src/test/java/algorithm/4lut_sanitized.arch";
     private Architecture arch;
     private NetlistParser parser;
 
@@ -54,4 +69,367 @@ class ZFTAlgorithmTest {
             assertEquals(14, algorithm.getPlacementsAsList().size());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void Test_Multilevel() throws InterruptedException {
+        List<CircuitElement> elems = parser.parse(new File(TEST_PATH), arch);
+        MultilevelPlacer placer = new MultilevelPlacer(elems, parser.getNets(), arch, false);
+        placer.run(4, 4);
+        ZFTAlgorithm algorithm = placer.getAlgorithm();
+        assertEquals(8, algorithm.getLogicElements().size());
+        assertEquals(14, algorithm.getPlacementsAsList().size());
+        assertEquals(8, algorithm.getLogicElements().stream().map(CircuitElement::getPosition).distinct().count());
+    }
+
+    @Test
+    void Test_MultilevelGenerated(@TempDir Path dir) throws IOException, InterruptedException {
+        // enough clbs to coarsen over several levels
+        File netlist = dir.resolve("generated.net").toFile();
+        new NetlistGenerator(4000, 64, 64).write(netlist);
+        Architecture generatedArch = new ArchitectureParser().parse(new File(ARCH_PATH));
+        NetlistParser generatedParser = new NetlistParser();
+        List<CircuitElement> elems = generatedParser.parse(netlist, generatedArch);
+        MultilevelPlacer placer = new MultilevelPlacer(elems, generatedParser.getNets(), generatedArch, false);
+        placer.run(4, 4);
+        ZFTAlgorithm algorithm = placer.getAlgorithm();
+        assertTrue(placer.getLevelCount() > 1);
+        // the subblock numbers of the io pads are assigned with the list of placements
+        assertEquals(List.of(), new PlacementChecker(generatedArch).check(algorithm.getPlacementsAsList(),
+                algorithm.getXDimensionRespectively(), algorithm.getYDimensionRespectively()));
+        double multilevel = algorithm.calcTotalCosts();
+
+        NetlistParser flatParser = new NetlistParser();
+        ZFTAlgorithm flat = new ZFTAlgorithm(flatParser.parse(netlist, generatedArch), flatParser.getNets(),
+                generatedArch, true, false);
+        flat.run(4, 4);
+        assertTrue(multilevel <= flat.calcTotalCosts(), multilevel + " > " + flat.calcTotalCosts());
+    }
+
+    @Test
+    void Test_AnalyticalInit() {
+        List<CircuitElement> elems = parser.parse(new File(TEST_PATH), arch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, InitStrategy.ANALYTICAL, false);
+        assertEquals(14, algorithm.getPlacementsAsList().size());
+        assertEquals(8, algorithm.getLogicElements().stream().map(CircuitElement::getPosition).distinct().count());
+    }
+
+    @Test
+    void Test_ClusterGrowthInit(@TempDir Path dir) throws IOException {
+        File netlist = dir.resolve("generated.net").toFile();
+        new NetlistGenerator(2000, 64, 64).write(netlist);
+        Architecture generatedArch = new ArchitectureParser().parse(new File(ARCH_PATH));
+        NetlistParser generatedParser = new NetlistParser();
+        List<CircuitElement> elems = generatedParser.parse(netlist, generatedArch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, generatedParser.getNets(), generatedArch,
+                InitStrategy.CLUSTER_GROWTH, false);
+        assertEquals(List.of(), new PlacementChecker(generatedArch).check(algorithm.getPlacementsAsList(),
+                algorithm.getXDimensionRespectively(), algorithm.getYDimensionRespectively()));
+    }
+
+    @Test
+    void Test_CostEvaluator(@TempDir Path dir) throws IOException, InterruptedException {
+        List<CircuitElement> elems = parser.parse(new File(TEST_PATH), arch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, true, false);
+        algorithm.run(2, 4);
+        assertEquals(sumOfNetCosts(parser.getNets()), new CostEvaluator(elems, parser.getNets()).evaluate(), 1e-9);
+
+        // enough pins to evaluate the nets in several ranges
+        File netlist = dir.resolve("generated.net").toFile();
+        new NetlistGenerator(6000, 64, 64).write(netlist);
+        Architecture generatedArch = new ArchitectureParser().parse(new File(ARCH_PATH));
+        NetlistParser generatedParser = new NetlistParser();
+        List<CircuitElement> generated = generatedParser.parse(netlist, generatedArch);
+        List<Net> nets = generatedParser.getNets();
+        assertTrue(nets.stream().mapToInt(net -> net.getConnectedPads().size()).sum() > 1 << 14);
+        new ZFTAlgorithm(generated, nets, generatedArch, true, false);
+        double expected = sumOfNetCosts(nets);
+        assertEquals(expected, new CostEvaluator(generated, nets).evaluate(), expected * 1e-12);
+    }
+
+    @Test
+    void Test_SwitchCostDelta(@TempDir Path dir) throws IOException {
+        // block [283] gets its own output as input, thus it is connected to a net by two pins
+        String text = Files.readString(Path.of(TEST_PATH))
+                .replace("pinlist: i_9_ i_10_ [343] open [283] open", "pinlist: i_9_ i_10_ [343] [283] [283] open")
+                .replace("subblock: [283] 0 1 open open 4 open", "subblock: [283] 0 1 2 3 4 open");
+        File netlist = dir.resolve("feedback.net").toFile();
+        Files.writeString(netlist.toPath(), text);
+        List<CircuitElement> elems = parser.parse(netlist, arch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, true, false);
+        List<CircuitElement> logic = algorithm.getLogicElements();
+        assertTrue(logic.stream().anyMatch(elem -> new HashSet<>(elem.getPinList()).size() < elem.getPinList().size()));
+
+        for (CircuitElement a : logic) {
+            for (CircuitElement b : logic) {
+                if (a == b) continue;
+                double delta = algorithm.calcSwitchCostDelta(a, b);
+                double before = algorithm.calcTotalCosts();
+                Map<CircuitElement, Position> switched = new HashMap<>();
+                for (CircuitElement elem : logic) {
+                    switched.put(elem, elem == a ? b.getPosition() : elem == b ? a.getPosition() : elem.getPosition());
+                }
+                algorithm.applyLogicPlacement(switched);
+                assertEquals(algorithm.calcTotalCosts() - before, delta, 1e-9,
+                        a.getBlockName() + " <-> " + b.getBlockName());
+            }
+        }
+    }
+
+    @Test
+    void Test_FanoutNormalisedZFTPos(@TempDir Path dir) throws IOException, InterruptedException {
+        File netlist = dir.resolve("generated.net").toFile();
+        new NetlistGenerator(500, 32, 32).write(netlist);
+        Architecture generatedArch = new ArchitectureParser().parse(new File(ARCH_PATH));
+        NetlistParser generatedParser = new NetlistParser();
+        List<CircuitElement> elems = generatedParser.parse(netlist, generatedArch);
+        assertTrue(generatedParser.getNets().stream().anyMatch(net -> net.getConnectedPads().size() > 4));
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, generatedParser.getNets(), generatedArch, true, false);
+        // calculates the weights of the blocks
+        algorithm.run(0, 4);
+
+        int normalisedPositions = 0;
+        for (CircuitElement elem : algorithm.getLogicElements()) {
+            for (int threshold : new int[]{1, 4, Integer.MAX_VALUE}) {
+                algorithm.setFanoutThreshold(threshold);
+                Position expected = zftPos(elem, threshold);
+                assertEquals(expected, algorithm.calculateZFTPos(elem), elem.getBlockName() + ", " + threshold);
+                if (threshold == 1 && !expected.equals(zftPos(elem, Integer.MAX_VALUE))) normalisedPositions++;
+            }
+        }
+        assertTrue(normalisedPositions > 0);
+    }
+
+    @Test
+    void Test_IncrementalNetSums(@TempDir Path dir) throws IOException, InterruptedException {
+        File netlist = dir.resolve("generated.net").toFile();
+        new NetlistGenerator(1000, 32, 32).write(netlist);
+        Architecture generatedArch = new ArchitectureParser().parse(new File(ARCH_PATH));
+        NetlistParser generatedParser = new NetlistParser();
+        List<CircuitElement> elems = generatedParser.parse(netlist, generatedArch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, generatedParser.getNets(), generatedArch, true, false);
+        // moves to free positions and switches in the search area, the tabu search mode allows known positions
+        algorithm.setTabuTenure(4);
+        algorithm.run(10, 4);
+
+        for (Net net : generatedParser.getNets()) {
+            double x = 0;
+            double y = 0;
+            double weight = 0;
+            for (CircuitElement pad : net.getConnectedPads()) {
+                x += pad.getWeight() * pad.getX();
+                y += pad.getWeight() * pad.getY();
+                weight += pad.getWeight();
+            }
+            assertEquals(x, net.getWeightedX(), net.getName());
+            assertEquals(y, net.getWeightedY(), net.getName());
+            assertEquals(weight, net.getTotalWeight(), net.getName());
+        }
+    }
+
+    @Test
+    void Test_TabuAspiration() {
+        List<CircuitElement> elems = parser.parse(new File(TEST_PATH), arch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, true, false);
+        algorithm.setTabuTenure(8);
+        List<CircuitElement> logic = algorithm.getLogicElements();
+        CircuitElement a = null;
+        CircuitElement b = null;
+        for (int i = 0; i < logic.size() && a == null; i++) {
+            for (int j = i + 1; j < logic.size() && a == null; j++) {
+                if (algorithm.calcSwitchCostDelta(logic.get(i), logic.get(j)) != 0) {
+                    a = logic.get(i);
+                    b = logic.get(j);
+                }
+            }
+        }
+        assertNotNull(a);
+        Map<CircuitElement, Position> start = placement(logic);
+        Map<CircuitElement, Position> switched = new HashMap<>(start);
+        switched.put(a, b.getPosition());
+        switched.put(b, a.getPosition());
+        // the switch of a and b reduces the costs
+        if (algorithm.calcSwitchCostDelta(a, b) > 0) start = switched;
+        switched = new HashMap<>(start);
+        switched.put(a, start.get(b));
+        switched.put(b, start.get(a));
+        // a visits the position of b, which is tabu then
+        algorithm.applyLogicPlacement(switched);
+        algorithm.applyLogicPlacement(start);
+        assertTrue(a.knownPosition(b.getPosition()));
+        double costAfterSwitch = 0;
+        for (Net net : a.getPinList()) {
+            costAfterSwitch += net.calcCostsWithMove(a, b.getPosition(), b, a.getPosition());
+        }
+
+        // the switch leads to the best costs of a so far
+        a.updateBestCost(costAfterSwitch + 1);
+        assertTrue(algorithm.switchLogicBlocks(a, b));
+        assertEquals(start.get(b), a.getPosition());
+        assertEquals(costAfterSwitch, a.getBestCost(), 1e-9);
+
+        // the same switch does not improve on the best costs
+        algorithm.applyLogicPlacement(start);
+        assertFalse(algorithm.switchLogicBlocks(a, b));
+        assertEquals(start.get(a), a.getPosition());
+
+        // a move to a free position updates the best costs as well, known positions are cleared
+        algorithm.setTabuTenure(8);
+        CircuitElement c = logic.get(0) == a ? logic.get(1) : logic.get(0);
+        int size = algorithm.getXDimensionRespectively();
+        Position free = null;
+        for (int x = 1; x <= size && free == null; x++) {
+            for (int y = 1; y <= size && free == null; y++) {
+                Position pos = new Position(x, y);
+                if (logic.stream().noneMatch(elem -> elem.getPosition().equals(pos))) free = pos;
+            }
+        }
+        assertNotNull(free);
+        double bestCostOfC = c.getBestCost();
+        assertTrue(algorithm.switchLogicBlockPosition(c, free));
+        assertEquals(Math.min(bestCostOfC, c.calcCosts()), c.getBestCost(), 1e-9);
+    }
+
+    @Test
+    void Test_Checkpoint(@TempDir Path dir) throws IOException, InterruptedException {
+        // a run of 0 iterations writes the initial placement
+        File initial = dir.resolve("initial.ckpt").toFile();
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(parser.parse(new File(TEST_PATH), arch), parser.getNets(), arch,
+                true, false);
+        algorithm.setCheckpoint(initial, 1);
+        algorithm.run(0, 4);
+        PlacementCheckpoint start = PlacementCheckpoint.read(initial);
+        assertEquals(0, start.getIteration());
+        assertEquals(14, start.getBlockCount());
+
+        File interrupted = dir.resolve("interrupted.ckpt").toFile();
+        ZFTAlgorithm first = resume(start);
+        first.setCheckpoint(interrupted, 1);
+        first.run(1, 4);
+        PlacementCheckpoint checkpoint = PlacementCheckpoint.read(interrupted);
+        assertEquals(1, checkpoint.getIteration());
+
+        ZFTAlgorithm resumed = resume(checkpoint);
+        resumed.run(20, 4);
+        ZFTAlgorithm uninterrupted = resume(start);
+        uninterrupted.run(20, 4);
+        assertEquals(uninterrupted.calcTotalCosts(), resumed.calcTotalCosts(), 1e-9);
+
+        byte[] bytes = Files.readAllBytes(interrupted.toPath());
+        // last byte before the checksum
+        bytes[bytes.length - 9] ^= 1;
+        Files.write(interrupted.toPath(), bytes);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> PlacementCheckpoint.read(interrupted));
+        assertTrue(e.getMessage().contains("corrupted"));
+    }
+
+    @Test
+    void Test_DetailedPlacement() throws InterruptedException {
+        List<CircuitElement> elems = parser.parse(new File(TEST_PATH), arch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, true, false);
+        double before = algorithm.calcTotalCosts();
+        new DetailedPlacer(algorithm, parser.getNets()).run(10);
+        assertTrue(algorithm.calcTotalCosts() <= before);
+        assertEquals(14, algorithm.getPlacementsAsList().size());
+        assertEquals(List.of(), new PlacementChecker(arch).check(elems, algorithm.getXDimensionRespectively(),
+                algorithm.getYDimensionRespectively()));
+    }
+
+    @Test
+    void Test_PadPlacement() {
+        List<CircuitElement> elems = parser.parse(new File(TEST_PATH), arch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, true, false);
+        List<CircuitElement> pads = algorithm.getIoElements();
+        int size = algorithm.getXDimensionRespectively();
+        List<Position> positions = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            positions.addAll(List.of(new Position(0, i), new Position(size + 1, i), new Position(i, 0),
+                    new Position(i, size + 1)));
+        }
+        // costs of each pad at each position, the other blocks keep their positions
+        double[][] costs = new double[pads.size()][positions.size()];
+        for (int i = 0; i < pads.size(); i++) {
+            CircuitElement pad = pads.get(i);
+            for (int p = 0; p < positions.size(); p++) {
+                for (Net net : new LinkedHashSet<>(pad.getPinList())) {
+                    costs[i][p] += net.calcCostsWithMove(pad, positions.get(p), pad, positions.get(p));
+                }
+            }
+        }
+
+        Map<CircuitElement, Position> targets = new PadPlacer(pads, size, arch.getIoRate()).place();
+        double assigned = 0;
+        int[] used = new int[positions.size()];
+        for (int i = 0; i < pads.size(); i++) {
+            int p = positions.indexOf(targets.get(pads.get(i)));
+            assertTrue(p >= 0);
+            assertTrue(++used[p] <= arch.getIoRate());
+            assigned += costs[i][p];
+        }
+        assertEquals(minimalAssignment(costs, 0, new int[positions.size()], arch.getIoRate()), assigned, 1e-3);
+    }
+
+    private static double minimalAssignment(double[][] costs, int pad, int[] used, int ioRate) {
+        if (pad == costs.length) return 0;
+        double min = Double.MAX_VALUE;
+        for (int p = 0; p < used.length; p++) {
+            if (used[p] == ioRate) continue;
+            used[p]++;
+            min = Math.min(min, costs[pad][p] + minimalAssignment(costs, pad + 1, used, ioRate));
+            used[p]--;
+        }
+        return min;
+    }
+
+    /**
+     * Calculates the zft-position from the positions of the pads of all nets, without the sums of the nets.
+     */
+    private static Position zftPos(CircuitElement elem, int fanoutThreshold) {
+        double forceX = 0;
+        double forceY = 0;
+        double totalWeight = 0;
+        for (Net net : elem.getPinList()) {
+            double netX = 0;
+            double netY = 0;
+            double netWeight = 0;
+            for (CircuitElement pad : net.getConnectedPads()) {
+                if (pad == elem) continue;
+                netX += pad.getWeight() * pad.getX();
+                netY += pad.getWeight() * pad.getY();
+                netWeight += pad.getWeight();
+            }
+            int fanout = net.getConnectedPads().size();
+            if (fanout > fanoutThreshold) {
+                netX /= fanout - 1;
+                netY /= fanout - 1;
+                netWeight /= fanout - 1;
+            }
+            forceX += netX;
+            forceY += netY;
+            totalWeight += netWeight;
+        }
+        if (totalWeight == 0) return elem.getPosition();
+        return new Position((int) (forceX / totalWeight), (int) (forceY / totalWeight));
+    }
+
+    private static Map<CircuitElement, Position> placement(List<CircuitElement> logic) {
+        Map<CircuitElement, Position> placement = new HashMap<>();
+        for (CircuitElement elem : logic) {
+            placement.put(elem, elem.getPosition());
+        }
+        return placement;
+    }
+
+    private ZFTAlgorithm resume(PlacementCheckpoint checkpoint) {
+        NetlistParser netlistParser = new NetlistParser();
+        List<CircuitElement> elems = netlistParser.parse(new File(TEST_PATH), arch);
+        return new ZFTAlgorithm(elems, netlistParser.getNets(), arch, checkpoint, false);
+    }
+
+    private static double sumOfNetCosts(List<Net> nets) {
+        double sum = 0;
+        for (Net net : nets) {
+            sum += net.calcCosts();
+        }
+        return sum;
+    }
+}
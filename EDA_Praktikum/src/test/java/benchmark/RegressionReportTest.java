@@ -0,0 +1,46 @@
+package benchmark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegressionReportTest {
+    // mean 0, variance 2.5, thus a standard error of sqrt(0.5) and 4 degrees of freedom
+    private static final double[] VALUES = {-2, -1, 0, 1, 2};
+
+    @Test
+    void Test_OneSample() {
+        double se = Math.sqrt(0.5);
+        // quantiles of the t-distribution with 4 degrees of freedom
+        assertEquals(0.05, RegressionReport.oneSamplePValue(VALUES, -2.131847 * se), 1e-6);
+        assertEquals(0.01, RegressionReport.oneSamplePValue(VALUES, -3.746947 * se), 1e-6);
+        assertEquals(0.95, RegressionReport.oneSamplePValue(VALUES, 2.131847 * se), 1e-6);
+        assertEquals(0.5, RegressionReport.oneSamplePValue(VALUES, 0), 1e-12);
+    }
+
+    @Test
+    void Test_Welch() {
+        // equal variances and sizes, thus t is the shift and there are 8 degrees of freedom
+        assertEquals(0.05, RegressionReport.welchPValue(VALUES, shift(VALUES, 1.859548)), 1e-6);
+        assertEquals(0.01, RegressionReport.welchPValue(VALUES, shift(VALUES, 2.896459)), 1e-6);
+        assertEquals(0.99, RegressionReport.welchPValue(VALUES, shift(VALUES, -2.896459)), 1e-6);
+        assertEquals(0.5, RegressionReport.welchPValue(VALUES, VALUES), 1e-12);
+    }
+
+    @Test
+    void Test_ZeroVariance() {
+        double[] constant = {3, 3, 3};
+        assertEquals(0, RegressionReport.oneSamplePValue(constant, 2));
+        assertEquals(1, RegressionReport.oneSamplePValue(constant, 3));
+        assertEquals(1, RegressionReport.oneSamplePValue(constant, 4));
+        assertEquals(0, RegressionReport.welchPValue(new double[]{2, 2}, constant));
+        assertEquals(1, RegressionReport.welchPValue(constant, constant));
+        assertEquals(1, RegressionReport.welchPValue(constant, new double[]{2, 2}));
+    }
+
+    private static double[] shift(double[] values, double by) {
+        return Arrays.stream(values).map(value -> value + by).toArray();
+    }
+}
@@ -0,0 +1,34 @@
+package benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunHistoryTest {
+
+    @Test
+    void Test_TornLastLine(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("history.jsonl").toFile();
+        RunHistory history = new RunHistory(file);
+        RunRecord first = new RunRecord("2024-01-01T00:00:00Z", "abc", "test.net", "zft", "host");
+        first.setCost(12.5);
+        history.append(List.of(first, new RunRecord("2024-01-01T00:00:01Z", "abc", "e64.net", "zft", "host")));
+        // a run, that was killed while appending its record
+        Files.writeString(file.toPath(), "{\"timestamp\":\"2024-01-02T00:00:00Z\",\"revision\":\"de",
+                StandardOpenOption.APPEND);
+
+        List<RunRecord> records = history.load();
+        assertEquals(2, records.size());
+        assertEquals("test.net", records.get(0).getCircuit());
+        assertEquals(12.5, records.get(0).getCost());
+        assertEquals("e64.net", records.get(1).getCircuit());
+    }
+}
@@ -0,0 +1,70 @@
+package checker;
+
+import algorithm.ZFTAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import parser.NetlistParser;
+import types.Architecture;
+import types.CircuitElement;
+import types.ClassType;
+import types.Position;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementCheckerTest {
+    private final static String TEST_PATH = "./src/test/java/algorithm/test.net";
+    private Architecture arch;
+    private ZFTAlgorithm algorithm;
+    private List<CircuitElement> elems;
+
+    @BeforeEach
+    void setUp() {
+        arch = new Architecture();
+        arch.setIoRate(2);
+        arch.setIoClasses(Arrays.asList(ClassType.INPUT, ClassType.INPUT, ClassType.INPUT, ClassType.INPUT,
+                ClassType.OUTPUT, ClassType.GLOBAL));
+        NetlistParser parser = new NetlistParser();
+        elems = parser.parse(new File(TEST_PATH), arch);
+        algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, false, false);
+        algorithm.getPlacementsAsList();
+    }
+
+    private List<String> check() {
+        return new PlacementChecker(arch).check(elems, algorithm.getXDimensionRespectively(),
+                algorithm.getYDimensionRespectively());
+    }
+
+    @Test
+    void Test_Legal() {
+        assertEquals(List.of(), check());
+    }
+
+    @Test
+    void Test_Overlap() {
+        List<CircuitElement> logic = algorithm.getLogicElements();
+        logic.get(1).setPosition(logic.get(0).getPosition());
+        List<String> errors = check();
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("overlaps"));
+    }
+
+    @Test
+    void Test_CornerPad() {
+        algorithm.getIoElements().get(0).setPosition(new Position(0, 0));
+        List<String> errors = check();
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("corner"));
+    }
+
+    @Test
+    void Test_ClbOnRing() {
+        algorithm.getLogicElements().get(0).setPosition(new Position(0, 1));
+        List<String> errors = check();
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("io ring"));
+    }
+}
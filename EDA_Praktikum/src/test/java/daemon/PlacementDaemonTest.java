@@ -0,0 +1,140 @@
+package daemon;
+
+import benchmark.NetlistGenerator;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementDaemonTest {
+    private final static String TEST_PATH = "./src/test/java/algorithm/test.net";
+    private final static String ARCH_PATH = "./src/test/java/algorithm/4lut_sanitized.arch";
+
+    private PlacementDaemon daemon;
+    private Client client;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (client != null) client.close();
+        if (daemon != null) daemon.shutdown();
+    }
+
+    @Test
+    void Test_Placement() throws IOException {
+        start(1, 4);
+        client.send(place(TEST_PATH, 10));
+        JsonObject queued = client.receive();
+        assertEquals("queued", queued.get("status").getAsString());
+        long id = queued.get("id").getAsLong();
+        assertEquals("running", client.receive().get("status").getAsString());
+        JsonObject done = client.receive();
+        assertEquals(id, done.get("id").getAsLong());
+        assertEquals("succeeded", done.get("status").getAsString(), String.valueOf(done));
+        assertTrue(done.getAsJsonObject("results").get("cost").getAsDouble() > 0);
+    }
+
+    @Test
+    void Test_FullQueueAndCancel(@TempDir Path dir) throws IOException {
+        // a large netlist keeps the only thread busy, while the queue is filled
+        File large = dir.resolve("large.net").toFile();
+        new NetlistGenerator(20000, 64, 64).write(large);
+        start(1, 1);
+        client.send(place(large.getPath(), 1000));
+        long running = client.receive().get("id").getAsLong();
+        assertEquals("running", client.receive().get("status").getAsString());
+
+        client.send(place(TEST_PATH, 10));
+        JsonObject queued = client.receive();
+        assertEquals("queued", queued.get("status").getAsString());
+        client.send(place(TEST_PATH, 10));
+        JsonObject rejected = client.receive();
+        assertEquals("rejected", rejected.get("status").getAsString());
+        assertEquals("Queue is full", rejected.get("error").getAsString());
+
+        long id = queued.get("id").getAsLong();
+        client.send("{\"command\": \"cancel\", \"id\": " + id + "}");
+        JsonObject cancelled = client.receive();
+        assertEquals(id, cancelled.get("id").getAsLong());
+        assertEquals("cancelled", cancelled.get("status").getAsString());
+
+        client.send("{\"command\": \"cancel\", \"id\": " + running + "}");
+        JsonObject stopped = client.receive();
+        assertEquals(running, stopped.get("id").getAsLong());
+        assertEquals("cancelled", stopped.get("status").getAsString());
+    }
+
+    @Test
+    void Test_MalformedRequest() throws IOException {
+        start(1, 1);
+        client.send("{\"command\": ");
+        JsonObject unreadable = client.receive();
+        assertEquals("error", unreadable.get("status").getAsString());
+        assertTrue(unreadable.get("error").getAsString().startsWith("Unreadable request"));
+        client.send("{\"command\": \"place\", \"priority\": \"high\"}");
+        assertEquals("error", client.receive().get("status").getAsString());
+        client.send("{\"command\": \"unknown\"}");
+        assertEquals("error", client.receive().get("status").getAsString());
+        // the connection is kept
+        client.send("{\"command\": \"status\"}");
+        assertEquals("ok", client.receive().get("status").getAsString());
+    }
+
+    private void start(int threads, int capacity) throws IOException {
+        daemon = new PlacementDaemon(threads, capacity);
+        daemon.listen(0);
+        Thread thread = new Thread(daemon::serve);
+        thread.setDaemon(true);
+        thread.start();
+        client = new Client(((InetSocketAddress) daemon.getLocalAddress()).getPort());
+    }
+
+    private static String place(String netlist, int iterations) {
+        JsonObject request = new JsonObject();
+        request.addProperty("command", "place");
+        request.addProperty("netlist", netlist);
+        request.addProperty("architecture", ARCH_PATH);
+        request.addProperty("iterations", iterations);
+        return request.toString();
+    }
+
+    private static class Client {
+        private final Socket socket;
+        private final PrintWriter writer;
+        private final BufferedReader reader;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout(60_000);
+            writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        void send(String line) {
+            writer.println(line);
+        }
+
+        JsonObject receive() throws IOException {
+            String line = reader.readLine();
+            assertNotNull(line);
+            return JsonParser.parseString(line).getAsJsonObject();
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+    }
+}
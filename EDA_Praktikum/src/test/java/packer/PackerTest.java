@@ -0,0 +1,79 @@
+package packer;
+
+import algorithm.ZFTAlgorithm;
+import checker.PlacementChecker;
+import org.junit.jupiter.api.Test;
+import parser.ArchitectureParser;
+import parser.NetlistParser;
+import types.Architecture;
+import types.CircuitElement;
+import types.ElementType;
+import types.Net;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackerTest {
+    private final static String BLIF_PATH = "../t-vpack/e64.blif";
+    private final static String ARCH_PATH = "./src/test/java/algorithm/4lut_sanitized.arch";
+    private final static String CLUSTER_ARCH_PATH = "../vpr/4x4lut_sanitized.arch";
+    // clustering of e64 by t-vpack for the 4x4 lut architecture
+    private final static String CLUSTER_NET_PATH = "../vpr/e64-4x4lut.net";
+
+    @Test
+    void Test_PackSingleLut() throws InterruptedException {
+        Architecture arch = new ArchitectureParser().parse(new File(ARCH_PATH));
+        Packer packer = new Packer(arch);
+        List<CircuitElement> blocks = packer.pack(new File(BLIF_PATH));
+        assertEquals(404, blocks.size());
+        assertEquals(339, packer.getNets().size());
+        assertTrue(clbs(blocks).stream().allMatch(clb -> clb.getSubblockCount() == 1));
+        place(blocks, packer.getNets(), arch);
+    }
+
+    @Test
+    void Test_PackClusters() throws InterruptedException {
+        Architecture arch = new ArchitectureParser().parse(new File(CLUSTER_ARCH_PATH));
+        Packer packer = new Packer(arch);
+        List<CircuitElement> blocks = packer.pack(new File(BLIF_PATH));
+        NetlistParser parser = new NetlistParser();
+        List<CircuitElement> vpack = parser.parse(new File(CLUSTER_NET_PATH), arch);
+
+        // the same luts are packed into at most as many clbs as by t-vpack
+        List<CircuitElement> clbs = clbs(blocks);
+        assertTrue(clbs.stream().allMatch(clb -> clb.getSubblockCount() >= 1 && clb.getSubblockCount() <= 4));
+        assertTrue(clbs.size() < 274);
+        assertTrue(clbs.size() <= clbs(vpack).size());
+        assertEquals(subBlockNames(vpack), subBlockNames(blocks));
+        assertEquals(vpack.size() - clbs(vpack).size(), blocks.size() - clbs.size());
+        place(blocks, packer.getNets(), arch);
+    }
+
+    private static List<CircuitElement> clbs(List<CircuitElement> blocks) {
+        return blocks.stream().filter(block -> block.getType() == ElementType.CLB).toList();
+    }
+
+    private static Set<String> subBlockNames(List<CircuitElement> blocks) {
+        Set<String> names = new HashSet<>();
+        for (CircuitElement clb : clbs(blocks)) {
+            for (int i = 0; i < clb.getSubblockCount(); i++) {
+                assertTrue(names.add(clb.getSubBlockName(i)));
+                assertEquals(6, clb.getSubblock(i).size());
+            }
+        }
+        return names;
+    }
+
+    private static void place(List<CircuitElement> blocks, List<Net> nets, Architecture arch)
+            throws InterruptedException {
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(blocks, nets, arch, true, false);
+        algorithm.run(5, 4);
+        assertEquals(blocks.size(), algorithm.getPlacementsAsList().size());
+        assertEquals(List.of(), new PlacementChecker(arch).check(blocks, algorithm.getXDimensionRespectively(),
+                algorithm.getYDimensionRespectively()));
+    }
+}
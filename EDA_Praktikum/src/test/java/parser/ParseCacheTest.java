@@ -0,0 +1,67 @@
+package parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import types.NetlistTopology;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseCacheTest {
+    private final static String TEST_PATH = "./src/test/java/algorithm/test.net";
+    private final static String ARCH_PATH = "./src/test/java/algorithm/4lut_sanitized.arch";
+
+    @Test
+    void Test_Hit() {
+        ParseCache cache = new ParseCache(Long.MAX_VALUE);
+        File arch = new File(ARCH_PATH);
+        NetlistTopology topology = cache.getNetlist(new File(TEST_PATH), arch);
+        assertSame(topology, cache.getNetlist(new File(TEST_PATH), arch));
+        assertSame(cache.getArchitecture(arch), cache.getArchitecture(arch));
+    }
+
+    @Test
+    void Test_ChangedFile(@TempDir Path dir) throws IOException {
+        ParseCache cache = new ParseCache(Long.MAX_VALUE);
+        File arch = new File(ARCH_PATH);
+        File file = copy(dir, "test.net");
+        NetlistTopology topology = cache.getNetlist(file, arch);
+        assertTrue(file.setLastModified(file.lastModified() - 60_000));
+        NetlistTopology reparsed = cache.getNetlist(file, arch);
+        assertNotSame(topology, reparsed);
+        assertSame(reparsed, cache.getNetlist(file, arch));
+    }
+
+    @Test
+    void Test_Evict(@TempDir Path dir) throws IOException {
+        File arch = new File(ARCH_PATH);
+        File a = copy(dir, "a.net");
+        File b = copy(dir, "b.net");
+        File c = copy(dir, "c.net");
+        long size = new ParseCache(Long.MAX_VALUE).getNetlist(a, arch).estimateSize();
+
+        // room for two netlists, b is the least recently used one, when c is added
+        ParseCache cache = new ParseCache(2 * size);
+        NetlistTopology topologyA = cache.getNetlist(a, arch);
+        NetlistTopology topologyB = cache.getNetlist(b, arch);
+        cache.getNetlist(a, arch);
+        NetlistTopology topologyC = cache.getNetlist(c, arch);
+        assertSame(topologyA, cache.getNetlist(a, arch));
+        assertSame(topologyC, cache.getNetlist(c, arch));
+        assertNotSame(topologyB, cache.getNetlist(b, arch));
+
+        // the most recently used netlist is kept, even if it alone exceeds the budget
+        cache.setBudget(0);
+        NetlistTopology kept = cache.getNetlist(b, arch);
+        assertSame(kept, cache.getNetlist(b, arch));
+        assertNotSame(topologyC, cache.getNetlist(c, arch));
+    }
+
+    private static File copy(Path dir, String name) throws IOException {
+        return Files.copy(Path.of(TEST_PATH), dir.resolve(name)).toFile();
+    }
+}
@@ -0,0 +1,77 @@
+package router;
+
+import algorithm.ZFTAlgorithm;
+import benchmark.NetlistGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.ArchitectureParser;
+import parser.NetlistParser;
+import types.Architecture;
+import types.CircuitElement;
+import types.Net;
+import types.Position;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CongestionEstimatorTest {
+    private final static String ARCH_PATH = "./src/test/java/algorithm/4lut_sanitized.arch";
+
+    @Test
+    void Test_BruteForce(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("generated.net").toFile();
+        new NetlistGenerator(500, 32, 32).write(file);
+        Architecture arch = new ArchitectureParser().parse(new File(ARCH_PATH));
+        NetlistParser parser = new NetlistParser();
+        List<CircuitElement> elems = parser.parse(file, arch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, true, false);
+        int nx = algorithm.getXDimensionRespectively();
+        int ny = algorithm.getYDimensionRespectively();
+
+        // adds the demand of each net to every tile of its bounding box
+        double[][] horizontal = new double[nx + 2][ny + 2];
+        double[][] vertical = new double[nx + 2][ny + 2];
+        Set<Net> nets = new LinkedHashSet<>();
+        elems.forEach(elem -> nets.addAll(elem.getPinList()));
+        for (Net net : nets) {
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1, pins = 0;
+            for (CircuitElement elem : elems) {
+                for (Net pin : elem.getPinList()) {
+                    if (pin != net) continue;
+                    Position pos = elem.getPosition();
+                    minX = Math.min(minX, pos.getX());
+                    minY = Math.min(minY, pos.getY());
+                    maxX = Math.max(maxX, pos.getX());
+                    maxY = Math.max(maxY, pos.getY());
+                    pins++;
+                }
+            }
+            if (pins < 2) continue;
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    horizontal[x][y] += net.calcCrossings() / (maxY - minY + 1);
+                    vertical[x][y] += net.calcCrossings() / (maxX - minX + 1);
+                }
+            }
+        }
+
+        CongestionEstimator.CongestionMap map = new CongestionEstimator(elems, nx, ny).estimate();
+        double peak = 0;
+        for (int x = 0; x <= nx + 1; x++) {
+            for (int y = 0; y <= ny + 1; y++) {
+                assertEquals(horizontal[x][y], map.getHorizontalDemand(x, y), 1e-9, "(" + x + "/" + y + ")");
+                assertEquals(vertical[x][y], map.getVerticalDemand(x, y), 1e-9, "(" + x + "/" + y + ")");
+                peak = Math.max(peak, Math.max(horizontal[x][y], vertical[x][y]));
+            }
+        }
+        assertTrue(peak > 0);
+        assertEquals(peak, map.getPeakDemand(), 1e-9);
+        assertEquals((int) Math.ceil(0.85 * peak), map.getPredictedChannelWidth());
+    }
+}
@@ -0,0 +1,52 @@
+package router;
+
+import algorithm.ZFTAlgorithm;
+import org.junit.jupiter.api.Test;
+import parser.ArchitectureParser;
+import parser.NetlistParser;
+import types.Architecture;
+import types.CircuitElement;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathFinderRouterTest {
+    private final static String TEST_PATH = "./src/test/java/algorithm/test.net";
+    private final static String ARCH_PATH = "./src/test/java/algorithm/4lut_sanitized.arch";
+
+    @Test
+    void Test_RouteMinChannelWidth() throws InterruptedException {
+        Architecture arch = new ArchitectureParser().parse(new File(ARCH_PATH));
+        NetlistParser parser = new NetlistParser();
+        List<CircuitElement> elems = parser.parse(new File(TEST_PATH), arch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, false, false);
+        algorithm.run(10, 4);
+        algorithm.getPlacementsAsList();
+
+        PathFinderRouter router = new PathFinderRouter(elems, parser.getNets(), arch,
+                algorithm.getXDimensionRespectively(), algorithm.getYDimensionRespectively(), false);
+        RoutingResult result = router.routeMinChannelWidth();
+        assertTrue(result.isSuccessful());
+        assertTrue(result.getWirelength() > 0);
+        assertTrue(router.checkRouting());
+        // the width is minimal
+        if (result.getChannelWidth() > 1) assertFalse(router.route(result.getChannelWidth() - 1).isSuccessful());
+    }
+
+    @Test
+    void Test_Interrupt() throws InterruptedException {
+        Architecture arch = new ArchitectureParser().parse(new File(ARCH_PATH));
+        NetlistParser parser = new NetlistParser();
+        List<CircuitElement> elems = parser.parse(new File(TEST_PATH), arch);
+        ZFTAlgorithm algorithm = new ZFTAlgorithm(elems, parser.getNets(), arch, false, false);
+        algorithm.run(10, 4);
+
+        PathFinderRouter router = new PathFinderRouter(elems, parser.getNets(), arch,
+                algorithm.getXDimensionRespectively(), algorithm.getYDimensionRespectively(), false);
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, router::routeMinChannelWidth);
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+}
@@ -0,0 +1,35 @@
+package types;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubblockPinsTest {
+
+    @Test
+    void Test_RoundTrip() {
+        List<String> pins = List.of("0", "open", "ble_0", "ble_3", "4", "5", "open");
+        short[] packed = SubblockPins.pack(pins);
+        assertEquals(pins.size(), packed.length);
+        assertEquals(pins, SubblockPins.unpack(packed));
+        assertEquals(List.of(), SubblockPins.unpack(SubblockPins.pack(List.of())));
+    }
+
+    @Test
+    void Test_SeveralSubblocks() {
+        List<String> first = List.of("0", "1", "2", "open", "10", "open");
+        List<String> second = List.of("3", "ble_0", "4", "open", "11", "open");
+        short[] packed = SubblockPins.packAll(List.of(first, second));
+        assertEquals(first, SubblockPins.unpack(packed, 0, 6));
+        assertEquals(second, SubblockPins.unpack(packed, 6, 12));
+        assertThrows(IllegalStateException.class, () -> SubblockPins.packAll(List.of(first, List.of("0"))));
+    }
+
+    @Test
+    void Test_UnknownPin() {
+        assertThrows(IllegalStateException.class, () -> SubblockPins.pack(List.of("0", "clk")));
+        assertThrows(IllegalStateException.class, () -> SubblockPins.pack(List.of("ble_x")));
+    }
+}